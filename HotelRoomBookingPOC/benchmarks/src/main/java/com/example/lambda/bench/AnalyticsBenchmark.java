@@ -0,0 +1,56 @@
+package com.example.lambda.bench;
+
+import com.example.lambda.analytics.BookingColumns;
+import com.example.lambda.analytics.OccupancyAnalytics;
+import com.example.lambda.analytics.OccupancyReport;
+import com.example.lambda.model.DateRange;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+public class AnalyticsBenchmark {
+
+    @Param({"1000000", "5000000"})
+    public int bookings;
+
+    @Param({"500"})
+    public int rooms;
+
+    private BookingColumns columns;
+    private DateRange quarter;
+    private ForkJoinPool single;
+
+    @Setup
+    public void setUp() {
+        columns = Fixtures.syntheticBookings(bookings, rooms, 42);
+        quarter = DateRange.of(Fixtures.FIRST_CHECK_IN.plusMonths(3), Fixtures.FIRST_CHECK_IN.plusMonths(6));
+        single = new ForkJoinPool(1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        single.shutdown();
+    }
+
+    @Benchmark
+    public OccupancyReport forkJoin() {
+        return OccupancyAnalytics.report(columns, quarter);
+    }
+
+    @Benchmark
+    public OccupancyReport sequential() {
+        return OccupancyAnalytics.report(columns, quarter, single);
+    }
+
+    @Benchmark
+    public String forkJoinJson() {
+        return OccupancyAnalytics.report(columns, quarter).toJson();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.lambda.bench;
+
+import com.example.lambda.model.Booking;
+import com.example.lambda.util.BookingParser;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingParserBenchmark {
+
+    private String body;
+
+    @Setup
+    public void setUp() {
+        body = Fixtures.bookingJson(42);
+    }
+
+    @Benchmark
+    public Optional<Booking> parseBooking() {
+        return BookingParser.parseBooking(body);
+    }
+}
@@ -0,0 +1,37 @@
+package com.example.lambda.bench;
+
+import com.example.lambda.model.Booking;
+import com.example.lambda.util.BookingParser;
+import com.example.lambda.validation.BookingValidator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BookingValidatorBenchmark {
+
+    private Booking valid;
+    private Booking missingDates;
+
+    @Setup
+    public void setUp() {
+        valid = BookingParser.parseBooking(Fixtures.bookingJson(7)).get();
+        missingDates = BookingParser.parseBooking("{\"roomId\":\"room-1\",\"userId\":\"user-1\"}").get();
+    }
+
+    @Benchmark
+    public Optional<String> validateValid() {
+        return BookingValidator.validate(valid);
+    }
+
+    @Benchmark
+    public Optional<String> validateInvalid() {
+        return BookingValidator.validate(missingDates);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.lambda.bench;
+
+import com.example.lambda.conflict.BookingConflictIndex;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConflictIndexBenchmark {
+
+    private static final String ROOM = "room-1";
+
+    @Param({"10", "1000", "100000"})
+    public int bookingsPerRoom;
+
+    private BookingConflictIndex index;
+    private int firstDay;
+
+    @Setup
+    public void setUp() {
+        index = new BookingConflictIndex();
+        firstDay = (int) Fixtures.FIRST_CHECK_IN.toEpochDay();
+        for (int i = 0; i < bookingsPerRoom; i++) {
+            index.add(ROOM, "booking-" + i, firstDay + i * 3, firstDay + i * 3 + 2);
+        }
+    }
+
+    @Benchmark
+    public boolean conflicting() {
+        int day = firstDay + (bookingsPerRoom / 2) * 3;
+        return index.hasConflict(ROOM, day, day + 1, null);
+    }
+
+    @Benchmark
+    public boolean free() {
+        int day = firstDay + (bookingsPerRoom / 2) * 3 + 2;
+        return index.hasConflict(ROOM, day, day + 1, null);
+    }
+
+    @Benchmark
+    public boolean addAndRemove() {
+        int day = firstDay + bookingsPerRoom * 3;
+        boolean added = index.add(ROOM, "probe", day, day + 2);
+        index.remove(ROOM, "probe");
+        return added;
+    }
+}
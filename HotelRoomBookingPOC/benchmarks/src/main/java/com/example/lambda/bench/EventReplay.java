@@ -0,0 +1,102 @@
+package com.example.lambda.bench;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.lambda.handler.RouterHandler;
+import com.example.lambda.local.InMemoryDynamoDbClient;
+import com.example.lambda.local.LocalContext;
+import com.example.lambda.util.DynamoDBClientUtil;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replays recorded API Gateway proxy events through {@link RouterHandler} against the in-memory
+ * DynamoDB stand-in (or the real client with -Dreplay.client=real). Input is NDJSON, one
+ * {"expectStatus": 200, "event": {...}} per line; "${bookingId}" anywhere in an event is replaced
+ * by the bookingId of the most recent response that returned one. Exits 1 on any mismatch.
+ *
+ *   java -cp benchmarks.jar com.example.lambda.bench.EventReplay [events.jsonl]
+ */
+public class EventReplay {
+
+    private static final String DEFAULT_EVENTS = "/events/booking-flow.jsonl";
+
+    private static final ObjectMapper mapper = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public static void main(String[] args) throws Exception {
+        if (!"real".equals(System.getProperty("replay.client"))) {
+            DynamoDBClientUtil.setClient(seededClient());
+        }
+
+        RouterHandler router = new RouterHandler();
+        LocalContext context = new LocalContext();
+        String bookingId = "";
+        int line = 0;
+        int failures = 0;
+
+        try (BufferedReader reader = open(args)) {
+            String json;
+            while ((json = reader.readLine()) != null) {
+                line++;
+                if (json.isBlank() || json.startsWith("#")) {
+                    continue;
+                }
+                JsonNode entry = mapper.readTree(json.replace("${bookingId}", bookingId));
+                APIGatewayProxyRequestEvent event = mapper.treeToValue(entry.get("event"), APIGatewayProxyRequestEvent.class);
+
+                long start = System.nanoTime();
+                APIGatewayProxyResponseEvent response = router.handleRequest(event, context);
+                double millis = (System.nanoTime() - start) / 1_000_000.0;
+
+                int expected = entry.path("expectStatus").asInt(response.getStatusCode());
+                boolean ok = expected == response.getStatusCode();
+                if (!ok) {
+                    failures++;
+                }
+                System.out.printf("%s %3d %-6s %-40s %d %.2fms %s%n", ok ? "OK  " : "FAIL", line,
+                        event.getHttpMethod(), event.getPath(), response.getStatusCode(), millis,
+                        ok ? "" : "expected " + expected + ": " + response.getBody());
+
+                JsonNode body = response.getBody() == null ? null : mapper.readTree(response.getBody());
+                if (body != null && body.hasNonNull("bookingId")) {
+                    bookingId = body.get("bookingId").asText();
+                }
+            }
+        }
+
+        System.out.println(failures == 0 ? "All events replayed" : failures + " event(s) failed");
+        if (failures > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static BufferedReader open(String[] args) throws Exception {
+        InputStream in = args.length > 0
+                ? Files.newInputStream(Paths.get(args[0]))
+                : EventReplay.class.getResourceAsStream(DEFAULT_EVENTS);
+        return new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+    }
+
+    private static InMemoryDynamoDbClient seededClient() {
+        InMemoryDynamoDbClient client = Fixtures.bookingsTable();
+        client.putItem(PutItemRequest.builder().tableName(Fixtures.HOTELS).item(Map.of(
+                "hotelId", AttributeValue.fromS("hotel-1"),
+                "name", AttributeValue.fromS("Replay Hotel"),
+                "roomIds", AttributeValue.fromSs(List.of("room-1", "room-2", "room-3"))
+        )).build());
+        return client;
+    }
+}
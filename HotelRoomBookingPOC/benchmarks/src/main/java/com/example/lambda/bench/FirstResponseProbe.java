@@ -0,0 +1,66 @@
+package com.example.lambda.bench;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.lambda.local.InMemoryDynamoDbClient;
+import com.example.lambda.local.LocalContext;
+import com.example.lambda.util.DynamoDBClientUtil;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+
+/**
+ * Runs in a fresh JVM launched by {@link StartupTimeBenchmark}: loads one handler, sends it one
+ * representative request and prints the timings as a JSON line. Uses the in-memory DynamoDB
+ * stand-in unless started with -Dprobe.client=real.
+ */
+public class FirstResponseProbe {
+
+    static final String SEEDED_BOOKING = "booking-room-1-0";
+
+    public static void main(String[] args) throws Exception {
+        String handlerName = args[0];
+        if (!"real".equals(System.getProperty("probe.client"))) {
+            InMemoryDynamoDbClient client = Fixtures.bookingsTable();
+            Fixtures.put(client, Fixtures.bookingItem(0, "room-1", "user-1"));
+            DynamoDBClientUtil.setClient(client);
+        }
+
+        long initStart = System.nanoTime();
+        @SuppressWarnings("unchecked")
+        RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler =
+                (RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>)
+                        Class.forName(handlerName).getDeclaredConstructor().newInstance();
+        long invokeStart = System.nanoTime();
+        APIGatewayProxyResponseEvent response = handler.handleRequest(requestFor(handlerName), new LocalContext());
+        long end = System.nanoTime();
+
+        long sinceJvmStart = System.currentTimeMillis() - ManagementFactory.getRuntimeMXBean().getStartTime();
+        System.out.println("{\"handler\":\"" + handlerName + "\""
+                + ",\"statusCode\":" + response.getStatusCode()
+                + ",\"jvmStartToFirstResponseMs\":" + sinceJvmStart
+                + ",\"handlerInitMs\":" + (invokeStart - initStart) / 1_000_000.0
+                + ",\"firstInvokeMs\":" + (end - invokeStart) / 1_000_000.0 + "}");
+    }
+
+    static APIGatewayProxyRequestEvent requestFor(String handlerName) {
+        String simpleName = handlerName.substring(handlerName.lastIndexOf('.') + 1);
+        APIGatewayProxyRequestEvent request = new APIGatewayProxyRequestEvent();
+        switch (simpleName) {
+            case "CreateBookingHandler":
+                return request.withBody(Fixtures.bookingJson(1000));
+            case "UpdateBookingHandler":
+                return request.withPathParameters(Map.of("bookingid", SEEDED_BOOKING))
+                        .withBody("{\"roomId\":\"room-1\",\"checkInDate\":\"2030-01-01\",\"checkOutDate\":\"2030-01-03\"}");
+            case "DeleteBookingHandler":
+                return request.withPathParameters(Map.of("bookingid", SEEDED_BOOKING));
+            case "SearchByRoomHandler":
+                return request.withPathParameters(Map.of("roomid", "room-1"));
+            case "SearchByUserHandler":
+                return request.withPathParameters(Map.of("userid", "user-1"));
+            default:
+                throw new IllegalArgumentException("No probe request for " + handlerName);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.lambda.bench;
+
+import com.example.lambda.analytics.BookingColumns;
+import com.example.lambda.availability.RoomOccupancy;
+import com.example.lambda.local.InMemoryDynamoDbClient;
+import com.example.lambda.projection.BookingViews;
+import com.example.lambda.reservation.RoomNightLocks;
+import com.example.lambda.util.BookingQuery;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+final class Fixtures {
+
+    static final String TABLE = "Bookings";
+    static final String HOTELS = "Hotels";
+    static final LocalDate FIRST_CHECK_IN = LocalDate.of(2026, 1, 1);
+
+    private Fixtures() {}
+
+    static String bookingJson(int i) {
+        LocalDate checkIn = FIRST_CHECK_IN.plusDays(i * 3L);
+        return "{\"roomId\":\"room-" + (i % 50) + "\",\"userId\":\"user-" + (i % 500) + "\","
+                + "\"checkInDate\":\"" + checkIn + "\",\"checkOutDate\":\"" + checkIn.plusDays(2) + "\"}";
+    }
+
+    static Map<String, AttributeValue> bookingItem(int i, String roomId, String userId) {
+        LocalDate checkIn = FIRST_CHECK_IN.plusDays(i * 3L);
+        return Map.of(
+                "bookingId", AttributeValue.fromS("booking-" + roomId + "-" + i),
+                "roomId", AttributeValue.fromS(roomId),
+                "userId", AttributeValue.fromS(userId),
+                "checkInDate", AttributeValue.fromS(checkIn.toString()),
+                "checkOutDate", AttributeValue.fromS(checkIn.plusDays(2).toString()),
+                "checkInDay", AttributeValue.fromN(Long.toString(checkIn.toEpochDay())),
+                "checkOutDay", AttributeValue.fromN(Long.toString(checkIn.plusDays(2).toEpochDay())),
+                "deleted", AttributeValue.fromBool(false)
+        );
+    }
+
+    static List<Map<String, AttributeValue>> bookingItems(int count) {
+        List<Map<String, AttributeValue>> items = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            items.add(bookingItem(i, "room-" + (i % 50), "user-" + (i % 500)));
+        }
+        return items;
+    }
+
+    // A year of stays of 1-14 nights booked 0-400 days ahead; 15% cancelled, 2% without a booking date
+    static BookingColumns syntheticBookings(int count, int rooms, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int firstDay = (int) FIRST_CHECK_IN.toEpochDay();
+        BookingColumns columns = new BookingColumns();
+        for (int i = 0; i < count; i++) {
+            int checkIn = firstDay + random.nextInt(365);
+            int created = random.nextInt(50) == 0 ? BookingColumns.UNKNOWN : checkIn - random.nextInt(401);
+            columns.add("room-" + random.nextInt(rooms), checkIn, checkIn + 1 + random.nextInt(14), created,
+                    random.nextInt(100) < 15);
+        }
+        return columns;
+    }
+
+    static InMemoryDynamoDbClient bookingsTable() {
+        return new InMemoryDynamoDbClient()
+                .createTable(TABLE, "bookingId")
+                .createIndex(TABLE, BookingQuery.ROOM_INDEX, "roomId", "checkInDate")
+                .createIndex(TABLE, BookingQuery.USER_INDEX, "userId", "checkInDate")
+                .createTable(RoomNightLocks.TABLE, "lockId")
+                .createTable(RoomOccupancy.TABLE, "roomId", "month")
+                .createTable(HOTELS, "hotelId")
+                .createTable(BookingViews.TABLE, "viewId");
+    }
+
+    static void put(InMemoryDynamoDbClient client, Map<String, AttributeValue> item) {
+        client.putItem(PutItemRequest.builder().tableName(TABLE).item(item).build());
+    }
+}
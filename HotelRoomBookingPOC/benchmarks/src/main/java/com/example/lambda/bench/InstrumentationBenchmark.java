@@ -0,0 +1,62 @@
+package com.example.lambda.bench;
+
+import com.example.lambda.logging.Level;
+import com.example.lambda.logging.Log;
+import com.example.lambda.metrics.LatencyHistogram;
+import com.example.lambda.metrics.Metrics;
+import com.example.lambda.metrics.RequestTimer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-call cost of the instrumentation on the request path. Run with {@code -prof gc}:
+ * {@code disabledDebug} should report zero bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InstrumentationBenchmark {
+
+    private final LatencyHistogram histogram = new LatencyHistogram();
+    private final String bookingId = "2d5c4a8e-7c1b-4c3f-9a57-3f0f1b2f6f10";
+    private long value;
+
+    @Setup
+    public void setUp() {
+        PrintStream discard = new PrintStream(OutputStream.nullOutputStream());
+        Log.setOutput(discard);
+        Metrics.setOutput(discard);
+        Log.setLevel(Level.INFO);
+    }
+
+    @Benchmark
+    public void disabledDebug() {
+        Log.debug("booking.create.parsed", "bookingId", bookingId, "roomId", "room-1");
+    }
+
+    @Benchmark
+    public void enabledInfo() {
+        Log.info("booking.created", "bookingId", bookingId, "roomId", "room-1");
+    }
+
+    @Benchmark
+    public void histogramRecord() {
+        histogram.recordMicros(value++ & 0xFFFF);
+    }
+
+    @Benchmark
+    public void requestWithThreePhases() {
+        try (RequestTimer timer = Metrics.start("Benchmark")) {
+            long t = timer.mark();
+            t = timer.record("Parse", t);
+            t = timer.record("Validate", t);
+            timer.record("Serialize", t);
+        }
+    }
+}
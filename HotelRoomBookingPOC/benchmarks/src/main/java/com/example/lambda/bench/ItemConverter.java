@@ -0,0 +1,25 @@
+package com.example.lambda.bench;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.Serializable;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// The search handlers' original item-to-map conversion, kept as the baseline for SearchResponseBenchmark
+public class ItemConverter {
+
+    public static Map<String, ? extends Serializable> convertItemToMap(Map<String, AttributeValue> item) {
+        return item.entrySet().stream()
+                .collect(Collectors.toMap(
+                        Map.Entry::getKey,
+                        entry -> {
+                            AttributeValue val = entry.getValue();
+                            if (val.s() != null) return val.s();
+                            if (val.n() != null) return val.n();
+                            if (val.bool() != null) return val.bool();
+                            return null;
+                        }
+                ));
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.lambda.bench;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.lambda.cache.BookingCache;
+import com.example.lambda.handler.RouterHandler;
+import com.example.lambda.local.InMemoryDynamoDbClient;
+import com.example.lambda.local.LocalContext;
+import com.example.lambda.metrics.LatencyHistogram;
+import com.example.lambda.resilience.Resilience;
+import com.example.lambda.util.DynamoDBClientUtil;
+import com.example.lambda.util.JsonUtil;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Drives every route through {@link RouterHandler} on the in-memory DynamoDB stand-in with a
+ * chosen traffic mix, optionally with injected latency, faults and a capacity limit, then reports
+ * throughput, per-route latency percentiles, status counts and the invariant check from
+ * {@link LockInvariants}. Exits 1 on any invariant violation.
+ *
+ * <pre>
+ * java -Dload.mix=hot-room -Dload.requests=20000 -Dload.threads=64 \
+ *      -Dload.latencyMicros=500 -Dload.throttleRate=0.01 -Dload.errorRate=0.005 -Dload.capacity=0 \
+ *      -cp target/benchmarks.jar com.example.lambda.bench.LoadGenerator
+ * </pre>
+ * Mixes: balanced, hot-room (most writes on one room), search-heavy, hot-search (most searches on
+ * one room), write-heavy.
+ */
+public class LoadGenerator {
+
+    private enum Route { CREATE, UPDATE, DELETE, SEARCH_ROOM, SEARCH_USER, AVAILABILITY }
+
+    private static final String HOT_ROOM = "room-hot";
+    private static final String HOTEL = "hotel-load";
+    private static final LocalDate WINDOW_START = LocalDate.of(2027, 1, 1);
+    private static final int WINDOW_DAYS = 120;
+
+    private static final Map<String, int[]> MIXES = Map.of(
+            // create, update, delete, search by room, search by user, availability
+            "balanced", new int[]{30, 10, 10, 20, 20, 10},
+            "hot-room", new int[]{60, 15, 15, 5, 5, 0},
+            "search-heavy", new int[]{5, 2, 3, 40, 40, 10},
+            "hot-search", new int[]{3, 1, 1, 85, 10, 0},
+            "write-heavy", new int[]{60, 20, 20, 0, 0, 0});
+
+    public static void main(String[] args) throws Exception {
+        String mixName = System.getProperty("load.mix", "balanced");
+        int[] weights = MIXES.get(mixName);
+        if (weights == null) {
+            throw new IllegalArgumentException("Unknown mix " + mixName + "; one of " + MIXES.keySet());
+        }
+        int requests = Integer.getInteger("load.requests", 20_000);
+        int threads = Integer.getInteger("load.threads", 64);
+        int rooms = Integer.getInteger("load.rooms", 50);
+        boolean hot = mixName.startsWith("hot-");
+
+        InMemoryDynamoDbClient client = seeded(rooms);
+        long latencyMicros = Long.getLong("load.latencyMicros", 0);
+        client.withLatency(latencyMicros / 2, latencyMicros * 3 / 2)
+                .withFaults(Double.parseDouble(System.getProperty("load.throttleRate", "0")),
+                        Double.parseDouble(System.getProperty("load.errorRate", "0")))
+                .withCapacity(Integer.getInteger("load.capacity", 0));
+        DynamoDBClientUtil.setClient(client);
+
+        RouterHandler router = new RouterHandler();
+        Map<Route, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+        Map<String, AtomicInteger> statusCounts = new ConcurrentHashMap<>();
+        ConcurrentLinkedQueue<String> created = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < requests; i++) {
+            pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                Route route = pick(weights, random);
+                String roomId = hot && random.nextInt(10) < 9 ? HOT_ROOM : "room-" + random.nextInt(rooms);
+                APIGatewayProxyRequestEvent event = event(route, roomId, created, random);
+                if (event == null) {
+                    route = Route.CREATE;
+                    event = event(route, roomId, created, random);
+                }
+
+                long began = System.nanoTime();
+                APIGatewayProxyResponseEvent response = router.handleRequest(event, new LocalContext());
+                latencies.computeIfAbsent(route, r -> new LatencyHistogram()).recordNanos(System.nanoTime() - began);
+                statusCounts.computeIfAbsent(route + " " + response.getStatusCode(), k -> new AtomicInteger()).incrementAndGet();
+
+                if (route == Route.CREATE && response.getStatusCode() == 200) {
+                    created.add(JsonUtil.mapper().readTree(response.getBody()).get("bookingId").asText());
+                } else if (route == Route.DELETE && response.getStatusCode() != 200) {
+                    created.add(event.getPathParameters().get("bookingid"));
+                }
+                return null;
+            });
+        }
+        long began = System.nanoTime();
+        start.countDown();
+        pool.shutdown();
+        pool.awaitTermination(30, TimeUnit.MINUTES);
+        double elapsedSeconds = (System.nanoTime() - began) / 1e9;
+
+        List<String> violations = LockInvariants.violations(client);
+        System.out.printf("mix=%s requests=%d threads=%d elapsed=%.2fs throughput=%.0f req/s%n",
+                mixName, requests, threads, elapsedSeconds, requests / elapsedSeconds);
+        System.out.println("route           count     p50ms     p90ms     p99ms     maxms");
+        new TreeMap<>(latencies).forEach((route, histogram) -> {
+            LatencyHistogram.Snapshot snapshot = histogram.drain();
+            System.out.printf("%-12s %8d %9.2f %9.2f %9.2f %9.2f%n", route, snapshot.count(),
+                    snapshot.percentileMicros(50) / 1000.0, snapshot.percentileMicros(90) / 1000.0,
+                    snapshot.percentileMicros(99) / 1000.0, snapshot.maxMicros() / 1000.0);
+        });
+        System.out.println("statusCounts=" + new TreeMap<>(statusCounts));
+        System.out.println("injected throttles=" + client.throttledCount() + " errors=" + client.failedCount()
+                + " admissionLimit=" + Resilience.limiter().limit()
+                + " retryTokens=" + String.format("%.1f", Resilience.budget().tokens()));
+        System.out.println("searchCoalescing " + BookingCache.searchStats(3));
+        System.out.println("violations=" + violations.size());
+        violations.stream().limit(20).forEach(v -> System.out.println("  " + v));
+        System.exit(violations.isEmpty() ? 0 : 1);
+    }
+
+    private static Route pick(int[] weights, ThreadLocalRandom random) {
+        int total = 0;
+        for (int weight : weights) total += weight;
+        int roll = random.nextInt(total);
+        for (int i = 0; i < weights.length; i++) {
+            roll -= weights[i];
+            if (roll < 0) return Route.values()[i];
+        }
+        return Route.CREATE;
+    }
+
+    // Null when the route needs an existing booking and none is known yet
+    private static APIGatewayProxyRequestEvent event(Route route, String roomId, ConcurrentLinkedQueue<String> created,
+                                                     ThreadLocalRandom random) {
+        LocalDate checkIn = WINDOW_START.plusDays(random.nextInt(WINDOW_DAYS));
+        String stay = "\"checkInDate\":\"" + checkIn + "\",\"checkOutDate\":\"" + checkIn.plusDays(1 + random.nextInt(4)) + "\"";
+        switch (route) {
+            case CREATE:
+                return new APIGatewayProxyRequestEvent().withHttpMethod("POST").withPath("/bookings")
+                        .withBody("{\"roomId\":\"" + roomId + "\",\"userId\":\"user-" + random.nextInt(200) + "\"," + stay + "}");
+            case UPDATE: {
+                // Peeked, not taken, so concurrent reschedules of one booking happen too
+                String bookingId = created.peek();
+                return bookingId == null ? null : new APIGatewayProxyRequestEvent().withHttpMethod("PUT")
+                        .withPath("/bookings/" + bookingId).withBody("{" + stay + "}");
+            }
+            case DELETE: {
+                String bookingId = created.poll();
+                return bookingId == null ? null : new APIGatewayProxyRequestEvent().withHttpMethod("DELETE")
+                        .withPath("/bookings/" + bookingId);
+            }
+            case SEARCH_ROOM:
+                return new APIGatewayProxyRequestEvent().withHttpMethod("GET").withPath("/rooms/" + roomId + "/bookings")
+                        .withQueryStringParameters(Map.of("limit", "50"));
+            case SEARCH_USER:
+                return new APIGatewayProxyRequestEvent().withHttpMethod("GET")
+                        .withPath("/users/user-" + random.nextInt(200) + "/bookings");
+            default:
+                return new APIGatewayProxyRequestEvent().withHttpMethod("GET").withPath("/hotels/" + HOTEL + "/availability")
+                        .withQueryStringParameters(Map.of("checkInDate", checkIn.toString(),
+                                "checkOutDate", checkIn.plusDays(3).toString()));
+        }
+    }
+
+    private static InMemoryDynamoDbClient seeded(int rooms) {
+        InMemoryDynamoDbClient client = Fixtures.bookingsTable();
+        List<String> roomIds = new ArrayList<>();
+        roomIds.add(HOT_ROOM);
+        for (int i = 0; i < rooms; i++) {
+            roomIds.add("room-" + i);
+        }
+        client.putItem(PutItemRequest.builder().tableName(Fixtures.HOTELS).item(Map.of(
+                "hotelId", AttributeValue.fromS(HOTEL),
+                "name", AttributeValue.fromS("Load Hotel"),
+                "roomIds", AttributeValue.fromSs(roomIds)
+        )).build());
+        return client;
+    }
+}
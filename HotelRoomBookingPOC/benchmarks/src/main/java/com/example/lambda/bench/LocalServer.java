@@ -0,0 +1,40 @@
+package com.example.lambda.bench;
+
+import com.example.lambda.local.InMemoryDynamoDbClient;
+import com.example.lambda.server.BookingServer;
+import com.example.lambda.util.DynamoDBClientUtil;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.PutItemRequest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Server mode against the in-memory DynamoDB stand-in, for load-testing the request path on a
+ * laptop without AWS credentials. Seeds hotel-1 with room-1..room-50.
+ *
+ *   java -cp benchmarks.jar com.example.lambda.bench.LocalServer [port]
+ */
+public class LocalServer {
+
+    public static void main(String[] args) throws Exception {
+        DynamoDBClientUtil.setClient(seeded());
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        BookingServer server = new BookingServer(port, 1024, 10, 30_000).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "local-server-shutdown"));
+    }
+
+    private static InMemoryDynamoDbClient seeded() {
+        InMemoryDynamoDbClient client = Fixtures.bookingsTable();
+        String[] rooms = new String[50];
+        for (int i = 0; i < rooms.length; i++) {
+            rooms[i] = "room-" + (i + 1);
+        }
+        client.putItem(PutItemRequest.builder().tableName(Fixtures.HOTELS).item(Map.of(
+                "hotelId", AttributeValue.fromS("hotel-1"),
+                "name", AttributeValue.fromS("Local Hotel"),
+                "roomIds", AttributeValue.fromSs(List.of(rooms))
+        )).build());
+        return client;
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.lambda.bench;
+
+import com.example.lambda.local.InMemoryDynamoDbClient;
+import com.example.lambda.model.DateRange;
+import com.example.lambda.reservation.RoomNightLocks;
+import com.example.lambda.util.StayAttributes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// No room-night held by two live bookings, and the lock table matching the live bookings exactly
+final class LockInvariants {
+
+    private LockInvariants() {}
+
+    static List<String> violations(InMemoryDynamoDbClient client) {
+        List<String> violations = new ArrayList<>();
+        Map<String, String> nightOwners = new HashMap<>();
+        for (Map<String, AttributeValue> booking : live(client)) {
+            String bookingId = booking.get("bookingId").s();
+            DateRange stay = StayAttributes.read(booking);
+            for (int night = stay.getCheckInDay(); night < stay.getCheckOutDay(); night++) {
+                String lockId = RoomNightLocks.lockId(booking.get("roomId").s(), night);
+                String previous = nightOwners.put(lockId, bookingId);
+                if (previous != null) {
+                    violations.add("double-booked " + lockId + " by " + previous + " and " + bookingId);
+                }
+            }
+        }
+        Map<String, String> lockOwners = new HashMap<>();
+        for (Map<String, AttributeValue> lock : client.items(RoomNightLocks.TABLE)) {
+            lockOwners.put(lock.get("lockId").s(), lock.get("bookingId").s());
+        }
+        nightOwners.forEach((lockId, bookingId) -> {
+            if (!bookingId.equals(lockOwners.get(lockId))) {
+                violations.add("night " + lockId + " of " + bookingId + " not locked by it (lock owner " + lockOwners.get(lockId) + ")");
+            }
+        });
+        lockOwners.forEach((lockId, bookingId) -> {
+            if (!bookingId.equals(nightOwners.get(lockId))) {
+                violations.add("orphaned lock " + lockId + " held by " + bookingId);
+            }
+        });
+        return violations;
+    }
+
+    static List<Map<String, AttributeValue>> live(InMemoryDynamoDbClient client) {
+        List<Map<String, AttributeValue>> live = new ArrayList<>();
+        for (Map<String, AttributeValue> item : client.items(Fixtures.TABLE)) {
+            if (!Boolean.TRUE.equals(item.get("deleted").bool())) live.add(item);
+        }
+        return live;
+    }
+}
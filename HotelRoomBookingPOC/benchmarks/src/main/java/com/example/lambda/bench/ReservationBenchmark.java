@@ -0,0 +1,66 @@
+package com.example.lambda.bench;
+
+import com.example.lambda.model.Booking;
+import com.example.lambda.reservation.BookingReservations;
+import com.example.lambda.reservation.ReservationOutcome;
+import com.example.lambda.util.DynamoDBClientUtil;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Transactional create (booking plus room-night locks) against the in-memory DynamoDB stand-in.
+ * Each room holds {@code bookingsPerRoom} stays; {@code conflicting} is rejected by an existing
+ * lock, {@code createAndCancel} books and releases free nights.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReservationBenchmark {
+
+    private static final String ROOM = "room-1";
+
+    @Param({"10", "100", "1000"})
+    public int bookingsPerRoom;
+
+    private LocalDate conflictingCheckIn;
+    private LocalDate freeCheckIn;
+    private long sequence;
+
+    @Setup
+    public void setUp() {
+        DynamoDBClientUtil.setClient(Fixtures.bookingsTable());
+        for (int i = 0; i < bookingsPerRoom; i++) {
+            LocalDate checkIn = Fixtures.FIRST_CHECK_IN.plusDays(i * 3L);
+            BookingReservations.create(booking("seed-" + i, checkIn, checkIn.plusDays(2)));
+        }
+        conflictingCheckIn = Fixtures.FIRST_CHECK_IN.plusDays((bookingsPerRoom / 2) * 3L);
+        freeCheckIn = Fixtures.FIRST_CHECK_IN.plusDays(bookingsPerRoom * 3L + 1);
+    }
+
+    @Benchmark
+    public ReservationOutcome conflicting() {
+        return BookingReservations.create(booking("probe-" + sequence++, conflictingCheckIn, conflictingCheckIn.plusDays(1)));
+    }
+
+    @Benchmark
+    public ReservationOutcome createAndCancel() {
+        String bookingId = "probe-" + sequence++;
+        BookingReservations.create(booking(bookingId, freeCheckIn, freeCheckIn.plusDays(2)));
+        return BookingReservations.cancel(bookingId);
+    }
+
+    private static Booking booking(String bookingId, LocalDate checkIn, LocalDate checkOut) {
+        Booking booking = new Booking();
+        booking.setBookingId(bookingId);
+        booking.setRoomId(ROOM);
+        booking.setUserId("user-1");
+        booking.setCheckInDate(checkIn.toString());
+        booking.setCheckOutDate(checkOut.toString());
+        return booking;
+    }
+}
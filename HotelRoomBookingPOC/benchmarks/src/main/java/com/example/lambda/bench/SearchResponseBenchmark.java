@@ -0,0 +1,58 @@
+package com.example.lambda.bench;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.lambda.util.ResponseUtil;
+import org.openjdk.jmh.annotations.*;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Search response building: the map-conversion path against streaming items straight into the
+ * generator. Run with {@code -prof gc} to compare allocation per operation (gc.alloc.rate.norm).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SearchResponseBenchmark {
+
+    @Param({"10", "1000", "10000"})
+    public int resultSize;
+
+    private List<Map<String, AttributeValue>> items;
+    private List<Map<String, ? extends Serializable>> converted;
+
+    @Setup
+    public void setUp() {
+        items = Fixtures.bookingItems(resultSize);
+        converted = items.stream().map(ItemConverter::convertItemToMap).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<Map<String, ? extends Serializable>> convertItemToMap() {
+        return items.stream().map(ItemConverter::convertItemToMap).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent responseSuccess() {
+        return ResponseUtil.success(converted);
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent convertAndRespond() {
+        return ResponseUtil.success(items.stream().map(ItemConverter::convertItemToMap).collect(Collectors.toList()));
+    }
+
+    @Benchmark
+    public APIGatewayProxyResponseEvent streamPage() {
+        return ResponseUtil.page("bookings", items, Optional.empty());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.lambda.bench;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures time-to-first-response per handler by launching each one in a fresh JVM
+ * ({@link FirstResponseProbe}) several times. Writes one JSON array to startup-result.json.
+ *
+ * <pre>java -cp target/benchmarks.jar com.example.lambda.bench.StartupTimeBenchmark [runs] [extra JVM args...]</pre>
+ */
+public class StartupTimeBenchmark {
+
+    static final List<String> HANDLERS = List.of(
+            "com.example.lambda.handler.CreateBookingHandler",
+            "com.example.lambda.handler.UpdateBookingHandler",
+            "com.example.lambda.handler.DeleteBookingHandler",
+            "com.example.lambda.handler.SearchByRoomHandler",
+            "com.example.lambda.handler.SearchByUserHandler");
+
+    public static void main(String[] args) throws Exception {
+        int runs = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        List<String> jvmArgs = args.length > 1 ? List.of(args).subList(1, args.length) : List.of();
+
+        List<String> results = new ArrayList<>();
+        for (String handler : HANDLERS) {
+            for (int run = 0; run < runs; run++) {
+                String line = probe(handler, jvmArgs);
+                System.out.println(line);
+                results.add(line);
+            }
+        }
+        Files.writeString(Path.of("startup-result.json"), "[\n" + String.join(",\n", results) + "\n]\n");
+    }
+
+    private static String probe(String handler, List<String> jvmArgs) throws IOException, InterruptedException {
+        List<String> command = new ArrayList<>();
+        command.add(ProcessHandle.current().info().command().orElse("java"));
+        command.addAll(jvmArgs);
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(FirstResponseProbe.class.getName());
+        command.add(handler);
+
+        Process process = new ProcessBuilder(command).redirectError(ProcessBuilder.Redirect.INHERIT).start();
+        String result = null;
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("{\"handler\"")) result = line;
+            }
+        }
+        if (process.waitFor() != 0 || result == null) {
+            throw new IllegalStateException("Startup probe failed for " + handler);
+        }
+        return result;
+    }
+}
@@ -0,0 +1,441 @@
+package com.example.lambda.local;
+
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Evaluator for the subset of DynamoDB condition, filter, key-condition and update expressions
+ * the handlers use: comparisons, BETWEEN, IN, AND/OR/NOT, attribute_exists, attribute_not_exists,
+ * begins_with, contains, and SET (with +, -, if_not_exists, list_append), REMOVE, ADD and DELETE.
+ * Document paths may be dotted into nested maps.
+ */
+final class Expressions {
+
+    private Expressions() {}
+
+    static Predicate<Map<String, AttributeValue>> condition(String expression, Map<String, String> names,
+                                                          Map<String, AttributeValue> values) {
+        if (expression == null || expression.isBlank()) {
+            return item -> true;
+        }
+        Parser parser = new Parser(expression, names, values);
+        Predicate<Map<String, AttributeValue>> predicate = parser.orCondition();
+        parser.expectEnd();
+        return predicate;
+    }
+
+    static Map<String, AttributeValue> update(Map<String, AttributeValue> item, String expression,
+                                              Map<String, String> names, Map<String, AttributeValue> values) {
+        Map<String, AttributeValue> result = new HashMap<>(item);
+        if (expression == null || expression.isBlank()) {
+            return result;
+        }
+        Parser parser = new Parser(expression, names, values);
+        parser.applyUpdate(item, result);
+        return result;
+    }
+
+    private interface Operand {
+        AttributeValue resolve(Map<String, AttributeValue> item);
+    }
+
+    private static final class Parser {
+        private final List<String> tokens;
+        private final Map<String, String> names;
+        private final Map<String, AttributeValue> values;
+        private int pos;
+
+        Parser(String expression, Map<String, String> names, Map<String, AttributeValue> values) {
+            this.tokens = tokenize(expression);
+            this.names = names == null ? Map.of() : names;
+            this.values = values == null ? Map.of() : values;
+        }
+
+        Predicate<Map<String, AttributeValue>> orCondition() {
+            Predicate<Map<String, AttributeValue>> left = andCondition();
+            while (acceptKeyword("OR")) {
+                left = left.or(andCondition());
+            }
+            return left;
+        }
+
+        private Predicate<Map<String, AttributeValue>> andCondition() {
+            Predicate<Map<String, AttributeValue>> left = notCondition();
+            while (acceptKeyword("AND")) {
+                left = left.and(notCondition());
+            }
+            return left;
+        }
+
+        private Predicate<Map<String, AttributeValue>> notCondition() {
+            if (acceptKeyword("NOT")) {
+                return notCondition().negate();
+            }
+            return primaryCondition();
+        }
+
+        private Predicate<Map<String, AttributeValue>> primaryCondition() {
+            if (accept("(")) {
+                Predicate<Map<String, AttributeValue>> inner = orCondition();
+                expect(")");
+                return inner;
+            }
+            String token = peek();
+            if (token.equalsIgnoreCase("attribute_exists") || token.equalsIgnoreCase("attribute_not_exists")) {
+                pos++;
+                expect("(");
+                List<String> path = path();
+                expect(")");
+                boolean exists = token.equalsIgnoreCase("attribute_exists");
+                return item -> (resolvePath(item, path) != null) == exists;
+            }
+            if (token.equalsIgnoreCase("begins_with") || token.equalsIgnoreCase("contains")) {
+                pos++;
+                expect("(");
+                Operand target = operand();
+                expect(",");
+                Operand argument = operand();
+                expect(")");
+                boolean prefix = token.equalsIgnoreCase("begins_with");
+                return item -> prefix ? beginsWith(target.resolve(item), argument.resolve(item))
+                        : contains(target.resolve(item), argument.resolve(item));
+            }
+
+            Operand left = operand();
+            if (acceptKeyword("BETWEEN")) {
+                Operand low = operand();
+                if (!acceptKeyword("AND")) throw error("Expected AND in BETWEEN");
+                Operand high = operand();
+                return item -> {
+                    AttributeValue value = left.resolve(item);
+                    return matches(compare(value, low.resolve(item)), c -> c >= 0)
+                            && matches(compare(value, high.resolve(item)), c -> c <= 0);
+                };
+            }
+            if (acceptKeyword("IN")) {
+                expect("(");
+                List<Operand> candidates = new ArrayList<>();
+                do {
+                    candidates.add(operand());
+                } while (accept(","));
+                expect(")");
+                return item -> {
+                    AttributeValue value = left.resolve(item);
+                    return candidates.stream().anyMatch(c -> value != null && value.equals(c.resolve(item)));
+                };
+            }
+            String comparator = next();
+            Operand right = operand();
+            switch (comparator) {
+                case "=":
+                    return item -> matches(compare(left.resolve(item), right.resolve(item)), c -> c == 0);
+                case "<>":
+                    return item -> !matches(compare(left.resolve(item), right.resolve(item)), c -> c == 0);
+                case "<":
+                    return item -> matches(compare(left.resolve(item), right.resolve(item)), c -> c < 0);
+                case "<=":
+                    return item -> matches(compare(left.resolve(item), right.resolve(item)), c -> c <= 0);
+                case ">":
+                    return item -> matches(compare(left.resolve(item), right.resolve(item)), c -> c > 0);
+                case ">=":
+                    return item -> matches(compare(left.resolve(item), right.resolve(item)), c -> c >= 0);
+                default:
+                    throw error("Unsupported comparator " + comparator);
+            }
+        }
+
+        void applyUpdate(Map<String, AttributeValue> original, Map<String, AttributeValue> result) {
+            while (pos < tokens.size()) {
+                String clause = next().toUpperCase();
+                do {
+                    List<String> path = path();
+                    switch (clause) {
+                        case "SET": {
+                            expect("=");
+                            Operand value = valueExpression();
+                            setPath(result, path, value.resolve(original));
+                            break;
+                        }
+                        case "REMOVE":
+                            setPath(result, path, null);
+                            break;
+                        case "ADD": {
+                            AttributeValue delta = operand().resolve(original);
+                            setPath(result, path, add(resolvePath(result, path), delta));
+                            break;
+                        }
+                        case "DELETE": {
+                            AttributeValue subset = operand().resolve(original);
+                            setPath(result, path, deleteFromSet(resolvePath(result, path), subset));
+                            break;
+                        }
+                        default:
+                            throw error("Unsupported update clause " + clause);
+                    }
+                } while (accept(","));
+            }
+        }
+
+        private Operand valueExpression() {
+            Operand left = valueOperand();
+            if (accept("+")) {
+                Operand right = valueOperand();
+                return item -> arithmetic(left.resolve(item), right.resolve(item), false);
+            }
+            if (accept("-")) {
+                Operand right = valueOperand();
+                return item -> arithmetic(left.resolve(item), right.resolve(item), true);
+            }
+            return left;
+        }
+
+        private Operand valueOperand() {
+            String token = peek();
+            if (token.equalsIgnoreCase("if_not_exists")) {
+                pos++;
+                expect("(");
+                List<String> path = path();
+                expect(",");
+                Operand fallback = valueOperand();
+                expect(")");
+                return item -> {
+                    AttributeValue existing = resolvePath(item, path);
+                    return existing != null ? existing : fallback.resolve(item);
+                };
+            }
+            if (token.equalsIgnoreCase("list_append")) {
+                pos++;
+                expect("(");
+                Operand first = valueOperand();
+                expect(",");
+                Operand second = valueOperand();
+                expect(")");
+                return item -> {
+                    List<AttributeValue> joined = new ArrayList<>(first.resolve(item).l());
+                    joined.addAll(second.resolve(item).l());
+                    return AttributeValue.fromL(joined);
+                };
+            }
+            return operand();
+        }
+
+        private Operand operand() {
+            String token = peek();
+            if (token.startsWith(":")) {
+                pos++;
+                AttributeValue value = values.get(token);
+                if (value == null) throw error("Missing expression attribute value " + token);
+                return item -> value;
+            }
+            List<String> path = path();
+            return item -> resolvePath(item, path);
+        }
+
+        private List<String> path() {
+            List<String> path = new ArrayList<>();
+            do {
+                String token = next();
+                if (token.startsWith("#")) {
+                    String name = names.get(token);
+                    if (name == null) throw error("Missing expression attribute name " + token);
+                    path.add(name);
+                } else if (Character.isLetter(token.charAt(0)) || token.charAt(0) == '_') {
+                    path.add(token);
+                } else {
+                    throw error("Expected attribute path but found " + token);
+                }
+            } while (accept("."));
+            return path;
+        }
+
+        private boolean accept(String symbol) {
+            if (pos < tokens.size() && tokens.get(pos).equals(symbol)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean acceptKeyword(String keyword) {
+            if (pos < tokens.size() && tokens.get(pos).equalsIgnoreCase(keyword)) {
+                pos++;
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String symbol) {
+            if (!accept(symbol)) throw error("Expected " + symbol);
+        }
+
+        void expectEnd() {
+            if (pos != tokens.size()) throw error("Unexpected token " + tokens.get(pos));
+        }
+
+        private String peek() {
+            if (pos >= tokens.size()) throw error("Unexpected end of expression");
+            return tokens.get(pos);
+        }
+
+        private String next() {
+            String token = peek();
+            pos++;
+            return token;
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " in expression " + String.join(" ", tokens));
+        }
+    }
+
+    private static List<String> tokenize(String expression) {
+        List<String> tokens = new ArrayList<>();
+        int i = 0;
+        while (i < expression.length()) {
+            char c = expression.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '<' || c == '>') {
+                if (i + 1 < expression.length() && (expression.charAt(i + 1) == '=' || expression.charAt(i + 1) == '>')) {
+                    tokens.add(expression.substring(i, i + 2));
+                    i += 2;
+                } else {
+                    tokens.add(String.valueOf(c));
+                    i++;
+                }
+            } else if ("()=,.+-".indexOf(c) >= 0) {
+                tokens.add(String.valueOf(c));
+                i++;
+            } else {
+                int start = i;
+                while (i < expression.length()
+                        && (Character.isLetterOrDigit(expression.charAt(i)) || "_#:".indexOf(expression.charAt(i)) >= 0)) {
+                    i++;
+                }
+                if (start == i) throw new IllegalArgumentException("Unexpected character '" + c + "' in " + expression);
+                tokens.add(expression.substring(start, i));
+            }
+        }
+        return tokens;
+    }
+
+    static AttributeValue resolvePath(Map<String, AttributeValue> item, List<String> path) {
+        AttributeValue current = item.get(path.get(0));
+        for (int i = 1; i < path.size() && current != null; i++) {
+            current = current.hasM() ? current.m().get(path.get(i)) : null;
+        }
+        return current;
+    }
+
+    private static void setPath(Map<String, AttributeValue> item, List<String> path, AttributeValue value) {
+        if (path.size() == 1) {
+            if (value == null) item.remove(path.get(0));
+            else item.put(path.get(0), value);
+            return;
+        }
+        AttributeValue parent = item.get(path.get(0));
+        if (parent == null || !parent.hasM()) {
+            if (value == null) return;
+            throw new IllegalArgumentException("The document path provided in the update expression is invalid for update");
+        }
+        Map<String, AttributeValue> nested = new HashMap<>(parent.m());
+        setPath(nested, path.subList(1, path.size()), value);
+        item.put(path.get(0), AttributeValue.fromM(nested));
+    }
+
+    // Null when the operands are missing or of different types; such comparisons are false
+    static Integer compare(AttributeValue left, AttributeValue right) {
+        if (left == null || right == null) {
+            return null;
+        }
+        if (left.n() != null && right.n() != null) {
+            return new BigDecimal(left.n()).compareTo(new BigDecimal(right.n()));
+        }
+        if (left.s() != null && right.s() != null) {
+            return left.s().compareTo(right.s());
+        }
+        if (left.b() != null && right.b() != null) {
+            return Arrays.compareUnsigned(left.b().asByteArrayUnsafe(), right.b().asByteArrayUnsafe());
+        }
+        return left.equals(right) ? 0 : null;
+    }
+
+    private static boolean matches(Integer comparison, IntPredicate test) {
+        return comparison != null && test.test(comparison);
+    }
+
+    private static boolean beginsWith(AttributeValue value, AttributeValue prefix) {
+        return value != null && value.s() != null && prefix.s() != null && value.s().startsWith(prefix.s());
+    }
+
+    private static boolean contains(AttributeValue value, AttributeValue element) {
+        if (value == null) return false;
+        if (value.s() != null && element.s() != null) return value.s().contains(element.s());
+        if (value.hasSs()) return value.ss().contains(element.s());
+        if (value.hasNs()) return value.ns().stream().anyMatch(n -> new BigDecimal(n).compareTo(new BigDecimal(element.n())) == 0);
+        if (value.hasL()) return value.l().contains(element);
+        return false;
+    }
+
+    private static AttributeValue arithmetic(AttributeValue left, AttributeValue right, boolean subtract) {
+        if (left == null || right == null || left.n() == null || right.n() == null) {
+            throw new IllegalArgumentException("An operand in the update expression has an incorrect data type");
+        }
+        BigDecimal a = new BigDecimal(left.n());
+        BigDecimal b = new BigDecimal(right.n());
+        return AttributeValue.fromN((subtract ? a.subtract(b) : a.add(b)).toPlainString());
+    }
+
+    private static AttributeValue add(AttributeValue existing, AttributeValue delta) {
+        if (delta.n() != null) {
+            return existing == null ? delta : arithmetic(existing, delta, false);
+        }
+        if (delta.hasNs()) {
+            Set<String> merged = new LinkedHashSet<>(existing == null ? List.of() : existing.ns());
+            merged.addAll(delta.ns());
+            return AttributeValue.fromNs(new ArrayList<>(merged));
+        }
+        if (delta.hasSs()) {
+            Set<String> merged = new LinkedHashSet<>(existing == null ? List.of() : existing.ss());
+            merged.addAll(delta.ss());
+            return AttributeValue.fromSs(new ArrayList<>(merged));
+        }
+        if (delta.hasBs()) {
+            Set<SdkBytes> merged = new LinkedHashSet<>(existing == null ? List.of() : existing.bs());
+            merged.addAll(delta.bs());
+            return AttributeValue.fromBs(new ArrayList<>(merged));
+        }
+        throw new IllegalArgumentException("ADD supports only numbers and sets");
+    }
+
+    private static AttributeValue deleteFromSet(AttributeValue existing, AttributeValue subset) {
+        if (existing == null) return null;
+        if (subset.hasNs()) {
+            List<String> remaining = new ArrayList<>(existing.ns());
+            remaining.removeIf(n -> subset.ns().stream().anyMatch(d -> new BigDecimal(d).compareTo(new BigDecimal(n)) == 0));
+            return remaining.isEmpty() ? null : AttributeValue.fromNs(remaining);
+        }
+        if (subset.hasSs()) {
+            List<String> remaining = new ArrayList<>(existing.ss());
+            remaining.removeAll(subset.ss());
+            return remaining.isEmpty() ? null : AttributeValue.fromSs(remaining);
+        }
+        if (subset.hasBs()) {
+            List<SdkBytes> remaining = new ArrayList<>(existing.bs());
+            remaining.removeAll(subset.bs());
+            return remaining.isEmpty() ? null : AttributeValue.fromBs(remaining);
+        }
+        throw new IllegalArgumentException("DELETE supports only sets");
+    }
+}
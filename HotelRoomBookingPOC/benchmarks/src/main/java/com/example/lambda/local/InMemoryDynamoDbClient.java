@@ -0,0 +1,597 @@
+package com.example.lambda.local;
+
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Thread-safe, in-process stand-in for the DynamoDB operations the handlers use. Tables and
+ * global secondary indexes are declared up front with {@link #createTable} and {@link #createIndex};
+ * writes are serialized behind one lock so conditional writes are linearizable. Latency, random
+ * throttling and server errors, and a provisioned-capacity limit can be injected to exercise the
+ * retry and load-shedding paths; all are off by default. {@link #withStream} captures a table's
+ * change records so stream consumers can be driven locally.
+ */
+public class InMemoryDynamoDbClient implements DynamoDbClient {
+
+    private static final class KeySchema {
+        final String hashKey;
+        final String rangeKey;
+
+        KeySchema(String hashKey, String rangeKey) {
+            this.hashKey = hashKey;
+            this.rangeKey = rangeKey;
+        }
+
+        boolean covers(Map<String, AttributeValue> item) {
+            return item.containsKey(hashKey) && (rangeKey == null || item.containsKey(rangeKey));
+        }
+    }
+
+    private static final class Table {
+        final KeySchema key;
+        final Map<String, KeySchema> indexes = new ConcurrentHashMap<>();
+        final Map<String, Map<String, AttributeValue>> items = new ConcurrentHashMap<>();
+        List<DynamodbEvent.DynamodbStreamRecord> stream;
+
+        Table(KeySchema key) {
+            this.key = key;
+        }
+
+        String primaryKey(Map<String, AttributeValue> item) {
+            if (!key.covers(item)) {
+                throw DynamoDbException.builder()
+                        .message("One of the required keys was not given a value").statusCode(400).build();
+            }
+            return keyString(item.get(key.hashKey)) + (key.rangeKey == null ? "" : "\u0000" + keyString(item.get(key.rangeKey)));
+        }
+
+        Map<String, AttributeValue> keyOf(Map<String, AttributeValue> item) {
+            Map<String, AttributeValue> keys = new HashMap<>();
+            keys.put(key.hashKey, item.get(key.hashKey));
+            if (key.rangeKey != null) keys.put(key.rangeKey, item.get(key.rangeKey));
+            return keys;
+        }
+    }
+
+    private final Map<String, Table> tables = new ConcurrentHashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private volatile long minLatencyMicros;
+    private volatile long maxLatencyMicros;
+    private volatile double throttleRate;
+    private volatile double errorRate;
+    private volatile int capacityPerSecond;
+    private final AtomicLong capacityWindow = new AtomicLong();
+    private final AtomicLong capacityUsed = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong sequence = new AtomicLong();
+
+    // Every call sleeps a uniformly random time in [min, max] before it is served
+    public InMemoryDynamoDbClient withLatency(long minMicros, long maxMicros) {
+        this.minLatencyMicros = minMicros;
+        this.maxLatencyMicros = Math.max(minMicros, maxMicros);
+        return this;
+    }
+
+    // Fractions of calls that fail with ProvisionedThroughputExceeded and InternalServerError
+    public InMemoryDynamoDbClient withFaults(double throttleRate, double errorRate) {
+        this.throttleRate = throttleRate;
+        this.errorRate = errorRate;
+        return this;
+    }
+
+    // Calls beyond this many per one-second window are throttled; 0 means unlimited
+    public InMemoryDynamoDbClient withCapacity(int callsPerSecond) {
+        this.capacityPerSecond = callsPerSecond;
+        return this;
+    }
+
+    public long throttledCount() {
+        return throttled.get();
+    }
+
+    public long failedCount() {
+        return failed.get();
+    }
+
+    public InMemoryDynamoDbClient createTable(String tableName, String hashKey) {
+        return createTable(tableName, hashKey, null);
+    }
+
+    public InMemoryDynamoDbClient createTable(String tableName, String hashKey, String rangeKey) {
+        tables.put(tableName, new Table(new KeySchema(hashKey, rangeKey)));
+        return this;
+    }
+
+    public InMemoryDynamoDbClient createIndex(String tableName, String indexName, String hashKey, String rangeKey) {
+        table(tableName).indexes.put(indexName, new KeySchema(hashKey, rangeKey));
+        return this;
+    }
+
+    // Records every change to the table's items from now on, as its DynamoDB stream would
+    public InMemoryDynamoDbClient withStream(String tableName) {
+        lock.writeLock().lock();
+        try {
+            table(tableName).stream = new ArrayList<>();
+            return this;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Stream records captured so far, in commit order
+    public List<DynamodbEvent.DynamodbStreamRecord> streamRecords(String tableName) {
+        lock.readLock().lock();
+        try {
+            List<DynamodbEvent.DynamodbStreamRecord> stream = table(tableName).stream;
+            return stream == null ? List.of() : new ArrayList<>(stream);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void inject() {
+        if (maxLatencyMicros > 0) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(
+                    ThreadLocalRandom.current().nextLong(minLatencyMicros, maxLatencyMicros + 1)));
+        }
+        if (overCapacity() || (throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < throttleRate)) {
+            throttled.incrementAndGet();
+            throw ProvisionedThroughputExceededException.builder()
+                    .message("The level of configured provisioned throughput for the table was exceeded")
+                    .statusCode(400).build();
+        }
+        if (errorRate > 0 && ThreadLocalRandom.current().nextDouble() < errorRate) {
+            failed.incrementAndGet();
+            throw InternalServerErrorException.builder().message("Injected server error").statusCode(500).build();
+        }
+    }
+
+    private boolean overCapacity() {
+        int capacity = capacityPerSecond;
+        if (capacity <= 0) {
+            return false;
+        }
+        long second = System.nanoTime() / 1_000_000_000L;
+        long window = capacityWindow.get();
+        if (window != second && capacityWindow.compareAndSet(window, second)) {
+            capacityUsed.set(0);
+        }
+        return capacityUsed.incrementAndGet() > capacity;
+    }
+
+    public int itemCount(String tableName) {
+        return table(tableName).items.size();
+    }
+
+    public List<Map<String, AttributeValue>> items(String tableName) {
+        return new ArrayList<>(table(tableName).items.values());
+    }
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest request) {
+        inject();
+        Table table = table(request.tableName());
+        Map<String, AttributeValue> item = table.items.get(table.primaryKey(request.key()));
+        return GetItemResponse.builder()
+                .item(project(item, request.projectionExpression(), request.expressionAttributeNames()))
+                .build();
+    }
+
+    @Override
+    public BatchGetItemResponse batchGetItem(BatchGetItemRequest request) {
+        inject();
+        Map<String, List<Map<String, AttributeValue>>> responses = new HashMap<>();
+        request.requestItems().forEach((tableName, keysAndAttributes) -> {
+            Table table = table(tableName);
+            List<Map<String, AttributeValue>> found = new ArrayList<>();
+            for (Map<String, AttributeValue> key : keysAndAttributes.keys()) {
+                Map<String, AttributeValue> item = table.items.get(table.primaryKey(key));
+                if (item != null) found.add(project(item, keysAndAttributes.projectionExpression(),
+                        keysAndAttributes.expressionAttributeNames()));
+            }
+            responses.put(tableName, found);
+        });
+        return BatchGetItemResponse.builder().responses(responses).unprocessedKeys(Map.of()).build();
+    }
+
+    @Override
+    public PutItemResponse putItem(PutItemRequest request) {
+        inject();
+        Table table = table(request.tableName());
+        String key = table.primaryKey(request.item());
+        lock.writeLock().lock();
+        try {
+            Map<String, AttributeValue> existing = table.items.get(key);
+            checkCondition(existing, request.conditionExpression(),
+                    request.expressionAttributeNames(), request.expressionAttributeValues());
+            store(table, key, existing, Map.copyOf(request.item()));
+            return PutItemResponse.builder()
+                    .attributes(request.returnValues() == ReturnValue.ALL_OLD ? existing : null)
+                    .build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public UpdateItemResponse updateItem(UpdateItemRequest request) {
+        inject();
+        Table table = table(request.tableName());
+        String key = table.primaryKey(request.key());
+        lock.writeLock().lock();
+        try {
+            Map<String, AttributeValue> existing = table.items.get(key);
+            checkCondition(existing, request.conditionExpression(),
+                    request.expressionAttributeNames(), request.expressionAttributeValues());
+            Map<String, AttributeValue> base = existing != null ? existing : request.key();
+            Map<String, AttributeValue> updated = Expressions.update(base, request.updateExpression(),
+                    request.expressionAttributeNames(), request.expressionAttributeValues());
+            store(table, key, existing, Map.copyOf(updated));
+
+            Map<String, AttributeValue> returned = null;
+            ReturnValue returnValue = request.returnValues();
+            if (returnValue == ReturnValue.ALL_OLD || returnValue == ReturnValue.UPDATED_OLD) returned = existing;
+            if (returnValue == ReturnValue.ALL_NEW || returnValue == ReturnValue.UPDATED_NEW) returned = updated;
+            return UpdateItemResponse.builder().attributes(returned).build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public DeleteItemResponse deleteItem(DeleteItemRequest request) {
+        inject();
+        Table table = table(request.tableName());
+        String key = table.primaryKey(request.key());
+        lock.writeLock().lock();
+        try {
+            Map<String, AttributeValue> existing = table.items.get(key);
+            checkCondition(existing, request.conditionExpression(),
+                    request.expressionAttributeNames(), request.expressionAttributeValues());
+            store(table, key, existing, null);
+            return DeleteItemResponse.builder()
+                    .attributes(request.returnValues() == ReturnValue.ALL_OLD ? existing : null)
+                    .build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Not atomic: with throttling injected, a call may also apply only part of the writes and return the rest
+    @Override
+    public BatchWriteItemResponse batchWriteItem(BatchWriteItemRequest request) {
+        inject();
+        boolean partial = throttleRate > 0 && ThreadLocalRandom.current().nextDouble() < throttleRate;
+        Map<String, List<WriteRequest>> unprocessed = new HashMap<>();
+        lock.writeLock().lock();
+        try {
+            request.requestItems().forEach((tableName, writes) -> {
+                Table table = table(tableName);
+                for (WriteRequest write : writes) {
+                    if (partial && ThreadLocalRandom.current().nextBoolean()) {
+                        unprocessed.computeIfAbsent(tableName, name -> new ArrayList<>()).add(write);
+                        continue;
+                    }
+                    Map<String, AttributeValue> item = write.putRequest() != null ? write.putRequest().item() : write.deleteRequest().key();
+                    String key = table.primaryKey(item);
+                    store(table, key, table.items.get(key), write.putRequest() != null ? Map.copyOf(item) : null);
+                }
+            });
+            return BatchWriteItemResponse.builder().unprocessedItems(unprocessed).build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // All conditions are evaluated before anything is applied; any failure cancels the whole transaction
+    @Override
+    public TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest request) {
+        inject();
+        if (request.transactItems().size() > 100) {
+            throw DynamoDbException.builder()
+                    .message("Member must have length less than or equal to 100").statusCode(400).build();
+        }
+        lock.writeLock().lock();
+        try {
+            List<CancellationReason> reasons = new ArrayList<>();
+            Set<String> touched = new HashSet<>();
+            boolean cancelled = false;
+            for (TransactWriteItem write : request.transactItems()) {
+                TransactionalWrite target = TransactionalWrite.of(write);
+                Table table = table(target.tableName);
+                String key = table.primaryKey(target.key);
+                if (!touched.add(target.tableName + "\u0001" + key)) {
+                    throw DynamoDbException.builder()
+                            .message("Transaction request cannot include multiple operations on one item").statusCode(400).build();
+                }
+                Map<String, AttributeValue> existing = table.items.get(key);
+                boolean passed = target.condition == null || Expressions.condition(target.condition, target.names, target.values)
+                        .test(existing == null ? Map.of() : existing);
+                reasons.add(passed
+                        ? CancellationReason.builder().code("None").build()
+                        : CancellationReason.builder().code("ConditionalCheckFailed").message("The conditional request failed").build());
+                cancelled |= !passed;
+            }
+            if (cancelled) {
+                throw TransactionCanceledException.builder()
+                        .message("Transaction cancelled, please refer cancellation reasons for specific reasons")
+                        .cancellationReasons(reasons)
+                        .statusCode(400)
+                        .build();
+            }
+            for (TransactWriteItem write : request.transactItems()) {
+                TransactionalWrite target = TransactionalWrite.of(write);
+                Table table = table(target.tableName);
+                String key = table.primaryKey(target.key);
+                Map<String, AttributeValue> existing = table.items.get(key);
+                if (write.put() != null) {
+                    store(table, key, existing, Map.copyOf(write.put().item()));
+                } else if (write.delete() != null) {
+                    store(table, key, existing, null);
+                } else if (write.update() != null) {
+                    store(table, key, existing, Map.copyOf(Expressions.update(existing != null ? existing : target.key,
+                            write.update().updateExpression(), target.names, target.values)));
+                }
+            }
+            return TransactWriteItemsResponse.builder().build();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public QueryResponse query(QueryRequest request) {
+        inject();
+        Table table = table(request.tableName());
+        KeySchema schema = request.indexName() == null ? table.key : table.indexes.get(request.indexName());
+        if (schema == null) {
+            throw ResourceNotFoundException.builder().message("Index not found: " + request.indexName()).build();
+        }
+        Predicate<Map<String, AttributeValue>> keyCondition = Expressions.condition(request.keyConditionExpression(),
+                request.expressionAttributeNames(), request.expressionAttributeValues());
+
+        Comparator<Map<String, AttributeValue>> order = Comparator.comparing(
+                (Map<String, AttributeValue> item) -> schema.rangeKey == null ? null : item.get(schema.rangeKey),
+                Comparator.nullsFirst(InMemoryDynamoDbClient::compareKeys))
+                .thenComparing(table::primaryKey);
+        if (Boolean.FALSE.equals(request.scanIndexForward())) {
+            order = order.reversed();
+        }
+
+        List<Map<String, AttributeValue>> candidates = snapshot(table).stream()
+                .filter(schema::covers)
+                .filter(keyCondition)
+                .sorted(order)
+                .collect(Collectors.toList());
+
+        Page page = page(candidates, table, schema, order, request.exclusiveStartKey(), request.limit(),
+                Expressions.condition(request.filterExpression(),
+                        request.expressionAttributeNames(), request.expressionAttributeValues()));
+        return QueryResponse.builder()
+                .items(page.items)
+                .count(page.items.size())
+                .scannedCount(page.scanned)
+                .lastEvaluatedKey(page.lastEvaluatedKey)
+                .build();
+    }
+
+    @Override
+    public ScanResponse scan(ScanRequest request) {
+        inject();
+        Table table = table(request.tableName());
+        KeySchema schema = request.indexName() == null ? table.key : table.indexes.get(request.indexName());
+        if (schema == null) {
+            throw ResourceNotFoundException.builder().message("Index not found: " + request.indexName()).build();
+        }
+        Comparator<Map<String, AttributeValue>> order = Comparator.comparing(table::primaryKey);
+
+        Integer totalSegments = request.totalSegments();
+        Integer segment = request.segment();
+        List<Map<String, AttributeValue>> candidates = snapshot(table).stream()
+                .filter(schema::covers)
+                .filter(item -> totalSegments == null
+                        || Math.floorMod(table.primaryKey(item).hashCode(), totalSegments) == segment)
+                .sorted(order)
+                .collect(Collectors.toList());
+
+        Page page = page(candidates, table, schema, order, request.exclusiveStartKey(), request.limit(),
+                Expressions.condition(request.filterExpression(),
+                        request.expressionAttributeNames(), request.expressionAttributeValues()));
+        return ScanResponse.builder()
+                .items(page.items)
+                .count(page.items.size())
+                .scannedCount(page.scanned)
+                .lastEvaluatedKey(page.lastEvaluatedKey)
+                .build();
+    }
+
+    @Override
+    public DescribeTableResponse describeTable(DescribeTableRequest request) {
+        KeySchema schema = table(request.tableName()).key;
+        List<KeySchemaElement> keys = new ArrayList<>();
+        keys.add(KeySchemaElement.builder().attributeName(schema.hashKey).keyType(KeyType.HASH).build());
+        if (schema.rangeKey != null) {
+            keys.add(KeySchemaElement.builder().attributeName(schema.rangeKey).keyType(KeyType.RANGE).build());
+        }
+        return DescribeTableResponse.builder()
+                .table(TableDescription.builder().tableName(request.tableName()).keySchema(keys)
+                        .tableStatus(TableStatus.ACTIVE).build())
+                .build();
+    }
+
+    @Override
+    public String serviceName() {
+        return SERVICE_NAME;
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static final class TransactionalWrite {
+        String tableName;
+        Map<String, AttributeValue> key;
+        String condition;
+        Map<String, String> names;
+        Map<String, AttributeValue> values;
+
+        static TransactionalWrite of(TransactWriteItem write) {
+            TransactionalWrite target = new TransactionalWrite();
+            if (write.put() != null) {
+                Put put = write.put();
+                target.tableName = put.tableName();
+                target.key = put.item();
+                target.condition = put.conditionExpression();
+                target.names = put.expressionAttributeNames();
+                target.values = put.expressionAttributeValues();
+            } else if (write.update() != null) {
+                Update update = write.update();
+                target.tableName = update.tableName();
+                target.key = update.key();
+                target.condition = update.conditionExpression();
+                target.names = update.expressionAttributeNames();
+                target.values = update.expressionAttributeValues();
+            } else if (write.delete() != null) {
+                Delete delete = write.delete();
+                target.tableName = delete.tableName();
+                target.key = delete.key();
+                target.condition = delete.conditionExpression();
+                target.names = delete.expressionAttributeNames();
+                target.values = delete.expressionAttributeValues();
+            } else {
+                ConditionCheck check = write.conditionCheck();
+                target.tableName = check.tableName();
+                target.key = check.key();
+                target.condition = check.conditionExpression();
+                target.names = check.expressionAttributeNames();
+                target.values = check.expressionAttributeValues();
+            }
+            return target;
+        }
+    }
+
+    private static final class Page {
+        final List<Map<String, AttributeValue>> items = new ArrayList<>();
+        int scanned;
+        Map<String, AttributeValue> lastEvaluatedKey;
+    }
+
+    // Limit caps evaluated items before the filter is applied, as in DynamoDB
+    private static Page page(List<Map<String, AttributeValue>> ordered, Table table, KeySchema schema,
+                             Comparator<Map<String, AttributeValue>> order, Map<String, AttributeValue> startKey,
+                             Integer limit, Predicate<Map<String, AttributeValue>> filter) {
+        int from = 0;
+        if (startKey != null && !startKey.isEmpty()) {
+            while (from < ordered.size() && order.compare(ordered.get(from), startKey) <= 0) {
+                from++;
+            }
+        }
+        Page page = new Page();
+        int to = limit == null ? ordered.size() : Math.min(ordered.size(), from + limit);
+        for (int i = from; i < to; i++) {
+            Map<String, AttributeValue> item = ordered.get(i);
+            page.scanned++;
+            if (filter.test(item)) {
+                page.items.add(item);
+            }
+        }
+        if (to < ordered.size() && to > from) {
+            Map<String, AttributeValue> last = ordered.get(to - 1);
+            Map<String, AttributeValue> key = new HashMap<>();
+            for (String name : new String[]{table.key.hashKey, table.key.rangeKey, schema.hashKey, schema.rangeKey}) {
+                if (name != null) key.put(name, last.get(name));
+            }
+            page.lastEvaluatedKey = key;
+        }
+        return page;
+    }
+
+    // Called with the write lock held; a null item deletes
+    private void store(Table table, String key, Map<String, AttributeValue> existing, Map<String, AttributeValue> item) {
+        if (item == null) {
+            table.items.remove(key);
+        } else {
+            table.items.put(key, item);
+        }
+        if (table.stream != null && (existing != null || item != null)) {
+            table.stream.add(StreamCapture.record(Long.toString(sequence.incrementAndGet()),
+                    table.keyOf(item != null ? item : existing), existing, item));
+        }
+    }
+
+    // Top-level attribute names only, which is all the handlers project
+    private static Map<String, AttributeValue> project(Map<String, AttributeValue> item, String projection,
+                                                       Map<String, String> names) {
+        if (item == null || projection == null) {
+            return item;
+        }
+        Map<String, AttributeValue> projected = new HashMap<>();
+        for (String path : projection.split(",")) {
+            String name = path.trim();
+            name = names != null && names.containsKey(name) ? names.get(name) : name;
+            if (item.containsKey(name)) projected.put(name, item.get(name));
+        }
+        return projected;
+    }
+
+    private List<Map<String, AttributeValue>> snapshot(Table table) {
+        lock.readLock().lock();
+        try {
+            return new ArrayList<>(table.items.values());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void checkCondition(Map<String, AttributeValue> existing, String condition,
+                                       Map<String, String> names, Map<String, AttributeValue> values) {
+        if (condition == null) {
+            return;
+        }
+        if (!Expressions.condition(condition, names, values).test(existing == null ? Map.of() : existing)) {
+            throw ConditionalCheckFailedException.builder()
+                    .message("The conditional request failed").statusCode(400).build();
+        }
+    }
+
+    private Table table(String tableName) {
+        Table table = tables.get(tableName);
+        if (table == null) {
+            throw ResourceNotFoundException.builder()
+                    .message("Requested resource not found: Table: " + tableName + " not found").statusCode(400).build();
+        }
+        return table;
+    }
+
+    private static int compareKeys(AttributeValue left, AttributeValue right) {
+        Integer comparison = Expressions.compare(left, right);
+        return comparison != null ? comparison : keyString(left).compareTo(keyString(right));
+    }
+
+    private static String keyString(AttributeValue value) {
+        if (value.s() != null) return "S" + value.s();
+        if (value.n() != null) return "N" + value.n();
+        if (value.b() != null) return "B" + value.b().asUtf8String();
+        throw DynamoDbException.builder().message("Key attributes must be S, N or B").statusCode(400).build();
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.lambda.local;
+
+import com.amazonaws.services.lambda.runtime.ClientContext;
+import com.amazonaws.services.lambda.runtime.CognitoIdentity;
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.LambdaLogger;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Lambda {@link Context} for running handlers in-process. The logger discards output unless
+ * constructed with {@code verbose = true}.
+ */
+public class LocalContext implements Context {
+
+    private final String requestId = UUID.randomUUID().toString();
+    private final LambdaLogger logger;
+
+    public LocalContext() {
+        this(false);
+    }
+
+    public LocalContext(boolean verbose) {
+        this.logger = new LambdaLogger() {
+            @Override
+            public void log(String message) {
+                if (verbose) System.out.print(message);
+            }
+
+            @Override
+            public void log(byte[] message) {
+                if (verbose) System.out.print(new String(message, StandardCharsets.UTF_8));
+            }
+        };
+    }
+
+    @Override public String getAwsRequestId() { return requestId; }
+    @Override public String getLogGroupName() { return "/aws/lambda/local"; }
+    @Override public String getLogStreamName() { return "local"; }
+    @Override public String getFunctionName() { return "local"; }
+    @Override public String getFunctionVersion() { return "$LATEST"; }
+    @Override public String getInvokedFunctionArn() { return "arn:aws:lambda:local:000000000000:function:local"; }
+    @Override public CognitoIdentity getIdentity() { return null; }
+    @Override public ClientContext getClientContext() { return null; }
+    @Override public int getRemainingTimeInMillis() { return 300_000; }
+    @Override public int getMemoryLimitInMB() { return 1024; }
+    @Override public LambdaLogger getLogger() { return logger; }
+}
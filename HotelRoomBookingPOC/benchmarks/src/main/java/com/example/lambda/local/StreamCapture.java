@@ -0,0 +1,61 @@
+package com.example.lambda.local;
+
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamViewType;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Builds the NEW_AND_OLD_IMAGES stream records Lambda would deliver for item changes. */
+final class StreamCapture {
+
+    private StreamCapture() {
+    }
+
+    static DynamodbEvent.DynamodbStreamRecord record(String sequenceNumber, Map<String, AttributeValue> keys,
+                                                     Map<String, AttributeValue> oldImage, Map<String, AttributeValue> newImage) {
+        StreamRecord change = new StreamRecord()
+                .withKeys(toEvent(keys))
+                .withOldImage(oldImage == null ? null : toEvent(oldImage))
+                .withNewImage(newImage == null ? null : toEvent(newImage))
+                .withSequenceNumber(sequenceNumber)
+                .withStreamViewType(StreamViewType.NEW_AND_OLD_IMAGES);
+        DynamodbEvent.DynamodbStreamRecord record = new DynamodbEvent.DynamodbStreamRecord();
+        record.setEventID(sequenceNumber);
+        record.setEventName(oldImage == null ? "INSERT" : newImage == null ? "REMOVE" : "MODIFY");
+        record.setEventSource("aws:dynamodb");
+        record.setDynamodb(change);
+        return record;
+    }
+
+    private static Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> toEvent(
+            Map<String, AttributeValue> item) {
+        Map<String, com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> image = new LinkedHashMap<>();
+        item.forEach((name, value) -> image.put(name, toEvent(value)));
+        return image;
+    }
+
+    private static com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue toEvent(AttributeValue value) {
+        var converted = new com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue();
+        if (value.s() != null) return converted.withS(value.s());
+        if (value.n() != null) return converted.withN(value.n());
+        if (value.bool() != null) return converted.withBOOL(value.bool());
+        if (value.nul() != null) return converted.withNULL(value.nul());
+        if (value.b() != null) return converted.withB(value.b().asByteBuffer());
+        if (value.hasSs()) return converted.withSS(value.ss());
+        if (value.hasNs()) return converted.withNS(value.ns());
+        if (value.hasBs()) return converted.withBS(value.bs().stream().map(SdkBytes::asByteBuffer).toList());
+        if (value.hasM()) return converted.withM(toEvent(value.m()));
+        if (value.hasL()) {
+            List<com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue> list = new ArrayList<>();
+            value.l().forEach(element -> list.add(toEvent(element)));
+            return converted.withL(list);
+        }
+        return converted.withNULL(true);
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.lambda.bench;
+
+import com.example.lambda.analytics.BookingColumns;
+import com.example.lambda.analytics.OccupancyAnalytics;
+import com.example.lambda.analytics.OccupancyReport;
+import com.example.lambda.archive.ArchiveWriter;
+import com.example.lambda.bulk.BulkExport;
+import com.example.lambda.local.InMemoryDynamoDbClient;
+import com.example.lambda.model.DateRange;
+import com.example.lambda.util.DynamoDBClientUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the fork-join occupancy report against a plain per-booking computation on synthetic
+ * bookings, and loads a seeded Bookings table through the parallel Scan to check the loader keeps
+ * exactly the bookings that overlap the window. The table is then exported and a fifth of its
+ * bookings archived twice more, and the archive loader must still count each booking once.
+ */
+class AnalyticsTest {
+
+    private static final DateRange QUARTER =
+            DateRange.of(Fixtures.FIRST_CHECK_IN.plusMonths(3), Fixtures.FIRST_CHECK_IN.plusMonths(6));
+
+    @TempDir
+    Path archive;
+
+    @Test
+    void reportMatchesPerBookingComputation() {
+        BookingColumns columns = Fixtures.syntheticBookings(200_000, 500, 42);
+        OccupancyReport report = OccupancyAnalytics.report(columns, QUARTER);
+        Recomputed expected = new Recomputed(QUARTER);
+        columns.forEach(expected::add);
+
+        assertMatches(expected, report);
+        Collections.sort(expected.leads);
+        for (double percentile : new double[]{50, 90, 99}) {
+            int rank = (int) Math.ceil(percentile / 100 * expected.leads.size());
+            int lead = Math.min(366, expected.leads.get(Math.max(1, rank) - 1));
+            assertEquals(lead, report.leadDaysPercentile(percentile), "p" + percentile + " lead days");
+        }
+    }
+
+    @Test
+    void tableAndArchiveLoadersCountEachBookingOnce() throws Exception {
+        int items = 5000;
+        InMemoryDynamoDbClient client = Fixtures.bookingsTable();
+        DynamoDBClientUtil.setClient(client);
+        SplittableRandom random = new SplittableRandom(7);
+        Recomputed expected = new Recomputed(QUARTER);
+        long createdAt = Fixtures.FIRST_CHECK_IN.minusDays(30).toEpochDay() * 86_400_000L;
+        for (int i = 0; i < items; i++) {
+            LocalDate checkIn = Fixtures.FIRST_CHECK_IN.plusDays(random.nextInt(365));
+            LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(7));
+            String roomId = "room-" + random.nextInt(50);
+            boolean deleted = random.nextInt(10) == 0;
+            Map<String, AttributeValue> item = new HashMap<>();
+            item.put("bookingId", AttributeValue.fromS("booking-" + i));
+            item.put("roomId", AttributeValue.fromS(roomId));
+            item.put("userId", AttributeValue.fromS("user-" + i % 500));
+            item.put("checkInDate", AttributeValue.fromS(checkIn.toString()));
+            item.put("checkOutDate", AttributeValue.fromS(checkOut.toString()));
+            item.put("deleted", AttributeValue.fromBool(deleted));
+            // Every tenth booking predates the epoch-day and createdAt attributes
+            if (i % 10 != 0) {
+                item.put("checkInDay", AttributeValue.fromN(Long.toString(checkIn.toEpochDay())));
+                item.put("checkOutDay", AttributeValue.fromN(Long.toString(checkOut.toEpochDay())));
+                item.put("createdAt", AttributeValue.fromN(Long.toString(createdAt)));
+            }
+            Fixtures.put(client, item);
+            expected.add(roomId, (int) checkIn.toEpochDay(), (int) checkOut.toEpochDay(),
+                    i % 10 != 0 ? (int) Math.floorDiv(createdAt, 86_400_000L) : BookingColumns.UNKNOWN, deleted);
+        }
+
+        assertMatches(expected, OccupancyAnalytics.report(OccupancyAnalytics.fromTable(QUARTER), QUARTER));
+
+        // A stale copy and then the current copy of every fifth booking, as repeated exports into one archive would leave
+        new BulkExport(archive, Fixtures.TABLE).maxReadUnitsPerSecond(1_000_000).run();
+        try (ArchiveWriter writer = new ArchiveWriter(archive, Fixtures.TABLE)) {
+            for (boolean stale : new boolean[]{true, false}) {
+                for (Map<String, AttributeValue> item : client.items(Fixtures.TABLE)) {
+                    if (Integer.parseInt(item.get("bookingId").s().substring("booking-".length())) % 5 != 0) {
+                        continue;
+                    }
+                    Map<String, AttributeValue> copy = new HashMap<>(item);
+                    if (stale) copy.put("deleted", AttributeValue.fromBool(!Boolean.TRUE.equals(item.get("deleted").bool())));
+                    writer.append(copy);
+                }
+                writer.finishSegment();
+            }
+        }
+        BookingColumns loaded = OccupancyAnalytics.fromArchive(archive);
+        assertEquals(items, loaded.size(), "bookings loaded from the archive");
+        assertMatches(expected, OccupancyAnalytics.report(loaded, QUARTER));
+    }
+
+    private static void assertMatches(Recomputed expected, OccupancyReport report) {
+        for (int room = 0; room < report.roomIds().size(); room++) {
+            String roomId = report.roomIds().get(room);
+            int[] row = expected.nights.getOrDefault(roomId, new int[expected.days]);
+            int[] actual = new int[expected.days];
+            for (int day = 0; day < expected.days; day++) {
+                actual[day] = report.roomNights(room, day);
+            }
+            assertArrayEquals(row, actual, roomId);
+        }
+        assertEquals(expected.roomNights, report.roomNights(), "room nights");
+        assertEquals(expected.arrivals, report.arrivals(), "arrivals");
+        assertEquals(expected.cancelled, report.cancelled(), "cancelled");
+    }
+
+    private static final class Recomputed {
+        final int firstDay;
+        final int days;
+        final Map<String, int[]> nights = new HashMap<>();
+        final List<Integer> leads = new ArrayList<>();
+        long arrivals;
+        long cancelled;
+        long roomNights;
+
+        Recomputed(DateRange window) {
+            firstDay = window.getCheckInDay();
+            days = window.nights();
+        }
+
+        void add(String roomId, int checkIn, int checkOut, int created, boolean isCancelled) {
+            for (int night = checkIn; night < checkOut && !isCancelled; night++) {
+                if (night >= firstDay && night < firstDay + days) {
+                    nights.computeIfAbsent(roomId, id -> new int[days])[night - firstDay]++;
+                    roomNights++;
+                }
+            }
+            if (checkIn >= firstDay && checkIn < firstDay + days) {
+                arrivals++;
+                if (isCancelled) cancelled++;
+                if (created != BookingColumns.UNKNOWN) leads.add(Math.max(0, checkIn - created));
+            }
+        }
+    }
+}
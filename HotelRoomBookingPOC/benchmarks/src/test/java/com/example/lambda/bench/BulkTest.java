@@ -0,0 +1,123 @@
+package com.example.lambda.bench;
+
+import com.example.lambda.archive.ArchiveReader;
+import com.example.lambda.bulk.BulkExport;
+import com.example.lambda.bulk.BulkImport;
+import com.example.lambda.bulk.ExportCheckpoint;
+import com.example.lambda.bulk.ImportCheckpoint;
+import com.example.lambda.local.InMemoryDynamoDbClient;
+import com.example.lambda.util.DynamoDBClientUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports Bookings through eight parallel scan segments and imports the export into a fresh table
+ * under a write budget. Both are stopped part way through their first run and resumed from their
+ * checkpoints, under injected throttles, server errors and partial batch writes, until they
+ * complete. The archive must hold every item exactly once, the restored table must equal the
+ * source, and the import must keep to its budget.
+ */
+class BulkTest {
+
+    private static final String RESTORE = "BookingsRestore";
+    private static final double WRITE_BUDGET = 5000;
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resumedExportAndImportRestoreEveryItemOnce() throws Exception {
+        InMemoryDynamoDbClient client = Fixtures.bookingsTable().createTable(RESTORE, "bookingId");
+        DynamoDBClientUtil.setClient(client);
+        Map<String, Map<String, AttributeValue>> source = new HashMap<>();
+        for (int i = 0; i < 5000; i++) {
+            Map<String, AttributeValue> item = new HashMap<>(Fixtures.bookingItem(i, "room-" + (i % 50), "user-" + (i % 500)));
+            if (i % 7 == 0) {
+                item.put("deleted", AttributeValue.fromBool(true));
+                item.put("deletedAt", AttributeValue.fromN(Long.toString(1_780_000_000_000L + i)));
+            }
+            if (i % 11 == 0) {
+                item.put("tags", AttributeValue.fromSs(List.of("late-arrival", "floor-" + (i % 9))));
+                item.put("guests", AttributeValue.fromL(List.of(AttributeValue.fromM(Map.of(
+                        "name", AttributeValue.fromS("guest " + i), "age", AttributeValue.fromN(Integer.toString(20 + i % 60)))))));
+            }
+            Fixtures.put(client, item);
+            source.put(item.get("bookingId").s(), item);
+        }
+        client.withLatency(5_000, 15_000);
+        client.withFaults(0.05, 0.01);
+
+        Callable<ExportCheckpoint> export = () -> new BulkExport(directory, Fixtures.TABLE).totalSegments(8).workers(8)
+                .pageSize(50).fileRecords(500).maxReadUnitsPerSecond(1_000_000).run();
+        stopAfter(export, 50);
+        untilDone(export, ExportCheckpoint::isComplete);
+
+        Callable<ImportCheckpoint> restore = () -> new BulkImport(directory, Fixtures.TABLE).into(RESTORE).workers(8)
+                .maxWriteUnitsPerSecond(WRITE_BUDGET).run();
+        long began = System.nanoTime();
+        stopAfter(restore, 300);
+        untilDone(restore, checkpoint -> true);
+        long importMs = (System.nanoTime() - began) / 1_000_000;
+        client.withFaults(0, 0);
+
+        Map<String, Map<String, AttributeValue>> archived = new HashMap<>();
+        long records = ArchiveReader.readAll(directory, Fixtures.TABLE, item -> archived.put(item.get("bookingId").s(), item));
+        assertEquals(source, archived);
+        assertEquals(archived.size(), records, "items archived more than once by the resumed export");
+
+        Map<String, Map<String, AttributeValue>> restored = new HashMap<>();
+        client.items(RESTORE).forEach(item -> restored.put(item.get("bookingId").s(), item));
+        assertEquals(source, restored);
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(0, files.filter(path -> path.toString().endsWith(".part")).count(),
+                    "unfinished files left behind by the stopped export");
+        }
+        double writesPerSecond = records * 1000.0 / Math.max(1, importMs);
+        assertTrue(writesPerSecond <= WRITE_BUDGET * 1.1, "import wrote " + (long) writesPerSecond + " items/s");
+    }
+
+    // Reruns a job from its checkpoint until it completes
+    private static <T> void untilDone(Callable<T> job, Predicate<T> complete) throws Exception {
+        int failures = 0;
+        while (true) {
+            try {
+                if (complete.test(job.call())) {
+                    return;
+                }
+            } catch (RuntimeException | IOException e) {
+                if (++failures == 100) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    // Starts a job and interrupts it part way, as an operator stopping it would
+    private static void stopAfter(Callable<?> job, long millis) throws InterruptedException {
+        ExecutorService runner = Executors.newSingleThreadExecutor();
+        Future<?> running = runner.submit(job);
+        Thread.sleep(millis);
+        running.cancel(true);
+        runner.shutdown();
+        runner.awaitTermination(1, TimeUnit.MINUTES);
+    }
+}
@@ -0,0 +1,122 @@
+package com.example.lambda.bench;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.lambda.cache.BookingCache;
+import com.example.lambda.cache.SingleFlight;
+import com.example.lambda.handler.CreateBookingHandler;
+import com.example.lambda.handler.SearchByRoomHandler;
+import com.example.lambda.local.InMemoryDynamoDbClient;
+import com.example.lambda.local.LocalContext;
+import com.example.lambda.util.DynamoDBClientUtil;
+import com.example.lambda.util.JsonUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Hammers one hot room with identical searches from many threads, as a flash sale would, alongside
+ * a trickle of searches for other rooms. Every hot response must be byte-for-byte the response a
+ * lone request gets, and far fewer queries than requests must reach DynamoDB. With the room still
+ * under load, a search right after a booking must always include it, since a search in flight from
+ * before the write must not be joined.
+ */
+class CoalescingTest {
+
+    private static final String HOT_ROOM = "room-hot";
+
+    private final SearchByRoomHandler search = new SearchByRoomHandler();
+
+    @BeforeEach
+    void seedRooms() {
+        InMemoryDynamoDbClient client = Fixtures.bookingsTable();
+        for (int i = 0; i < 300; i++) {
+            Fixtures.put(client, Fixtures.bookingItem(i, i % 5 == 0 ? HOT_ROOM : "room-" + (i % 20), "user-" + (i % 40)));
+        }
+        client.withLatency(1000, 3000);
+        DynamoDBClientUtil.setClient(client);
+        BookingCache.clear();
+    }
+
+    @Test
+    void identicalSearchesShareOneQueryAndOneResponse() throws Exception {
+        int requests = 5000;
+        Map<String, String> expected = Map.of(
+                "10", search(HOT_ROOM, "10").getBody(),
+                "50", search(HOT_ROOM, "50").getBody());
+        SingleFlight.Stats before = BookingCache.searchStats(0);
+
+        ConcurrentLinkedQueue<String> mismatches = new ConcurrentLinkedQueue<>();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(100);
+        for (int i = 0; i < requests; i++) {
+            pool.submit(() -> {
+                start.await();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                boolean hot = random.nextInt(20) != 0;
+                String limit = random.nextBoolean() ? "10" : "50";
+                APIGatewayProxyResponseEvent response = search(hot ? HOT_ROOM : "room-" + random.nextInt(20), limit);
+                if (hot && !expected.get(limit).equals(response.getBody())) {
+                    mismatches.add("limit " + limit + " returned " + response.getStatusCode() + " " + response.getBody());
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        pool.shutdown();
+        assertTrue(pool.awaitTermination(5, TimeUnit.MINUTES));
+
+        assertEquals(List.of(), List.copyOf(mismatches), "hot searches that differ from a lone request");
+        long queries = BookingCache.searchStats(0).getLeaders() - before.getLeaders();
+        assertTrue(queries * 2 <= requests, queries + " queries for " + requests + " searches");
+    }
+
+    @Test
+    void searchRightAfterBookingIncludesIt() throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService pool = Executors.newFixedThreadPool(32);
+        for (int i = 0; i < 32; i++) {
+            pool.submit(() -> {
+                while (running.get()) {
+                    search(HOT_ROOM, "500");
+                }
+                return null;
+            });
+        }
+        CreateBookingHandler create = new CreateBookingHandler();
+        try {
+            for (int i = 0; i < 50; i++) {
+                LocalDate checkIn = LocalDate.of(2030, 1, 1).plusDays(3L * i);
+                APIGatewayProxyResponseEvent created = create.handleRequest(new APIGatewayProxyRequestEvent().withBody(
+                        "{\"roomId\":\"" + HOT_ROOM + "\",\"userId\":\"user-rw\",\"checkInDate\":\"" + checkIn
+                                + "\",\"checkOutDate\":\"" + checkIn.plusDays(1) + "\"}"), new LocalContext());
+                assertEquals(200, created.getStatusCode(), created.getBody());
+                String bookingId = JsonUtil.mapper().readTree(created.getBody()).get("bookingId").asText();
+                assertTrue(search(HOT_ROOM, "500").getBody().contains(bookingId), "search missed booking " + i);
+            }
+        } finally {
+            running.set(false);
+            pool.shutdown();
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        }
+    }
+
+    private APIGatewayProxyResponseEvent search(String roomId, String limit) {
+        return search.handleRequest(new APIGatewayProxyRequestEvent()
+                .withPathParameters(Map.of("roomid", roomId))
+                .withQueryStringParameters(Map.of("limit", limit)), new LocalContext());
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.lambda.bench;
+
+import com.example.lambda.archive.ArchiveReader;
+import com.example.lambda.compaction.Checkpoint;
+import com.example.lambda.compaction.TombstoneCompaction;
+import com.example.lambda.local.InMemoryDynamoDbClient;
+import com.example.lambda.util.DynamoDBClientUtil;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Seeds Bookings with live items, old and recent tombstones, and tombstones from before deletedAt
+ * was recorded, then compacts with injected throttles and server errors, stopping the job every
+ * two segments and resuming it from its checkpoint until it completes. Exactly the expired
+ * tombstones must be gone from the table and present, unchanged, in the archive.
+ */
+class CompactionTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void resumedCompactionArchivesAndRemovesExactlyTheExpiredTombstones() throws Exception {
+        InMemoryDynamoDbClient client = Fixtures.bookingsTable();
+        DynamoDBClientUtil.setClient(client);
+        Instant now = Instant.parse("2026-10-01T00:00:00Z");
+        Map<String, Map<String, AttributeValue>> expired = new HashMap<>();
+        Set<String> kept = new HashSet<>();
+        for (int i = 0; i < 5000; i++) {
+            Map<String, AttributeValue> item = new HashMap<>(Fixtures.bookingItem(i, "room-" + (i % 50), "user-" + (i % 500)));
+            switch (i % 5) {
+                case 0:
+                    item.put("deleted", AttributeValue.fromBool(true));
+                    item.put("deletedAt", AttributeValue.fromN(Long.toString(now.minus(Duration.ofDays(40)).toEpochMilli())));
+                    break;
+                case 1:
+                    item.put("deleted", AttributeValue.fromBool(true));
+                    item.put("deletedAt", AttributeValue.fromN(Long.toString(now.minus(Duration.ofDays(5)).toEpochMilli())));
+                    break;
+                case 2:
+                    // Tombstone from before deletedAt: its stay decides, and this one ended years ago
+                    item.put("deleted", AttributeValue.fromBool(true));
+                    item.put("checkOutDate", AttributeValue.fromS(LocalDate.of(2020, 3, 1).toString()));
+                    break;
+                case 3:
+                    item.put("deleted", AttributeValue.fromBool(true));
+                    item.put("checkOutDate", AttributeValue.fromS(LocalDate.of(2027, 3, 1).toString()));
+                    break;
+                default:
+                    break;
+            }
+            Fixtures.put(client, item);
+            if (i % 5 == 0 || i % 5 == 2) expired.put(item.get("bookingId").s(), item);
+            else kept.add(item.get("bookingId").s());
+        }
+
+        client.withFaults(0.1, 0.02);
+        TombstoneCompaction compaction = new TombstoneCompaction(directory)
+                .retention(Duration.ofDays(30))
+                .pageSize(250)
+                .segmentRecords(500)
+                .maxDeletesPerSecond(50_000);
+        int runs = 0;
+        int failures = 0;
+        Checkpoint checkpoint = null;
+        while (checkpoint == null || !checkpoint.isComplete()) {
+            runs++;
+            try {
+                checkpoint = compaction.run(now, 2);
+            } catch (RuntimeException e) {
+                if (++failures == 100) {
+                    throw e;
+                }
+            }
+        }
+        client.withFaults(0, 0);
+        assertTrue(runs > 1, "compaction finished without being resumed");
+
+        Set<String> remaining = new HashSet<>();
+        client.items(Fixtures.TABLE).forEach(item -> remaining.add(item.get("bookingId").s()));
+        assertEquals(kept, remaining);
+
+        List<String> conflicts = new ArrayList<>();
+        Map<String, Map<String, AttributeValue>> archived = new HashMap<>();
+        ArchiveReader.readAll(directory, Fixtures.TABLE, item -> {
+            Map<String, AttributeValue> previous = archived.put(item.get("bookingId").s(), item);
+            if (previous != null && !previous.equals(item)) {
+                conflicts.add(item.get("bookingId").s());
+            }
+        });
+        assertEquals(List.of(), conflicts, "archive holds two versions of these bookings");
+        assertEquals(expired, archived);
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.lambda.bench;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.lambda.cache.BookingCache;
+import com.example.lambda.handler.CreateBookingHandler;
+import com.example.lambda.handler.DeleteBookingHandler;
+import com.example.lambda.handler.UpdateBookingHandler;
+import com.example.lambda.local.InMemoryDynamoDbClient;
+import com.example.lambda.local.LocalContext;
+import com.example.lambda.util.DynamoDBClientUtil;
+import com.example.lambda.util.JsonUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Races creates, cancellations and reschedules through the real handlers on the in-memory DynamoDB
+ * stand-in, then checks that no room-night is held by two live bookings and that the lock table
+ * matches the live bookings exactly.
+ */
+class ContentionTest {
+
+    private static final LocalDate WINDOW_START = LocalDate.of(2026, 6, 1);
+    private static final int WINDOW_DAYS = 60;
+
+    private final CreateBookingHandler create = new CreateBookingHandler();
+    private final DeleteBookingHandler delete = new DeleteBookingHandler();
+    private final UpdateBookingHandler update = new UpdateBookingHandler();
+
+    private InMemoryDynamoDbClient client;
+
+    @BeforeEach
+    void freshTable() {
+        client = Fixtures.bookingsTable();
+        DynamoDBClientUtil.setClient(client);
+        BookingCache.clear();
+    }
+
+    @Test
+    void overlappingCreatesHaveExactlyOneWinner() throws Exception {
+        int threads = 32;
+        for (int round = 0; round < 20; round++) {
+            String room = "room-race-" + round;
+            List<Callable<APIGatewayProxyResponseEvent>> calls = new ArrayList<>();
+            for (int i = 0; i < threads; i++) {
+                // Every stay covers the third night of the window, so any two of them clash
+                LocalDate checkIn = WINDOW_START.plusDays(i % 3);
+                calls.add(() -> create.handleRequest(createRequest(room, checkIn, checkIn.plusDays(3)), new LocalContext()));
+            }
+
+            List<APIGatewayProxyResponseEvent> responses = runTogether(calls, threads);
+            long created = responses.stream().filter(response -> response.getStatusCode() == 200).count();
+            long rejected = responses.stream().filter(response -> response.getStatusCode() == 400).count();
+            assertEquals(1, created, "room " + room);
+            assertEquals(threads - 1, rejected, "room " + room);
+        }
+        assertEquals(List.of(), LockInvariants.violations(client));
+    }
+
+    @Test
+    void mixedCreatesCancelsAndReschedulesKeepLocksConsistent() throws Exception {
+        String room = "room-hot";
+        ConcurrentLinkedQueue<String> created = new ConcurrentLinkedQueue<>();
+        List<Callable<APIGatewayProxyResponseEvent>> calls = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            calls.add(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int roll = random.nextInt(10);
+                String cancelId = roll == 0 ? created.poll() : null;
+                // Reschedules peek rather than poll so several threads may move the same booking at once
+                String moveId = roll == 1 ? created.peek() : null;
+                LocalDate checkIn = WINDOW_START.plusDays(random.nextInt(WINDOW_DAYS));
+                LocalDate checkOut = checkIn.plusDays(1 + random.nextInt(4));
+                if (cancelId != null) {
+                    return delete.handleRequest(new APIGatewayProxyRequestEvent()
+                            .withPathParameters(Map.of("bookingid", cancelId)), new LocalContext());
+                }
+                if (moveId != null) {
+                    String body = "{\"checkInDate\":\"" + checkIn + "\",\"checkOutDate\":\"" + checkOut + "\"}";
+                    return update.handleRequest(new APIGatewayProxyRequestEvent()
+                            .withPathParameters(Map.of("bookingid", moveId)).withBody(body), new LocalContext());
+                }
+                APIGatewayProxyResponseEvent response = create.handleRequest(createRequest(room, checkIn, checkOut), new LocalContext());
+                if (response.getStatusCode() == 200) {
+                    created.add(JsonUtil.mapper().readTree(response.getBody()).get("bookingId").asText());
+                }
+                return response;
+            });
+        }
+
+        List<APIGatewayProxyResponseEvent> responses = runTogether(calls, 64);
+        assertTrue(responses.stream().allMatch(response -> response.getStatusCode() < 500));
+        assertTrue(responses.stream().anyMatch(response -> response.getStatusCode() == 200));
+        assertEquals(List.of(), LockInvariants.violations(client));
+    }
+
+    private static APIGatewayProxyRequestEvent createRequest(String room, LocalDate checkIn, LocalDate checkOut) {
+        return new APIGatewayProxyRequestEvent().withBody("{\"roomId\":\"" + room + "\",\"userId\":\"user-1\","
+                + "\"checkInDate\":\"" + checkIn + "\",\"checkOutDate\":\"" + checkOut + "\"}");
+    }
+
+    // Starts every call at once on its own pool thread and waits for all of them
+    private static <T> List<T> runTogether(List<Callable<T>> calls, int threads) throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<T>> futures = new ArrayList<>();
+            for (Callable<T> call : calls) {
+                futures.add(pool.submit(() -> {
+                    start.await();
+                    return call.call();
+                }));
+            }
+            start.countDown();
+            List<T> results = new ArrayList<>();
+            for (Future<T> future : futures) {
+                results.add(future.get(1, TimeUnit.MINUTES));
+            }
+            return results;
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,309 @@
+package com.example.lambda.bench;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord;
+import com.example.lambda.availability.OccupancyBitmap;
+import com.example.lambda.availability.RoomOccupancy;
+import com.example.lambda.cache.BookingCache;
+import com.example.lambda.handler.BookingStreamHandler;
+import com.example.lambda.handler.CreateBookingHandler;
+import com.example.lambda.handler.DeleteBookingHandler;
+import com.example.lambda.handler.UpdateBookingHandler;
+import com.example.lambda.local.InMemoryDynamoDbClient;
+import com.example.lambda.local.LocalContext;
+import com.example.lambda.model.DateRange;
+import com.example.lambda.projection.BookingViews;
+import com.example.lambda.projection.ProjectionBackfill;
+import com.example.lambda.util.DynamoDBClientUtil;
+import com.example.lambda.util.JsonUtil;
+import com.example.lambda.util.StayAttributes;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DeleteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+import software.amazon.awssdk.services.dynamodb.model.UpdateItemRequest;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Drives random creates, reschedules and cancellations through the handlers with the Bookings stream
+ * captured, hard-deletes some cancelled items, then replays the stream into {@link BookingStreamHandler}
+ * the way Lambda would: random batch sizes, duplicate deliveries, redelivery from reported failures and
+ * injected DynamoDB faults and a record without the booking's key. Markers of removed bookings must
+ * carry their expiry, and the room views, user views, night counts and room occupancy must then match
+ * the table, and must still match after the whole stream is replayed once more. The backfill must then
+ * restore them from the table alone, both for markers written before occupancy was projected and for an
+ * empty BookingViews table, and a second backfill must change nothing.
+ */
+class ProjectionTest {
+
+    private static final LocalDate WINDOW_START = LocalDate.of(2026, 6, 1);
+    private static final int WINDOW_DAYS = 75;
+    private static final int ROOMS = 20;
+    private static final int USERS = 40;
+
+    @Test
+    void replayedStreamAndBackfillKeepViewsMatchingTheTable() throws Exception {
+        Random random = new Random(17);
+        InMemoryDynamoDbClient client = Fixtures.bookingsTable().withStream(Fixtures.TABLE);
+        DynamoDBClientUtil.setClient(client);
+        BookingCache.clear();
+        generate(client, 1000, 16);
+
+        List<DynamodbEvent.DynamodbStreamRecord> stream = new ArrayList<>(client.streamRecords(Fixtures.TABLE));
+        stream.add(stream.size() / 2, keyless(stream.get(stream.size() / 2)));
+        client.withFaults(0.03, 0.03);
+        replay(stream, random, true);
+        client.withFaults(0, 0);
+        assertTrue(client.throttledCount() + client.failedCount() > 0, "no fault was injected");
+        assertEquals(List.of(), verify(client), "after chaotic replay");
+
+        replay(stream, random, false);
+        assertEquals(List.of(), verify(client), "after full replay");
+
+        forgetOccupancy(client);
+        ProjectionBackfill.run();
+        assertEquals(List.of(), verify(client), "after occupancy backfill");
+
+        forgetViews(client);
+        assertTrue(ProjectionBackfill.run() > 0);
+        assertEquals(List.of(), verify(client), "after full backfill");
+
+        assertEquals(0, ProjectionBackfill.run(), "second backfill wrote bookings");
+        assertEquals(List.of(), verify(client), "after second backfill");
+    }
+
+    private static void generate(InMemoryDynamoDbClient client, int requests, int threads) throws InterruptedException {
+        CreateBookingHandler create = new CreateBookingHandler();
+        DeleteBookingHandler delete = new DeleteBookingHandler();
+        UpdateBookingHandler update = new UpdateBookingHandler();
+        ConcurrentLinkedQueue<String> created = new ConcurrentLinkedQueue<>();
+        ConcurrentLinkedQueue<String> cancelled = new ConcurrentLinkedQueue<>();
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        for (int i = 0; i < requests; i++) {
+            pool.submit(() -> {
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                int roll = random.nextInt(10);
+                LocalDate checkIn = WINDOW_START.plusDays(random.nextInt(WINDOW_DAYS - 10));
+                String dates = "\"checkInDate\":\"" + checkIn + "\",\"checkOutDate\":\"" + checkIn.plusDays(1 + random.nextInt(5)) + "\"";
+                String cancelId = roll < 2 ? created.poll() : null;
+                String moveId = roll >= 2 && roll < 4 ? created.peek() : null;
+                if (cancelId != null) {
+                    APIGatewayProxyResponseEvent response = delete.handleRequest(new APIGatewayProxyRequestEvent()
+                            .withPathParameters(Map.of("bookingid", cancelId)), new LocalContext());
+                    if (response.getStatusCode() == 200) cancelled.add(cancelId);
+                } else if (moveId != null) {
+                    update.handleRequest(new APIGatewayProxyRequestEvent()
+                            .withPathParameters(Map.of("bookingid", moveId)).withBody("{" + dates + "}"), new LocalContext());
+                } else {
+                    String body = "{\"roomId\":\"room-" + random.nextInt(ROOMS) + "\",\"userId\":\"user-" + random.nextInt(USERS) + "\"," + dates + "}";
+                    APIGatewayProxyResponseEvent response = create.handleRequest(new APIGatewayProxyRequestEvent().withBody(body), new LocalContext());
+                    if (response.getStatusCode() == 200) {
+                        created.add(JsonUtil.mapper().readTree(response.getBody()).get("bookingId").asText());
+                    }
+                }
+                return null;
+            });
+        }
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.MINUTES);
+
+        // Tombstones removed outright, as compaction would, show up as REMOVE records
+        int removed = 0;
+        for (String bookingId : cancelled) {
+            if (removed++ % 2 == 0) {
+                client.deleteItem(DeleteItemRequest.builder().tableName(Fixtures.TABLE)
+                        .key(Map.of("bookingId", AttributeValue.fromS(bookingId))).build());
+            }
+        }
+    }
+
+    // A record with a sequence number but no bookingId key, as a malformed or foreign record would arrive
+    private static DynamodbEvent.DynamodbStreamRecord keyless(DynamodbEvent.DynamodbStreamRecord next) {
+        StreamRecord change = new StreamRecord();
+        change.setKeys(Map.of());
+        change.setSequenceNumber(next.getDynamodb().getSequenceNumber());
+        DynamodbEvent.DynamodbStreamRecord record = new DynamodbEvent.DynamodbStreamRecord();
+        record.setEventID("keyless");
+        record.setEventName("MODIFY");
+        record.setDynamodb(change);
+        return record;
+    }
+
+    // As left by the transactional occupancy writes: markers without the occupancy flag, months holding day flags only
+    private static void forgetOccupancy(InMemoryDynamoDbClient client) {
+        for (Map<String, AttributeValue> item : client.items(BookingViews.TABLE)) {
+            if (item.get("viewId").s().startsWith("booking#")) {
+                client.updateItem(UpdateItemRequest.builder().tableName(BookingViews.TABLE)
+                        .key(Map.of("viewId", item.get("viewId"))).updateExpression("REMOVE occupancy").build());
+            }
+        }
+        for (Map<String, AttributeValue> item : client.items(RoomOccupancy.TABLE)) {
+            Map<String, AttributeValue> key = Map.of("roomId", item.get("roomId"), "month", item.get("month"));
+            client.deleteItem(DeleteItemRequest.builder().tableName(RoomOccupancy.TABLE).key(key).build());
+            client.updateItem(UpdateItemRequest.builder().tableName(RoomOccupancy.TABLE).key(key)
+                    .updateExpression("SET #d = :true").expressionAttributeNames(Map.of("#d", "d" + WINDOW_START.toEpochDay()))
+                    .expressionAttributeValues(Map.of(":true", AttributeValue.fromBool(true))).build());
+        }
+    }
+
+    // As if the projection had never run: no views, markers, counts or occupancy
+    private static void forgetViews(InMemoryDynamoDbClient client) {
+        for (Map<String, AttributeValue> item : client.items(BookingViews.TABLE)) {
+            client.deleteItem(DeleteItemRequest.builder().tableName(BookingViews.TABLE)
+                    .key(Map.of("viewId", item.get("viewId"))).build());
+        }
+        for (Map<String, AttributeValue> item : client.items(RoomOccupancy.TABLE)) {
+            client.deleteItem(DeleteItemRequest.builder().tableName(RoomOccupancy.TABLE)
+                    .key(Map.of("roomId", item.get("roomId"), "month", item.get("month"))).build());
+        }
+    }
+
+    // Feeds the stream as an event source mapping would
+    private static void replay(List<DynamodbEvent.DynamodbStreamRecord> stream, Random random, boolean chaotic) {
+        BookingStreamHandler handler = new BookingStreamHandler();
+        int position = 0;
+        while (position < stream.size()) {
+            int size = chaotic ? 1 + random.nextInt(100) : 100;
+            List<DynamodbEvent.DynamodbStreamRecord> batch = stream.subList(position, Math.min(stream.size(), position + size));
+            DynamodbEvent event = new DynamodbEvent();
+            event.setRecords(batch);
+            StreamsEventResponse response;
+            try {
+                response = handler.handleRequest(event, new LocalContext());
+            } catch (RuntimeException e) {
+                // A failed invocation is retried with the same batch
+                continue;
+            }
+
+            Optional<String> failed = Optional.ofNullable(response.getBatchItemFailures()).orElse(List.of()).stream()
+                    .map(StreamsEventResponse.BatchItemFailure::getItemIdentifier)
+                    .findFirst();
+            if (failed.isPresent()) {
+                String sequence = failed.get();
+                while (!batch.get(0).getDynamodb().getSequenceNumber().equals(sequence)) {
+                    batch = batch.subList(1, batch.size());
+                    position++;
+                }
+                continue;
+            }
+            if (chaotic && random.nextInt(10) == 0) {
+                // Delivered again as a duplicate
+                continue;
+            }
+            position += batch.size();
+        }
+    }
+
+    private static List<String> verify(InMemoryDynamoDbClient client) {
+        List<String> violations = new ArrayList<>();
+        List<Map<String, AttributeValue>> live = client.items(Fixtures.TABLE).stream()
+                .filter(item -> !Boolean.TRUE.equals(item.get("deleted").bool()))
+                .sorted(Comparator.comparing((Map<String, AttributeValue> item) -> item.get("checkInDate").s())
+                        .thenComparing(item -> item.get("bookingId").s()))
+                .collect(Collectors.toList());
+
+        Set<String> stored = client.items(Fixtures.TABLE).stream().map(item -> item.get("bookingId").s()).collect(Collectors.toSet());
+        for (Map<String, AttributeValue> view : client.items(BookingViews.TABLE)) {
+            String viewId = view.get("viewId").s();
+            if (viewId.startsWith("booking#") && !stored.contains(viewId.substring("booking#".length()))
+                    && !view.containsKey(BookingViews.EXPIRES_AT)) {
+                violations.add(viewId + " outlives its removed booking without an expiry");
+            }
+        }
+
+        for (int r = 0; r < ROOMS; r++) {
+            String roomId = "room-" + r;
+            compare(BookingViews.roomView(roomId), "roomId", live.stream()
+                    .filter(item -> item.get("roomId").s().equals(roomId)).collect(Collectors.toList()), violations);
+        }
+        for (int u = 0; u < USERS; u++) {
+            String userId = "user-" + u;
+            compare(BookingViews.userView(userId), "userId", live.stream()
+                    .filter(item -> item.get("userId").s().equals(userId)).collect(Collectors.toList()), violations);
+        }
+
+        DateRange window = new DateRange((int) WINDOW_START.toEpochDay(), (int) WINDOW_START.plusDays(WINDOW_DAYS).toEpochDay());
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        for (Map<String, AttributeValue> booking : live) {
+            DateRange stay = StayAttributes.read(booking);
+            for (int night = stay.getCheckInDay(); night < stay.getCheckOutDay(); night++) {
+                expected.merge(night, 1, Integer::sum);
+            }
+        }
+        List<String> roomIds = new ArrayList<>();
+        for (int r = 0; r < ROOMS; r++) {
+            roomIds.add("room-" + r);
+        }
+        Map<String, OccupancyBitmap> occupancy = RoomOccupancy.read(roomIds, window.getCheckInDay(), window.nights());
+        for (String roomId : roomIds) {
+            OccupancyBitmap occupied = new OccupancyBitmap(window.getCheckInDay(), window.nights());
+            live.stream().filter(item -> item.get("roomId").s().equals(roomId)).forEach(booking -> {
+                DateRange stay = StayAttributes.read(booking);
+                for (int night = stay.getCheckInDay(); night < stay.getCheckOutDay(); night++) {
+                    occupied.set(night);
+                }
+            });
+            for (int night = window.getCheckInDay(); night < window.getCheckOutDay(); night++) {
+                if (occupied.get(night) != occupancy.get(roomId).get(night)) {
+                    violations.add(roomId + " on " + LocalDate.ofEpochDay(night) + " is "
+                            + (occupied.get(night) ? "booked" : "free") + " but occupancy says otherwise");
+                }
+            }
+        }
+
+        int[] counted = BookingViews.bookedRooms(window);
+        for (int i = 0; i < counted.length; i++) {
+            int night = window.getCheckInDay() + i;
+            if (counted[i] != expected.getOrDefault(night, 0)) {
+                violations.add("night " + LocalDate.ofEpochDay(night) + " counts " + counted[i]
+                        + " booked rooms, table has " + expected.getOrDefault(night, 0));
+            }
+        }
+        return violations;
+    }
+
+    // Pages through the view in small pages and expects exactly the live items, in index order
+    private static void compare(String viewId, String keyName, List<Map<String, AttributeValue>> expected, List<String> violations) {
+        List<Map<String, AttributeValue>> served = new ArrayList<>();
+        Map<String, AttributeValue> startKey = null;
+        do {
+            Optional<QueryResponse> page = BookingViews.page(viewId, keyName, 7, startKey);
+            if (!page.isPresent()) {
+                if (!expected.isEmpty()) violations.add(viewId + " missing with " + expected.size() + " live bookings");
+                return;
+            }
+            served.addAll(page.get().items());
+            startKey = page.get().hasLastEvaluatedKey() ? page.get().lastEvaluatedKey() : null;
+        } while (startKey != null);
+
+        if (!served.equals(expected)) {
+            violations.add(viewId + " serves " + ids(served) + " but table has " + ids(expected));
+        }
+    }
+
+    private static List<String> ids(List<Map<String, AttributeValue>> items) {
+        return items.stream().map(item -> item.get("bookingId").s()).collect(Collectors.toList());
+    }
+}
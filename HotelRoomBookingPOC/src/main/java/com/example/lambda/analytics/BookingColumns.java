@@ -0,0 +1,144 @@
+package com.example.lambda.analytics;
+
+import com.example.lambda.model.DateRange;
+import com.example.lambda.util.StayAttributes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bookings held column-wise in primitive arrays, about 17 bytes each, so millions fit in memory
+ * and aggregations scan plain ints. Room ids are interned to dense indexes. Not thread-safe:
+ * loaders fill one instance per thread and combine them with {@link #addAll}. A {@link #keyed()}
+ * instance also keeps each row's bookingId and holds one row per booking, the last one added, for
+ * sources such as export archives that may hold a booking more than once.
+ */
+public class BookingColumns {
+
+    // createdDay of bookings made before createdAt was recorded
+    public static final int UNKNOWN = Integer.MIN_VALUE;
+
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
+    public interface Visitor {
+        void visit(String roomId, int checkInDay, int checkOutDay, int createdDay, boolean cancelled);
+    }
+
+    private final Map<String, Integer> roomIndexes = new HashMap<>();
+    private final List<String> roomIds = new ArrayList<>();
+    // Row of each bookingId; null unless keyed
+    private final Map<String, Integer> rowsById;
+    private String[] bookingIds;
+
+    private int size;
+    private int[] rooms = new int[1024];
+    private int[] checkInDays = new int[1024];
+    private int[] checkOutDays = new int[1024];
+    private int[] createdDays = new int[1024];
+    private boolean[] cancelled = new boolean[1024];
+
+    public BookingColumns() {
+        this(false);
+    }
+
+    private BookingColumns(boolean keyed) {
+        rowsById = keyed ? new HashMap<>() : null;
+        bookingIds = keyed ? new String[1024] : null;
+    }
+
+    public static BookingColumns keyed() {
+        return new BookingColumns(true);
+    }
+
+    public void add(String roomId, int checkInDay, int checkOutDay, int createdDay, boolean isCancelled) {
+        add(null, roomId, checkInDay, checkOutDay, createdDay, isCancelled);
+    }
+
+    private void add(String bookingId, String roomId, int checkInDay, int checkOutDay, int createdDay, boolean isCancelled) {
+        if (rowsById != null && bookingId != null) {
+            Integer row = rowsById.putIfAbsent(bookingId, size);
+            if (row != null) {
+                set(row, roomId, checkInDay, checkOutDay, createdDay, isCancelled);
+                return;
+            }
+        }
+        if (size == rooms.length) {
+            int capacity = size * 2;
+            rooms = Arrays.copyOf(rooms, capacity);
+            checkInDays = Arrays.copyOf(checkInDays, capacity);
+            checkOutDays = Arrays.copyOf(checkOutDays, capacity);
+            createdDays = Arrays.copyOf(createdDays, capacity);
+            cancelled = Arrays.copyOf(cancelled, capacity);
+            if (bookingIds != null) bookingIds = Arrays.copyOf(bookingIds, capacity);
+        }
+        set(size, roomId, checkInDay, checkOutDay, createdDay, isCancelled);
+        if (bookingIds != null) bookingIds[size] = bookingId;
+        size++;
+    }
+
+    private void set(int row, String roomId, int checkInDay, int checkOutDay, int createdDay, boolean isCancelled) {
+        rooms[row] = roomIndex(roomId);
+        checkInDays[row] = checkInDay;
+        checkOutDays[row] = checkOutDay;
+        createdDays[row] = createdDay;
+        cancelled[row] = isCancelled;
+    }
+
+    // A Bookings item; items missing a room or stay are not bookings this can count and are skipped
+    public void add(Map<String, AttributeValue> item) {
+        AttributeValue roomId = item.get("roomId");
+        if (roomId == null || roomId.s() == null || (!item.containsKey(StayAttributes.CHECK_IN_DAY) && !item.containsKey("checkInDate"))) {
+            return;
+        }
+        DateRange stay = StayAttributes.read(item);
+        AttributeValue createdAt = item.get("createdAt");
+        int createdDay = createdAt != null && createdAt.n() != null
+                ? (int) Math.floorDiv(Long.parseLong(createdAt.n()), MILLIS_PER_DAY)
+                : UNKNOWN;
+        AttributeValue deleted = item.get("deleted");
+        AttributeValue bookingId = item.get("bookingId");
+        add(bookingId == null ? null : bookingId.s(), roomId.s(), stay.getCheckInDay(), stay.getCheckOutDay(), createdDay,
+                deleted != null && Boolean.TRUE.equals(deleted.bool()));
+    }
+
+    public void addAll(BookingColumns other) {
+        for (int i = 0; i < other.size; i++) {
+            add(other.bookingIds == null ? null : other.bookingIds[i], other.roomIds.get(other.rooms[i]),
+                    other.checkInDays[i], other.checkOutDays[i], other.createdDays[i], other.cancelled[i]);
+        }
+    }
+
+    public void forEach(Visitor visitor) {
+        for (int i = 0; i < size; i++) {
+            visitor.visit(roomIds.get(rooms[i]), checkInDays[i], checkOutDays[i], createdDays[i], cancelled[i]);
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public List<String> roomIds() {
+        return roomIds;
+    }
+
+    int room(int i) { return rooms[i]; }
+    int checkInDay(int i) { return checkInDays[i]; }
+    int checkOutDay(int i) { return checkOutDays[i]; }
+    int createdDay(int i) { return createdDays[i]; }
+    boolean cancelled(int i) { return cancelled[i]; }
+
+    private int roomIndex(String roomId) {
+        Integer index = roomIndexes.get(roomId);
+        if (index == null) {
+            index = roomIds.size();
+            roomIndexes.put(roomId, index);
+            roomIds.add(roomId);
+        }
+        return index;
+    }
+}
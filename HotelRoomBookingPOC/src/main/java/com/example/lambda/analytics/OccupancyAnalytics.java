@@ -0,0 +1,166 @@
+package com.example.lambda.analytics;
+
+import com.example.lambda.archive.ArchiveReader;
+import com.example.lambda.archive.Manifest;
+import com.example.lambda.bulk.BulkExport;
+import com.example.lambda.bulk.Workers;
+import com.example.lambda.logging.Log;
+import com.example.lambda.model.DateRange;
+import com.example.lambda.resilience.ThroughputLimiter;
+import com.example.lambda.util.StayAttributes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Occupancy analytics over Bookings without ad-hoc scans per question: bookings are loaded once
+ * into {@link BookingColumns}, from the table with a paced parallel Scan (ANALYTICS_SEGMENTS,
+ * default 8, at ANALYTICS_READ_UNITS_PER_SECOND, default 200) or from a {@link BulkExport} archive,
+ * then aggregated with fork-join into an {@link OccupancyReport}. ANALYTICS_PARALLELISM sets the
+ * fork-join parallelism (default: the common pool). Each worker sums into one rooms × nights array
+ * of its own, so a report is limited to {@value #MAX_CELLS} cells. An archive may hold a booking
+ * more than once; the last record of each bookingId in manifest order is the one counted.
+ *
+ * <pre>java -cp target/room-booking-lambda-1.0.jar com.example.lambda.analytics.OccupancyAnalytics [from] [to] [archiveDir]</pre>
+ * The window defaults to the next calendar quarter; the report JSON goes to stdout.
+ */
+public class OccupancyAnalytics {
+
+    private static final String TABLE = "Bookings";
+    private static final String[] ATTRIBUTES = {"roomId", StayAttributes.CHECK_IN_DAY, StayAttributes.CHECK_OUT_DAY,
+            "checkInDate", "checkOutDate", "createdAt", "deleted"};
+
+    private static final ForkJoinPool pool = Optional.ofNullable(System.getenv("ANALYTICS_PARALLELISM"))
+            .map(String::trim).map(Integer::parseInt).map(ForkJoinPool::new)
+            .orElse(ForkJoinPool.commonPool());
+
+    // Aim for a few leaves per worker so stragglers even out, but keep leaves large enough to be worth a task
+    private static final int LEAVES_PER_WORKER = 4;
+    private static final int MIN_LEAF = 1 << 14;
+    // 16 MB of counters per worker, e.g. 11,000 rooms over a year
+    static final int MAX_CELLS = 1 << 22;
+
+    public static OccupancyReport report(BookingColumns columns, DateRange window) {
+        return report(columns, window, pool);
+    }
+
+    public static OccupancyReport report(BookingColumns columns, DateRange window, ForkJoinPool pool) {
+        long cells = (long) columns.roomIds().size() * window.nights();
+        if (window.nights() <= 0 || cells > MAX_CELLS) {
+            throw new IllegalArgumentException("Window of " + window.nights() + " nights over "
+                    + columns.roomIds().size() + " rooms is too large to aggregate; the limit is " + MAX_CELLS + " room nights");
+        }
+        int leafSize = Math.max(MIN_LEAF, columns.size() / (pool.getParallelism() * LEAVES_PER_WORKER) + 1);
+        Map<Thread, OccupancyTask.Totals> byWorker = new ConcurrentHashMap<>();
+        pool.invoke(new OccupancyTask(columns, 0, columns.size(), window.getCheckInDay(), window.nights(), leafSize, byWorker));
+        OccupancyTask.Totals totals = new OccupancyTask.Totals((int) cells);
+        byWorker.values().forEach(totals::add);
+        return new OccupancyReport(window, columns.roomIds(), columns.size(), totals);
+    }
+
+    // Bookings overlapping the window, read with a parallel Scan that transfers only the attributes analytics use
+    public static BookingColumns fromTable(DateRange window) throws IOException {
+        int totalSegments = envInt("ANALYTICS_SEGMENTS", 8);
+        ThroughputLimiter limiter = new ThroughputLimiter(envInt("ANALYTICS_READ_UNITS_PER_SECOND", 200));
+        Map<String, String> names = new HashMap<>();
+        StringBuilder projection = new StringBuilder();
+        for (int i = 0; i < ATTRIBUTES.length; i++) {
+            names.put("#p" + i, ATTRIBUTES[i]);
+            projection.append(i == 0 ? "" : ", ").append("#p").append(i);
+        }
+        // Items from before the epoch-day attributes existed are kept and judged after loading
+        String filter = "attribute_not_exists(#p1) OR (#p1 < :to AND #p2 > :from)";
+        Map<String, AttributeValue> values = Map.of(
+                ":from", AttributeValue.fromN(Integer.toString(window.getCheckInDay())),
+                ":to", AttributeValue.fromN(Integer.toString(window.getCheckOutDay())));
+
+        BookingColumns columns = new BookingColumns();
+        List<Workers.Task> tasks = new ArrayList<>();
+        for (int segment = 0; segment < totalSegments; segment++) {
+            int current = segment;
+            tasks.add(() -> {
+                BookingColumns local = new BookingColumns();
+                Map<String, AttributeValue> startKey = null;
+                do {
+                    Workers.checkInterrupted();
+                    ScanResponse page = BulkExport.scan(ScanRequest.builder()
+                            .tableName(TABLE)
+                            .segment(current)
+                            .totalSegments(totalSegments)
+                            .projectionExpression(projection.toString())
+                            .filterExpression(filter)
+                            .expressionAttributeNames(names)
+                            .expressionAttributeValues(values)
+                            .exclusiveStartKey(startKey)
+                            .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                            .build(), limiter);
+                    page.items().forEach(local::add);
+                    startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+                } while (startKey != null);
+                synchronized (columns) {
+                    columns.addAll(local);
+                }
+            });
+        }
+        Workers.runAll(totalSegments, tasks);
+        return columns;
+    }
+
+    // Every booking in an export archive once, its files read in parallel and combined in manifest order
+    public static BookingColumns fromArchive(Path directory) throws IOException {
+        List<Manifest.Segment> segments = Manifest.load(directory, TABLE).getSegments();
+        BookingColumns[] files = new BookingColumns[segments.size()];
+        List<Workers.Task> tasks = new ArrayList<>();
+        for (int i = 0; i < segments.size(); i++) {
+            int file = i;
+            tasks.add(() -> {
+                BookingColumns local = BookingColumns.keyed();
+                ArchiveReader.readSegment(directory, segments.get(file), local::add);
+                files[file] = local;
+            });
+        }
+        Workers.runAll(pool.getParallelism(), tasks);
+        BookingColumns columns = BookingColumns.keyed();
+        for (BookingColumns file : files) {
+            columns.addAll(file);
+        }
+        return columns;
+    }
+
+    public static void main(String[] args) {
+        LocalDate quarter = LocalDate.now().withDayOfMonth(1);
+        quarter = quarter.minusMonths((quarter.getMonthValue() - 1) % 3).plusMonths(3);
+        String from = args.length > 0 ? args[0] : quarter.toString();
+        String to = args.length > 1 ? args[1] : quarter.plusMonths(3).toString();
+        try {
+            DateRange window = DateRange.parse(from, to);
+            long began = System.nanoTime();
+            BookingColumns columns = args.length > 2 ? fromArchive(Paths.get(args[2])) : fromTable(window);
+            long loaded = System.nanoTime();
+            OccupancyReport report = report(columns, window);
+            Log.info("analytics.done", "bookings", columns.size(), "loadMs", (loaded - began) / 1_000_000,
+                    "aggregateMs", (System.nanoTime() - loaded) / 1_000_000);
+            System.out.println(report.toJson());
+        } catch (Exception e) {
+            Log.error("analytics.failed", "window", from + ".." + to, "error", e.toString());
+            System.exit(1);
+        }
+    }
+
+    private static int envInt(String name, int fallback) {
+        return Optional.ofNullable(System.getenv(name)).map(String::trim).map(Integer::parseInt).orElse(fallback);
+    }
+}
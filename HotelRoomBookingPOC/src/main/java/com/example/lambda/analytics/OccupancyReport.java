@@ -0,0 +1,155 @@
+package com.example.lambda.analytics;
+
+import com.example.lambda.model.DateRange;
+import com.example.lambda.util.JsonUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.List;
+
+/**
+ * Occupancy, cancellation and lead-time figures for a window of nights. Room nights count active
+ * bookings; cancellation rates and lead times are over arrivals, the bookings whose check-in falls
+ * in the window, cancelled or not. Occupancy is relative to the rooms that have bookings.
+ */
+public class OccupancyReport {
+
+    // Lead-time buckets for the cancellation breakdown: [start, next start) in days, the last open-ended
+    private static final int[] LEAD_BUCKETS = {0, 1, 2, 4, 8, 15, 31, 61, 91, 181, OccupancyTask.MAX_LEAD_DAYS + 1};
+
+    private final DateRange window;
+    private final int days;
+    private final List<String> roomIds;
+    private final int bookings;
+    private final OccupancyTask.Totals totals;
+
+    OccupancyReport(DateRange window, List<String> roomIds, int bookings, OccupancyTask.Totals totals) {
+        this.window = window;
+        this.days = window.nights();
+        this.roomIds = roomIds;
+        this.bookings = bookings;
+        this.totals = totals;
+    }
+
+    public int roomNights(int room, int day) {
+        return totals.roomNights[room * days + day];
+    }
+
+    public List<String> roomIds() {
+        return roomIds;
+    }
+
+    public long roomNights() {
+        long nights = 0;
+        for (int count : totals.roomNights) {
+            nights += count;
+        }
+        return nights;
+    }
+
+    public int[] bookedRoomsPerDay() {
+        int[] booked = new int[days];
+        for (int room = 0; room < roomIds.size(); room++) {
+            for (int day = 0; day < days; day++) {
+                if (totals.roomNights[room * days + day] > 0) booked[day]++;
+            }
+        }
+        return booked;
+    }
+
+    public long arrivals() {
+        return totals.arrivals;
+    }
+
+    public long cancelled() {
+        return totals.cancelled;
+    }
+
+    // Lead time in days at the given percentile of arrivals with a known booking date; -1 without any
+    public int leadDaysPercentile(double percentile) {
+        long known = totals.arrivals - totals.unknownLead;
+        if (known == 0) {
+            return -1;
+        }
+        long rank = (long) Math.ceil(percentile / 100 * known);
+        long seen = 0;
+        for (int lead = 0; lead < totals.arrivalsByLead.length; lead++) {
+            seen += totals.arrivalsByLead[lead];
+            if (seen >= Math.max(1, rank)) {
+                return lead;
+            }
+        }
+        return OccupancyTask.MAX_LEAD_DAYS + 1;
+    }
+
+    // Per-room rows are strings with one digit per night (bookings on it, 9 meaning nine or more)
+    public String toJson() {
+        StringWriter out = new StringWriter();
+        try (JsonGenerator json = JsonUtil.mapper().getFactory().createGenerator(out)) {
+            long roomNights = roomNights();
+            long capacity = (long) roomIds.size() * days;
+            json.writeStartObject();
+            json.writeStringField("from", window.checkInDate());
+            json.writeStringField("to", window.checkOutDate());
+            json.writeNumberField("nights", days);
+            json.writeNumberField("rooms", roomIds.size());
+            json.writeNumberField("bookings", bookings);
+            json.writeNumberField("roomNights", roomNights);
+            json.writeNumberField("occupancy", ratio(roomNights, capacity));
+            json.writeNumberField("arrivals", totals.arrivals);
+            json.writeNumberField("cancelled", totals.cancelled);
+            json.writeNumberField("cancellationRate", ratio(totals.cancelled, totals.arrivals));
+
+            json.writeArrayFieldStart("bookedRoomsPerNight");
+            for (int booked : bookedRoomsPerDay()) {
+                json.writeNumber(booked);
+            }
+            json.writeEndArray();
+
+            json.writeObjectFieldStart("leadTimeDays");
+            json.writeNumberField("p50", leadDaysPercentile(50));
+            json.writeNumberField("p90", leadDaysPercentile(90));
+            json.writeNumberField("p99", leadDaysPercentile(99));
+            json.writeNumberField("unknown", totals.unknownLead);
+            json.writeArrayFieldStart("buckets");
+            for (int b = 0; b < LEAD_BUCKETS.length; b++) {
+                int start = LEAD_BUCKETS[b];
+                int end = b + 1 < LEAD_BUCKETS.length ? LEAD_BUCKETS[b + 1] : totals.arrivalsByLead.length;
+                long arrivals = 0;
+                long cancelled = 0;
+                for (int lead = start; lead < end; lead++) {
+                    arrivals += totals.arrivalsByLead[lead];
+                    cancelled += totals.cancelledByLead[lead];
+                }
+                json.writeStartObject();
+                json.writeStringField("days", end == totals.arrivalsByLead.length ? start + "+"
+                        : end - start == 1 ? Integer.toString(start) : start + "-" + (end - 1));
+                json.writeNumberField("arrivals", arrivals);
+                json.writeNumberField("cancellationRate", ratio(cancelled, arrivals));
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+
+            json.writeObjectFieldStart("roomNightsByRoom");
+            char[] row = new char[days];
+            for (int room = 0; room < roomIds.size(); room++) {
+                for (int day = 0; day < days; day++) {
+                    row[day] = (char) ('0' + Math.min(9, totals.roomNights[room * days + day]));
+                }
+                json.writeStringField(roomIds.get(room), new String(row));
+            }
+            json.writeEndObject();
+            json.writeEndObject();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return out.toString();
+    }
+
+    private static double ratio(long part, long whole) {
+        return whole == 0 ? 0 : Math.round(part * 10_000.0 / whole) / 10_000.0;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.lambda.analytics;
+
+import java.util.Map;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Fork-join aggregation of a range of {@link BookingColumns} over a window of days. Ranges larger
+ * than the leaf size are split in half; each leaf adds into the totals of the worker thread running
+ * it, so memory is one set of arrays per worker however many leaves there are, and nothing is
+ * shared between threads until the caller sums the workers' totals.
+ */
+class OccupancyTask extends RecursiveAction {
+
+    private static final long serialVersionUID = 1L;
+
+    // Lead times are counted per day up to a year; the last bucket holds everything longer
+    static final int MAX_LEAD_DAYS = 365;
+
+    static final class Totals {
+        // Active bookings per room per night: index room * days + (night - first day)
+        final int[] roomNights;
+        // Arrivals in the window by lead time in days, all of them and the cancelled ones
+        final long[] arrivalsByLead = new long[MAX_LEAD_DAYS + 2];
+        final long[] cancelledByLead = new long[MAX_LEAD_DAYS + 2];
+        long arrivals;
+        long cancelled;
+        long unknownLead;
+        long unknownLeadCancelled;
+
+        Totals(int cells) {
+            roomNights = new int[cells];
+        }
+
+        void add(Totals other) {
+            for (int i = 0; i < roomNights.length; i++) {
+                roomNights[i] += other.roomNights[i];
+            }
+            for (int i = 0; i < arrivalsByLead.length; i++) {
+                arrivalsByLead[i] += other.arrivalsByLead[i];
+                cancelledByLead[i] += other.cancelledByLead[i];
+            }
+            arrivals += other.arrivals;
+            cancelled += other.cancelled;
+            unknownLead += other.unknownLead;
+            unknownLeadCancelled += other.unknownLeadCancelled;
+        }
+    }
+
+    // Never serialized; the fields are transient only because ForkJoinTask is Serializable
+    private final transient BookingColumns columns;
+    private final transient Map<Thread, Totals> byWorker;
+    private final int from;
+    private final int to;
+    private final int firstDay;
+    private final int days;
+    private final int leafSize;
+
+    OccupancyTask(BookingColumns columns, int from, int to, int firstDay, int days, int leafSize, Map<Thread, Totals> byWorker) {
+        this.columns = columns;
+        this.from = from;
+        this.to = to;
+        this.firstDay = firstDay;
+        this.days = days;
+        this.leafSize = leafSize;
+        this.byWorker = byWorker;
+    }
+
+    @Override
+    protected void compute() {
+        if (to - from <= leafSize) {
+            leaf();
+            return;
+        }
+        int middle = (from + to) >>> 1;
+        invokeAll(new OccupancyTask(columns, from, middle, firstDay, days, leafSize, byWorker),
+                new OccupancyTask(columns, middle, to, firstDay, days, leafSize, byWorker));
+    }
+
+    private void leaf() {
+        Totals totals = byWorker.computeIfAbsent(Thread.currentThread(), worker -> new Totals(columns.roomIds().size() * days));
+        int[] roomNights = totals.roomNights;
+        int endDay = firstDay + days;
+        for (int i = from; i < to; i++) {
+            int checkIn = columns.checkInDay(i);
+            boolean cancelled = columns.cancelled(i);
+            if (!cancelled) {
+                int base = columns.room(i) * days - firstDay;
+                int last = Math.min(columns.checkOutDay(i), endDay);
+                for (int night = Math.max(checkIn, firstDay); night < last; night++) {
+                    roomNights[base + night]++;
+                }
+            }
+            if (checkIn < firstDay || checkIn >= endDay) {
+                continue;
+            }
+            totals.arrivals++;
+            if (cancelled) totals.cancelled++;
+            int created = columns.createdDay(i);
+            if (created == BookingColumns.UNKNOWN) {
+                totals.unknownLead++;
+                if (cancelled) totals.unknownLeadCancelled++;
+            } else {
+                int lead = Math.max(0, Math.min(MAX_LEAD_DAYS + 1, checkIn - created));
+                totals.arrivalsByLead[lead]++;
+                if (cancelled) totals.cancelledByLead[lead]++;
+            }
+        }
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.lambda.archive;
+
+import com.example.lambda.util.JsonUtil;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+
+/** Reads archive segments back, checking each against the size and checksum in the manifest before parsing it. */
+public class ArchiveReader {
+
+    public static long readAll(Path directory, String table, Consumer<Map<String, AttributeValue>> sink) throws IOException {
+        long records = 0;
+        for (Manifest.Segment segment : Manifest.load(directory, table).getSegments()) {
+            records += readSegment(directory, segment, sink);
+        }
+        return records;
+    }
+
+    public static long readSegment(Path directory, Manifest.Segment segment, Consumer<Map<String, AttributeValue>> sink) throws IOException {
+        Path file = directory.resolve(segment.getFile());
+        if (Files.size(file) != segment.getBytes()) {
+            throw new IOException(file + " is " + Files.size(file) + " bytes, manifest says " + segment.getBytes());
+        }
+        String actual = sha256(file);
+        if (!actual.equals(segment.getSha256())) {
+            throw new IOException(file + " has sha256 " + actual + ", manifest says " + segment.getSha256());
+        }
+        long records = 0;
+        try (InputStream raw = Files.newInputStream(file);
+             GZIPInputStream gzip = new GZIPInputStream(new BufferedInputStream(raw, 1 << 16), 1 << 16);
+             MappingIterator<JsonNode> lines = JsonUtil.mapper().readerFor(JsonNode.class).readValues(gzip)) {
+            while (lines.hasNext()) {
+                sink.accept(ItemJson.read(lines.next()));
+                records++;
+            }
+        }
+        if (records != segment.getRecords()) {
+            throw new IOException(file + " holds " + records + " records, manifest says " + segment.getRecords());
+        }
+        return records;
+    }
+
+    private static String sha256(Path file) throws IOException {
+        try (InputStream raw = Files.newInputStream(file)) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[1 << 16];
+            for (int read; (read = raw.read(buffer)) > 0; ) {
+                digest.update(buffer, 0, read);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IOException(e);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.lambda.archive;
+
+import com.example.lambda.util.JsonUtil;
+import com.fasterxml.jackson.core.JsonGenerator;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Appends items to numbered gzip NDJSON segments in a directory, listed in its {@link Manifest}.
+ * A segment is written to a ".part" file, synced, renamed and only then added to the manifest,
+ * so everything the manifest lists is durable. Reopening a directory continues after its last
+ * listed segment; an unfinished ".part" left by a crash is overwritten. Several threads can each
+ * write their own {@link SegmentWriter} into the same directory; the manifest update is serialised.
+ */
+public class ArchiveWriter implements Closeable {
+
+    private final Path directory;
+    private final String prefix;
+    private final Manifest manifest;
+    private int nextNumber;
+
+    private SegmentWriter current;
+
+    public ArchiveWriter(Path directory, String table) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.prefix = table.toLowerCase(Locale.ROOT);
+        this.manifest = Manifest.load(directory, table);
+        this.nextNumber = 1 + manifest.getSegments().stream()
+                .mapToInt(segment -> number(segment.getFile()))
+                .max().orElse(0);
+    }
+
+    public void append(Map<String, AttributeValue> item) throws IOException {
+        if (current == null) {
+            current = newSegment();
+        }
+        current.append(item);
+    }
+
+    // Items appended since the last finished segment
+    public long pending() {
+        return current == null ? 0 : current.records();
+    }
+
+    public synchronized Manifest manifest() {
+        return manifest;
+    }
+
+    // Completes the open segment and lists it in the manifest; empty when nothing was appended
+    public Optional<Manifest.Segment> finishSegment() throws IOException {
+        if (current == null) {
+            return Optional.empty();
+        }
+        Manifest.Segment segment = current.finish();
+        current = null;
+        return Optional.of(segment);
+    }
+
+    // Discards an unfinished segment
+    @Override
+    public void close() throws IOException {
+        if (current != null) {
+            current.close();
+            current = null;
+        }
+    }
+
+    // A segment of its own, for callers writing from several threads
+    public synchronized SegmentWriter newSegment() throws IOException {
+        return new SegmentWriter(segmentName(nextNumber++));
+    }
+
+    private synchronized void register(Manifest.Segment segment) throws IOException {
+        manifest.getSegments().add(segment);
+        manifest.save(directory);
+    }
+
+    private String segmentName(int number) {
+        return String.format("%s-%05d.ndjson.gz", prefix, number);
+    }
+
+    private static int number(String file) {
+        int end = file.indexOf('.');
+        return Integer.parseInt(file.substring(file.lastIndexOf('-', end) + 1, end));
+    }
+
+    /** One segment file being written; not thread-safe itself. */
+    public class SegmentWriter implements Closeable {
+
+        private final String name;
+        private final Path part;
+        private final FileOutputStream file;
+        private final DigestOutputStream digest;
+        private final GZIPOutputStream gzip;
+        private final JsonGenerator generator;
+        private long records;
+        private boolean open = true;
+
+        private SegmentWriter(String name) throws IOException {
+            this.name = name;
+            this.part = directory.resolve(name + ".part");
+            try {
+                file = new FileOutputStream(part.toFile());
+                digest = new DigestOutputStream(new BufferedOutputStream(file, 1 << 16), MessageDigest.getInstance("SHA-256"));
+                gzip = new GZIPOutputStream(digest, 1 << 16);
+                generator = JsonUtil.mapper().getFactory().createGenerator(gzip);
+                // One item per line: the newline is written explicitly instead of the default space separator
+                generator.setRootValueSeparator(null);
+            } catch (NoSuchAlgorithmException e) {
+                throw new IOException(e);
+            }
+        }
+
+        public void append(Map<String, AttributeValue> item) throws IOException {
+            ItemJson.write(generator, item);
+            generator.writeRaw('\n');
+            records++;
+        }
+
+        public long records() {
+            return records;
+        }
+
+        // Syncs and renames the file, then lists it in the manifest
+        public Manifest.Segment finish() throws IOException {
+            generator.flush();
+            gzip.finish();
+            // The gzip trailer is still in the buffer until it is flushed, and only what reached the file is synced
+            digest.flush();
+            file.getChannel().force(true);
+            generator.close();
+            open = false;
+            Manifest.Segment segment = new Manifest.Segment();
+            segment.setFile(name);
+            segment.setRecords(records);
+            segment.setBytes(Files.size(part));
+            segment.setSha256(HexFormat.of().formatHex(digest.getMessageDigest().digest()));
+            DurableFiles.rename(part, directory.resolve(name));
+            register(segment);
+            return segment;
+        }
+
+        // Discards the segment unless it was finished
+        @Override
+        public void close() throws IOException {
+            if (open) {
+                open = false;
+                generator.close();
+                Files.deleteIfExists(part);
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.lambda.archive;
+
+import com.example.lambda.util.JsonUtil;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes that survive a crash once they return: file contents are synced before the rename that
+ * publishes them, and the directory is synced after it, so the new name itself is on disk too.
+ */
+public final class DurableFiles {
+
+    private DurableFiles() {}
+
+    // Replaces directory/name with the value as JSON; a crash leaves either the old file or the new one
+    public static void writeJson(Path directory, String name, Object value) throws IOException {
+        Path temp = directory.resolve(name + ".tmp");
+        ByteBuffer bytes = ByteBuffer.wrap(JsonUtil.mapper().writerWithDefaultPrettyPrinter().writeValueAsBytes(value));
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (bytes.hasRemaining()) {
+                channel.write(bytes);
+            }
+            channel.force(true);
+        }
+        rename(temp, directory.resolve(name));
+    }
+
+    // Atomically renames a synced file and syncs the directory holding it
+    public static void rename(Path from, Path to) throws IOException {
+        Files.move(from, to, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory(to.toAbsolutePath().getParent());
+    }
+
+    public static void syncDirectory(Path directory) throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            // Some platforms (Windows) cannot open a directory; renames there are made durable by the file system
+            if (Files.isDirectory(directory) && System.getProperty("os.name", "").startsWith("Windows")) {
+                return;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.lambda.archive;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonNode;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Lossless item encoding in DynamoDB's own export format, one {"Item":{"name":{"S":"..."}}} object
+ * per line, so archives restore exactly and can be loaded by DynamoDB's S3 import as well.
+ */
+public class ItemJson {
+
+    public static void write(JsonGenerator gen, Map<String, AttributeValue> item) throws IOException {
+        gen.writeStartObject();
+        gen.writeFieldName("Item");
+        writeMap(gen, item);
+        gen.writeEndObject();
+    }
+
+    public static Map<String, AttributeValue> read(JsonNode line) {
+        return readMap(line.get("Item"));
+    }
+
+    private static void writeMap(JsonGenerator gen, Map<String, AttributeValue> item) throws IOException {
+        gen.writeStartObject();
+        for (Map.Entry<String, AttributeValue> entry : item.entrySet()) {
+            gen.writeFieldName(entry.getKey());
+            writeValue(gen, entry.getValue());
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeValue(JsonGenerator gen, AttributeValue value) throws IOException {
+        gen.writeStartObject();
+        switch (value.type()) {
+            case S:
+                gen.writeStringField("S", value.s());
+                break;
+            case N:
+                gen.writeStringField("N", value.n());
+                break;
+            case BOOL:
+                gen.writeBooleanField("BOOL", value.bool());
+                break;
+            case B:
+                gen.writeStringField("B", Base64.getEncoder().encodeToString(value.b().asByteArrayUnsafe()));
+                break;
+            case SS:
+                gen.writeArrayFieldStart("SS");
+                for (String s : value.ss()) gen.writeString(s);
+                gen.writeEndArray();
+                break;
+            case NS:
+                gen.writeArrayFieldStart("NS");
+                for (String n : value.ns()) gen.writeString(n);
+                gen.writeEndArray();
+                break;
+            case BS:
+                gen.writeArrayFieldStart("BS");
+                for (SdkBytes b : value.bs()) gen.writeString(Base64.getEncoder().encodeToString(b.asByteArrayUnsafe()));
+                gen.writeEndArray();
+                break;
+            case L:
+                gen.writeArrayFieldStart("L");
+                for (AttributeValue element : value.l()) writeValue(gen, element);
+                gen.writeEndArray();
+                break;
+            case M:
+                gen.writeFieldName("M");
+                writeMap(gen, value.m());
+                break;
+            default:
+                gen.writeBooleanField("NULL", true);
+        }
+        gen.writeEndObject();
+    }
+
+    private static Map<String, AttributeValue> readMap(JsonNode node) {
+        Map<String, AttributeValue> item = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            item.put(field.getKey(), readValue(field.getValue()));
+        }
+        return item;
+    }
+
+    private static AttributeValue readValue(JsonNode node) {
+        Map.Entry<String, JsonNode> typed = node.fields().next();
+        JsonNode value = typed.getValue();
+        switch (typed.getKey()) {
+            case "S":
+                return AttributeValue.fromS(value.asText());
+            case "N":
+                return AttributeValue.fromN(value.asText());
+            case "BOOL":
+                return AttributeValue.fromBool(value.asBoolean());
+            case "NULL":
+                return AttributeValue.fromNul(true);
+            case "B":
+                return AttributeValue.fromB(SdkBytes.fromByteArray(Base64.getDecoder().decode(value.asText())));
+            case "SS":
+                return AttributeValue.fromSs(strings(value));
+            case "NS":
+                return AttributeValue.fromNs(strings(value));
+            case "BS": {
+                List<SdkBytes> bytes = new ArrayList<>();
+                value.forEach(b -> bytes.add(SdkBytes.fromByteArray(Base64.getDecoder().decode(b.asText()))));
+                return AttributeValue.fromBs(bytes);
+            }
+            case "L": {
+                List<AttributeValue> list = new ArrayList<>();
+                value.forEach(element -> list.add(readValue(element)));
+                return AttributeValue.fromL(list);
+            }
+            case "M":
+                return AttributeValue.fromM(readMap(value));
+            default:
+                throw new IllegalArgumentException("Unknown attribute type " + typed.getKey());
+        }
+    }
+
+    private static List<String> strings(JsonNode array) {
+        List<String> values = new ArrayList<>();
+        array.forEach(element -> values.add(element.asText()));
+        return values;
+    }
+}
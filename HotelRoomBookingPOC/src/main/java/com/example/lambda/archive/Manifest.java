@@ -0,0 +1,67 @@
+package com.example.lambda.archive;
+
+import com.example.lambda.util.JsonUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/** The archive's table of contents; a segment is listed only once its file is complete and synced. */
+public class Manifest {
+
+    public static final String FILE = "manifest.json";
+    public static final String FORMAT = "dynamodb-json/ndjson+gzip";
+
+    public static class Segment {
+        private String file;
+        private long records;
+        private long bytes;
+        private String sha256;
+
+        public String getFile() { return file; }
+        public void setFile(String file) { this.file = file; }
+        public long getRecords() { return records; }
+        public void setRecords(long records) { this.records = records; }
+        public long getBytes() { return bytes; }
+        public void setBytes(long bytes) { this.bytes = bytes; }
+        public String getSha256() { return sha256; }
+        public void setSha256(String sha256) { this.sha256 = sha256; }
+    }
+
+    private String format = FORMAT;
+    private String table;
+    private List<Segment> segments = new ArrayList<>();
+
+    public String getFormat() { return format; }
+    public void setFormat(String format) { this.format = format; }
+    public String getTable() { return table; }
+    public void setTable(String table) { this.table = table; }
+    public List<Segment> getSegments() { return segments; }
+    public void setSegments(List<Segment> segments) { this.segments = segments; }
+
+    public long records() {
+        return segments.stream().mapToLong(Segment::getRecords).sum();
+    }
+
+    // An empty manifest for the table when the directory has none yet
+    public static Manifest load(Path directory, String table) throws IOException {
+        Path file = directory.resolve(FILE);
+        if (!Files.exists(file)) {
+            Manifest manifest = new Manifest();
+            manifest.setTable(table);
+            return manifest;
+        }
+        Manifest manifest = JsonUtil.mapper().readValue(file.toFile(), Manifest.class);
+        if (!FORMAT.equals(manifest.getFormat()) || !table.equals(manifest.getTable())) {
+            throw new IOException(file + " holds " + manifest.getFormat() + " of " + manifest.getTable() + ", not " + table);
+        }
+        return manifest;
+    }
+
+    // Replaces the file atomically and durably, so a crash leaves either the old manifest or the new one
+    public void save(Path directory) throws IOException {
+        DurableFiles.writeJson(directory, FILE, this);
+    }
+}
@@ -0,0 +1,192 @@
+package com.example.lambda.async;
+
+import com.example.lambda.metrics.DynamoDbTimingInterceptor;
+import com.example.lambda.metrics.RequestTimer;
+import com.example.lambda.resilience.Resilience;
+import com.example.lambda.resilience.ResilientDynamoDbClient;
+import com.example.lambda.util.DynamoDBClientUtil;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Entry point for non-blocking DynamoDB calls. Every call goes through one container-wide
+ * {@link InFlightLimiter} (DYNAMODB_MAX_IN_FLIGHT, default 32), so a request fanning out over many
+ * rooms or bookings cannot exhaust the HTTP connection pool or starve concurrent requests.
+ * {@link #join} is where a request waits for its fan-out, bounded by DYNAMODB_REQUEST_TIMEOUT_MILLIS
+ * (default 10000). Retries follow {@link Resilience}; each attempt queues for the limiter again.
+ * Outside Lambda the calls go out on Netty when the jar bundles it (the -Pserver build); in Lambda, to
+ * keep one HTTP stack per container, they run on virtual threads over the blocking client unless
+ * DYNAMODB_ASYNC_HTTP=netty. With DYNAMODB_ASYNC=false the calls run inline on the blocking client
+ * instead. The calling request's timer travels with each call and is bound again while the returned
+ * future's dependent stages run, so follow-up calls made from those stages are timed against the same
+ * request.
+ */
+public class AsyncDynamo {
+
+    public static final boolean ENABLED = !"false".equalsIgnoreCase(System.getenv("DYNAMODB_ASYNC"));
+    public static final int MAX_IN_FLIGHT = envInt("DYNAMODB_MAX_IN_FLIGHT", 32);
+    public static final long REQUEST_TIMEOUT_MILLIS = envInt("DYNAMODB_REQUEST_TIMEOUT_MILLIS", 10_000);
+
+    private static final int BATCH_GET_LIMIT = 100;
+    private static final int MAX_UNPROCESSED_ROUNDS = 5;
+
+    private static final InFlightLimiter limiter = new InFlightLimiter(MAX_IN_FLIGHT);
+
+    public static CompletableFuture<GetItemResponse> getItem(GetItemRequest request) {
+        RequestTimer timer = RequestTimer.current();
+        GetItemRequest timed = timer == null ? request : request.toBuilder()
+                .overrideConfiguration(DynamoDbTimingInterceptor.withTimer(request.overrideConfiguration(), timer)).build();
+        return RequestTimer.carry(timer,
+                Resilience.callAsync("GetItem", () -> limiter.submit(() -> DynamoDBClientUtil.getAsyncClient().getItem(timed))));
+    }
+
+    public static CompletableFuture<BatchGetItemResponse> batchGetItem(BatchGetItemRequest request) {
+        RequestTimer timer = RequestTimer.current();
+        BatchGetItemRequest timed = timer == null ? request : request.toBuilder()
+                .overrideConfiguration(DynamoDbTimingInterceptor.withTimer(request.overrideConfiguration(), timer)).build();
+        return RequestTimer.carry(timer,
+                Resilience.callAsync("BatchGetItem", () -> limiter.submit(() -> DynamoDBClientUtil.getAsyncClient().batchGetItem(timed))));
+    }
+
+    // All items for the keys of one table: chunks are read concurrently, unprocessed keys re-requested with backoff
+    public static CompletableFuture<List<Map<String, AttributeValue>>> batchGetAll(String table,
+                                                                                 List<Map<String, AttributeValue>> keys) {
+        return batchGetAll(table, keys, List.of());
+    }
+
+    // As above, reading only the named top-level attributes (all of them when the list is empty)
+    public static CompletableFuture<List<Map<String, AttributeValue>>> batchGetAll(String table, List<Map<String, AttributeValue>> keys,
+                                                                                 List<String> attributes) {
+        Map<String, String> names = new LinkedHashMap<>();
+        attributes.forEach(name -> names.put("#p" + names.size(), name));
+        List<CompletableFuture<List<Map<String, AttributeValue>>>> chunks = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += BATCH_GET_LIMIT) {
+            KeysAndAttributes.Builder chunk = KeysAndAttributes.builder()
+                    .keys(keys.subList(from, Math.min(keys.size(), from + BATCH_GET_LIMIT)));
+            if (!names.isEmpty()) {
+                chunk.projectionExpression(String.join(", ", names.keySet())).expressionAttributeNames(names);
+            }
+            chunks.add(batchGet(table, Map.of(table, chunk.build()), 0, new ArrayList<>()));
+        }
+        return all(chunks).thenApply(results -> {
+            List<Map<String, AttributeValue>> items = new ArrayList<>();
+            results.forEach(items::addAll);
+            return items;
+        });
+    }
+
+    public static CompletableFuture<QueryResponse> query(QueryRequest request) {
+        RequestTimer timer = RequestTimer.current();
+        QueryRequest timed = timer == null ? request : request.toBuilder()
+                .overrideConfiguration(DynamoDbTimingInterceptor.withTimer(request.overrideConfiguration(), timer)).build();
+        return RequestTimer.carry(timer,
+                Resilience.callAsync("Query", () -> limiter.submit(() -> DynamoDBClientUtil.getAsyncClient().query(timed))));
+    }
+
+    public static CompletableFuture<TransactWriteItemsResponse> transactWriteItems(TransactWriteItemsRequest request) {
+        RequestTimer timer = RequestTimer.current();
+        TransactWriteItemsRequest idempotent = ResilientDynamoDbClient.withToken(request);
+        TransactWriteItemsRequest timed = timer == null ? idempotent : idempotent.toBuilder()
+                .overrideConfiguration(DynamoDbTimingInterceptor.withTimer(idempotent.overrideConfiguration(), timer)).build();
+        return RequestTimer.carry(timer, Resilience.callAsync("TransactWriteItems",
+                () -> limiter.submit(() -> DynamoDBClientUtil.getAsyncClient().transactWriteItems(timed))));
+    }
+
+    public static int inFlight() {
+        return limiter.inFlight();
+    }
+
+    // Completes after the delay without holding a thread; inline (sleeping) on the blocking path
+    public static CompletableFuture<Void> after(long millis) {
+        if (!ENABLED) {
+            try {
+                Thread.sleep(millis);
+                return CompletableFuture.completedFuture(null);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return CompletableFuture.failedFuture(SdkClientException.create("Interrupted while backing off", e));
+            }
+        }
+        return RequestTimer.carry(RequestTimer.current(),
+                CompletableFuture.runAsync(() -> {}, CompletableFuture.delayedExecutor(millis, TimeUnit.MILLISECONDS)));
+    }
+
+    public static <T> CompletableFuture<List<T>> all(List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).thenApply(done -> {
+            List<T> results = new ArrayList<>(futures.size());
+            futures.forEach(future -> results.add(future.join()));
+            return results;
+        });
+    }
+
+    // Waits within the request timeout and rethrows the call's own exception, as the blocking client would
+    public static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.get(REQUEST_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            throw ApiCallTimeoutException.create(REQUEST_TIMEOUT_MILLIS);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SdkClientException.create("Interrupted while waiting for DynamoDB", e);
+        }
+    }
+
+    private static CompletableFuture<List<Map<String, AttributeValue>>> batchGet(String table, Map<String, KeysAndAttributes> request,
+                                                                               int round, List<Map<String, AttributeValue>> items) {
+        if (round == MAX_UNPROCESSED_ROUNDS) {
+            return CompletableFuture.failedFuture(DynamoDbException.builder()
+                    .message("Batch read of " + table + " left unprocessed keys after retries").build());
+        }
+        return batchGetItem(BatchGetItemRequest.builder().requestItems(request).build())
+                .thenCompose(response -> {
+                    items.addAll(response.responses().getOrDefault(table, List.of()));
+                    if (!response.hasUnprocessedKeys() || response.unprocessedKeys().isEmpty()) {
+                        return CompletableFuture.completedFuture(items);
+                    }
+                    return after(25L << round)
+                            .thenCompose(waited -> batchGet(table, response.unprocessedKeys(), round + 1, items));
+                });
+    }
+
+    // The cause of the given type behind CompletionException wrappers, if that is what failed
+    public static <E extends Throwable> Optional<E> cause(Throwable error, Class<E> type) {
+        Throwable current = error;
+        while (current instanceof CompletionException && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return type.isInstance(current) ? Optional.of(type.cast(current)) : Optional.empty();
+    }
+
+    private static RuntimeException rethrow(Throwable error) {
+        Throwable cause = error;
+        while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        return SdkClientException.create("DynamoDB call failed", cause);
+    }
+
+    private static int envInt(String name, int fallback) {
+        return Optional.ofNullable(System.getenv(name)).map(String::trim).map(Integer::parseInt).orElse(fallback);
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.lambda.async;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * {@link DynamoDbAsyncClient} view of a blocking client, covering the operations the async path
+ * uses. With an inline executor every call completes before it returns, which is the blocking
+ * fallback; with a virtual-thread executor the calls overlap, which is how the in-memory stand-in
+ * exercises the async path.
+ */
+public class BlockingAsyncClient implements DynamoDbAsyncClient {
+
+    private final DynamoDbClient client;
+    private final Executor executor;
+
+    public BlockingAsyncClient(DynamoDbClient client, Executor executor) {
+        this.client = client;
+        this.executor = executor;
+    }
+
+    @Override
+    public CompletableFuture<GetItemResponse> getItem(GetItemRequest request) {
+        return run(() -> client.getItem(request));
+    }
+
+    @Override
+    public CompletableFuture<BatchGetItemResponse> batchGetItem(BatchGetItemRequest request) {
+        return run(() -> client.batchGetItem(request));
+    }
+
+    @Override
+    public CompletableFuture<QueryResponse> query(QueryRequest request) {
+        return run(() -> client.query(request));
+    }
+
+    @Override
+    public CompletableFuture<TransactWriteItemsResponse> transactWriteItems(TransactWriteItemsRequest request) {
+        return run(() -> client.transactWriteItems(request));
+    }
+
+    @Override
+    public CompletableFuture<UpdateItemResponse> updateItem(UpdateItemRequest request) {
+        return run(() -> client.updateItem(request));
+    }
+
+    @Override
+    public CompletableFuture<PutItemResponse> putItem(PutItemRequest request) {
+        return run(() -> client.putItem(request));
+    }
+
+    private <T> CompletableFuture<T> run(Supplier<T> call) {
+        return CompletableFuture.supplyAsync(call, executor);
+    }
+
+    @Override
+    public String serviceName() {
+        return client.serviceName();
+    }
+
+    // The wrapped client is shared and owned by DynamoDBClientUtil
+    @Override
+    public void close() {
+    }
+}
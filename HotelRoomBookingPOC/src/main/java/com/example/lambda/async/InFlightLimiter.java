@@ -0,0 +1,71 @@
+package com.example.lambda.async;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Caps the number of outstanding async calls. Calls over the cap wait in a queue and are started
+ * by whichever call completes next, so no thread ever blocks on a permit; that matters because
+ * completions run on the HTTP client's event-loop threads.
+ */
+class InFlightLimiter {
+
+    private final int limit;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+
+    InFlightLimiter(int limit) {
+        this.limit = Math.max(1, limit);
+    }
+
+    <T> CompletableFuture<T> submit(Supplier<CompletableFuture<T>> call) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        waiting.add(() -> start(call, result));
+        drain();
+        return result;
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private <T> void start(Supplier<CompletableFuture<T>> call, CompletableFuture<T> result) {
+        CompletableFuture<T> started;
+        try {
+            started = call.get();
+        } catch (Throwable t) {
+            started = CompletableFuture.failedFuture(t);
+        }
+        started.whenComplete((value, error) -> {
+            inFlight.decrementAndGet();
+            drain();
+            if (error != null) {
+                result.completeExceptionally(error);
+            } else {
+                result.complete(value);
+            }
+        });
+    }
+
+    // Queued work is added before draining, so a completion that races with a submit always sees it
+    private void drain() {
+        while (!waiting.isEmpty()) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                return;
+            }
+            if (!inFlight.compareAndSet(current, current + 1)) {
+                continue;
+            }
+            Runnable next = waiting.poll();
+            if (next == null) {
+                inFlight.decrementAndGet();
+            } else {
+                next.run();
+            }
+        }
+    }
+}
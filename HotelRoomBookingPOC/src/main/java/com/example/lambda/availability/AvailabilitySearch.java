@@ -0,0 +1,28 @@
+package com.example.lambda.availability;
+
+import com.example.lambda.model.DateRange;
+import com.example.lambda.model.Hotel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+public class AvailabilitySearch {
+
+    public static final int MAX_RANGE_DAYS = 366;
+
+    // A room is free when its occupancy over the stay ANDed with the stay mask is empty
+    public static List<String> freeRooms(Hotel hotel, DateRange stay) {
+        int firstDay = stay.getCheckInDay();
+        int length = stay.nights();
+        OccupancyBitmap mask = OccupancyBitmap.full(firstDay, length);
+
+        List<String> free = new ArrayList<>();
+        for (Map.Entry<String, OccupancyBitmap> room : RoomOccupancy.read(hotel.getRoomIds(), firstDay, length).entrySet()) {
+            if (!room.getValue().intersects(mask)) {
+                free.add(room.getKey());
+            }
+        }
+        return free;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.lambda.availability;
+
+/**
+ * One bit per day over a fixed window of epoch days starting at {@code firstDay}. Bit i is day
+ * {@code firstDay + i}; days outside the window are ignored.
+ */
+public class OccupancyBitmap {
+
+    private final int firstDay;
+    private final int length;
+    private final long[] words;
+
+    public OccupancyBitmap(int firstDay, int length) {
+        this.firstDay = firstDay;
+        this.length = length;
+        this.words = new long[(length + 63) >>> 6];
+    }
+
+    // All days of the window set, for use as an AND mask over the requested stay
+    public static OccupancyBitmap full(int firstDay, int length) {
+        OccupancyBitmap bitmap = new OccupancyBitmap(firstDay, length);
+        for (int i = 0; i < bitmap.words.length; i++) {
+            bitmap.words[i] = -1L;
+        }
+        int tail = length & 63;
+        if (tail != 0) {
+            bitmap.words[bitmap.words.length - 1] = (1L << tail) - 1;
+        }
+        return bitmap;
+    }
+
+    public void set(int epochDay) {
+        int offset = epochDay - firstDay;
+        if (offset >= 0 && offset < length) {
+            words[offset >>> 6] |= 1L << (offset & 63);
+        }
+    }
+
+    public boolean get(int epochDay) {
+        int offset = epochDay - firstDay;
+        return offset >= 0 && offset < length && (words[offset >>> 6] & (1L << (offset & 63))) != 0;
+    }
+
+    // Both bitmaps must cover the same window
+    public boolean intersects(OccupancyBitmap other) {
+        if (other.firstDay != firstDay || other.length != length) {
+            throw new IllegalArgumentException("Bitmaps cover different windows");
+        }
+        for (int i = 0; i < words.length; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public int cardinality() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    public int getFirstDay() { return firstDay; }
+    public int getLength() { return length; }
+}
@@ -0,0 +1,112 @@
+package com.example.lambda.availability;
+
+import com.example.lambda.async.AsyncDynamo;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Per-room, per-month occupancy items in the RoomOccupancy table (key roomId + month "yyyy-MM").
+ * Each night is a counter attribute "n" + epoch day of the live bookings holding it, kept by
+ * {@link com.example.lambda.projection.ViewProjector} from the Bookings stream rather than inside
+ * the booking transactions, so bookings of different nights never contend on a month item. Counters
+ * only ever move by ADD, which commutes, and a month item reads straight into an
+ * {@link OccupancyBitmap}. Occupancy trails the table by the stream delay: a room shown free may
+ * still be refused by its room-night locks, which remain the only guard against double booking.
+ * Items written before the counters existed carry "d" + epoch day flags, which are ignored;
+ * {@link com.example.lambda.projection.ProjectionBackfill} rebuilds the counters for those bookings.
+ */
+public class RoomOccupancy {
+
+    public static final String TABLE = "RoomOccupancy";
+
+    // One ADD per month item with the net change of each night; nights whose change is zero are left out
+    public static List<TransactWriteItem> writes(String roomId, Map<Integer, Integer> delta) {
+        Map<YearMonth, Map<Integer, Integer>> byMonth = new TreeMap<>();
+        delta.forEach((night, change) -> {
+            if (change != 0) {
+                byMonth.computeIfAbsent(month(night), m -> new TreeMap<>()).put(night, change);
+            }
+        });
+
+        List<TransactWriteItem> writes = new ArrayList<>();
+        byMonth.forEach((month, nights) -> {
+            List<String> adds = new ArrayList<>();
+            Map<String, String> names = new HashMap<>();
+            Map<String, AttributeValue> values = new HashMap<>();
+            nights.forEach((night, change) -> {
+                names.put("#n" + night, nightAttribute(night));
+                values.put(":n" + night, AttributeValue.fromN(Integer.toString(change)));
+                adds.add("#n" + night + " :n" + night);
+            });
+            writes.add(TransactWriteItem.builder()
+                    .update(Update.builder()
+                            .tableName(TABLE)
+                            .key(key(roomId, month))
+                            .updateExpression("ADD " + String.join(", ", adds))
+                            .expressionAttributeNames(names)
+                            .expressionAttributeValues(values)
+                            .build())
+                    .build());
+        });
+        return writes;
+    }
+
+    // Identifies the month item a night is counted in, for callers that order writes by item
+    public static String itemId(String roomId, int epochDay) {
+        return roomId + "#" + month(epochDay);
+    }
+
+    // Occupancy of each room over [firstDay, firstDay + length); the BatchGetItem chunks are issued concurrently
+    public static Map<String, OccupancyBitmap> read(List<String> roomIds, int firstDay, int length) {
+        Map<String, OccupancyBitmap> bitmaps = new LinkedHashMap<>();
+        roomIds.forEach(roomId -> bitmaps.put(roomId, new OccupancyBitmap(firstDay, length)));
+
+        TreeSet<YearMonth> months = new TreeSet<>();
+        for (int day = firstDay; day < firstDay + length; day++) {
+            months.add(month(day));
+        }
+        List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        for (String roomId : roomIds) {
+            for (YearMonth month : months) {
+                keys.add(key(roomId, month));
+            }
+        }
+
+        for (Map<String, AttributeValue> item : AsyncDynamo.join(AsyncDynamo.batchGetAll(TABLE, keys))) {
+            apply(bitmaps.get(item.get("roomId").s()), item);
+        }
+        return bitmaps;
+    }
+
+    static void apply(OccupancyBitmap bitmap, Map<String, AttributeValue> monthItem) {
+        if (bitmap == null) {
+            return;
+        }
+        monthItem.forEach((name, value) -> {
+            if (name.length() > 1 && name.charAt(0) == 'n' && value.n() != null && Integer.parseInt(value.n()) > 0) {
+                bitmap.set(Integer.parseInt(name.substring(1)));
+            }
+        });
+    }
+
+    public static String nightAttribute(int epochDay) {
+        return "n" + epochDay;
+    }
+
+    private static YearMonth month(int epochDay) {
+        return YearMonth.from(LocalDate.ofEpochDay(epochDay));
+    }
+
+    private static Map<String, AttributeValue> key(String roomId, YearMonth month) {
+        return Map.of("roomId", AttributeValue.fromS(roomId), "month", AttributeValue.fromS(month.toString()));
+    }
+}
@@ -0,0 +1,229 @@
+package com.example.lambda.bulk;
+
+import com.example.lambda.archive.ArchiveWriter;
+import com.example.lambda.archive.Manifest;
+import com.example.lambda.logging.Log;
+import com.example.lambda.resilience.Backoff;
+import com.example.lambda.resilience.ErrorClass;
+import com.example.lambda.resilience.ErrorClassifier;
+import com.example.lambda.resilience.ThroughputLimiter;
+import com.example.lambda.util.DynamoDBClientUtil;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Exports a table to a gzip NDJSON archive with a parallel Scan: the table is split into
+ * BULK_SEGMENTS (default 8) scan segments, read by up to BULK_WORKERS threads, each streaming
+ * its pages into archive files of at most BULK_FILE_RECORDS items, so memory holds one page per
+ * worker however large the table. Reads are paced to BULK_READ_UNITS_PER_SECOND (default 200)
+ * across all workers, measured by the capacity each Scan reports. Each segment's position is
+ * checkpointed with the files it completed and a stopped export resumes from there; a file finished
+ * just before the stop but not yet checkpointed is discarded on resume and its items exported again.
+ * A Scan is not a snapshot: items written during the export may or may not be in it.
+ *
+ * <pre>java -cp target/room-booking-lambda-1.0.jar com.example.lambda.bulk.BulkExport [archiveDir] [table]</pre>
+ */
+public class BulkExport {
+
+    private static final int MAX_SCAN_ROUNDS = 8;
+
+    private static final Backoff backoff = new Backoff(25, 100, 5000);
+
+    private final Path directory;
+    private final String table;
+    private int totalSegments = envInt("BULK_SEGMENTS", 8);
+    private int workers = envInt("BULK_WORKERS", 8);
+    private int pageSize = envInt("BULK_PAGE_SIZE", 1000);
+    private int fileRecords = envInt("BULK_FILE_RECORDS", 100_000);
+    private double maxReadUnitsPerSecond = envInt("BULK_READ_UNITS_PER_SECOND", 200);
+
+    public BulkExport(Path directory, String table) {
+        this.directory = directory;
+        this.table = table;
+    }
+
+    public BulkExport totalSegments(int totalSegments) {
+        this.totalSegments = totalSegments;
+        return this;
+    }
+
+    public BulkExport workers(int workers) {
+        this.workers = workers;
+        return this;
+    }
+
+    public BulkExport pageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    public BulkExport fileRecords(int fileRecords) {
+        this.fileRecords = fileRecords;
+        return this;
+    }
+
+    public BulkExport maxReadUnitsPerSecond(double maxReadUnitsPerSecond) {
+        this.maxReadUnitsPerSecond = maxReadUnitsPerSecond;
+        return this;
+    }
+
+    // Continues an unfinished export in the directory or starts one; returns once every segment is read
+    public ExportCheckpoint run() throws IOException {
+        Files.createDirectories(directory);
+        Optional<ExportCheckpoint> saved = ExportCheckpoint.load(directory);
+        ExportCheckpoint checkpoint;
+        if (saved.isPresent()) {
+            checkpoint = saved.get();
+            if (!checkpoint.getTable().equals(table)) {
+                throw new IOException(directory + " holds an export of " + checkpoint.getTable() + ", not " + table);
+            }
+            discardUncheckpointed(checkpoint);
+        } else {
+            // Every file in the manifest must be one the checkpoint accounts for, so the checkpoint comes first
+            if (!Manifest.load(directory, table).getSegments().isEmpty()) {
+                throw new IOException(directory + " already holds an archive of " + table);
+            }
+            checkpoint = ExportCheckpoint.start(table, totalSegments);
+            checkpoint.save(directory);
+        }
+        ThroughputLimiter limiter = new ThroughputLimiter(maxReadUnitsPerSecond);
+        try (ArchiveWriter archive = new ArchiveWriter(directory, table)) {
+            List<Workers.Task> tasks = new ArrayList<>();
+            for (ExportCheckpoint.Position position : checkpoint.getPositions()) {
+                if (!position.isComplete()) {
+                    tasks.add(() -> exportSegment(archive, checkpoint, position, limiter));
+                }
+            }
+            // The first failure stops the rest; their positions stay at their last completed file
+            Workers.runAll(workers, tasks);
+        }
+        return checkpoint;
+    }
+
+    // Files listed in the manifest by a stopped run after the last checkpoint of their position would be exported twice
+    private void discardUncheckpointed(ExportCheckpoint checkpoint) throws IOException {
+        Manifest manifest = Manifest.load(directory, table);
+        Set<String> checkpointed = checkpoint.files();
+        List<Manifest.Segment> orphans = manifest.getSegments().stream()
+                .filter(segment -> !checkpointed.contains(segment.getFile()))
+                .collect(Collectors.toList());
+        if (orphans.isEmpty()) {
+            return;
+        }
+        manifest.getSegments().removeAll(orphans);
+        manifest.save(directory);
+        for (Manifest.Segment orphan : orphans) {
+            Files.deleteIfExists(directory.resolve(orphan.getFile()));
+            Log.info("export.discarded", "file", orphan.getFile(), "records", orphan.getRecords());
+        }
+    }
+
+    private void exportSegment(ArchiveWriter archive, ExportCheckpoint checkpoint, ExportCheckpoint.Position position,
+                               ThroughputLimiter limiter) throws IOException {
+        Map<String, AttributeValue> startKey = position.startKey();
+        ArchiveWriter.SegmentWriter out = null;
+        try {
+            do {
+                Workers.checkInterrupted();
+                ScanResponse page = scan(ScanRequest.builder()
+                        .tableName(table)
+                        .segment(position.getSegment())
+                        .totalSegments(checkpoint.getTotalSegments())
+                        .limit(pageSize)
+                        .exclusiveStartKey(startKey)
+                        .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                        .build(), limiter);
+                for (Map<String, AttributeValue> item : page.items()) {
+                    if (out == null) {
+                        out = archive.newSegment();
+                    }
+                    out.append(item);
+                }
+                startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+
+                if (out != null && (out.records() >= fileRecords || startKey == null)) {
+                    Manifest.Segment file = out.finish();
+                    out = null;
+                    checkpoint.advance(position, startKey, file);
+                    checkpoint.save(directory);
+                    Log.info("export.file", "file", file.getFile(), "records", file.getRecords(),
+                            "readUnitsPerSecond", (long) limiter.rate());
+                } else if (out == null) {
+                    // Nothing pending means nothing to lose, so the position can be saved after every such page
+                    checkpoint.advance(position, startKey, null);
+                    checkpoint.save(directory);
+                }
+            } while (startKey != null);
+        } finally {
+            if (out != null) {
+                out.close();
+            }
+        }
+    }
+
+    // One page for a background scan, paced by the limiter. Errors that outlast the client's retries are
+    // retried here rather than failing the run; throttles and timeouts also slow down every worker sharing the limiter
+    public static ScanResponse scan(ScanRequest request, ThroughputLimiter limiter) throws InterruptedIOException {
+        for (int round = 0; ; round++) {
+            try {
+                ScanResponse page = DynamoDBClientUtil.getClient().scan(request);
+                limiter.acquire(readUnits(page));
+                return page;
+            } catch (RuntimeException e) {
+                ErrorClass cause = ErrorClassifier.classify(e);
+                if (cause == ErrorClass.TERMINAL || round + 1 == MAX_SCAN_ROUNDS) {
+                    throw e;
+                }
+                if (cause == ErrorClass.THROTTLED || cause == ErrorClass.TIMEOUT) {
+                    limiter.onThrottled();
+                }
+                try {
+                    Thread.sleep(backoff.delayMillis(round, cause));
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Interrupted while backing off");
+                }
+            }
+        }
+    }
+
+    // Half a unit per item when the capacity is not reported: an eventually consistent read of up to 4 KB
+    private static double readUnits(ScanResponse page) {
+        return page.consumedCapacity() != null && page.consumedCapacity().capacityUnits() != null
+                ? page.consumedCapacity().capacityUnits()
+                : page.scannedCount() * 0.5;
+    }
+
+    public static void main(String[] args) {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "export");
+        String table = args.length > 1 ? args[1] : "Bookings";
+        long began = System.nanoTime();
+        try {
+            ExportCheckpoint checkpoint = new BulkExport(directory, table).run();
+            Log.info("export.done", "table", table, "items", checkpoint.items(),
+                    "elapsedMs", (System.nanoTime() - began) / 1_000_000);
+        } catch (Exception e) {
+            // Each segment's position still marks its last completed file; running again resumes from there
+            Log.error("export.failed", "directory", directory, "error", e.toString());
+            System.exit(1);
+        }
+    }
+
+    private static int envInt(String name, int fallback) {
+        return Optional.ofNullable(System.getenv(name)).map(String::trim).map(Integer::parseInt).orElse(fallback);
+    }
+}
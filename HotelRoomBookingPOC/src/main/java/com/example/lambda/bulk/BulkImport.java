@@ -0,0 +1,149 @@
+package com.example.lambda.bulk;
+
+import com.example.lambda.archive.ArchiveReader;
+import com.example.lambda.archive.Manifest;
+import com.example.lambda.logging.Log;
+import com.example.lambda.resilience.ThroughputLimiter;
+import com.example.lambda.util.BatchWrites;
+import com.example.lambda.util.DynamoDBClientUtil;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.DescribeTableRequest;
+import software.amazon.awssdk.services.dynamodb.model.KeySchemaElement;
+import software.amazon.awssdk.services.dynamodb.model.PutRequest;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Loads an archive written by {@link BulkExport} (or by compaction) into a table, the same one or
+ * another with the same key for migrations. Archive files are read by BULK_WORKERS threads (default
+ * 8), streamed item by item into BatchWriteItem calls of 25 puts, and the writes of all workers
+ * are paced to BULK_WRITE_UNITS_PER_SECOND (default 100), one unit per item; throttles slow the
+ * pace down and it recovers gradually. Files are checkpointed as they complete, so a stopped import
+ * resumes with the files it had not finished. Puts overwrite, so items imported twice, or exported
+ * twice, end up written once.
+ *
+ * <pre>java -cp target/room-booking-lambda-1.0.jar com.example.lambda.bulk.BulkImport [archiveDir] [table] [targetTable]</pre>
+ */
+public class BulkImport {
+
+    private final Path directory;
+    private final String table;
+    private String target;
+    private int workers = envInt("BULK_WORKERS", 8);
+    private double maxWriteUnitsPerSecond = envInt("BULK_WRITE_UNITS_PER_SECOND", 100);
+
+    public BulkImport(Path directory, String table) {
+        this.directory = directory;
+        this.table = table;
+        this.target = table;
+    }
+
+    public BulkImport into(String target) {
+        this.target = target;
+        return this;
+    }
+
+    public BulkImport workers(int workers) {
+        this.workers = workers;
+        return this;
+    }
+
+    public BulkImport maxWriteUnitsPerSecond(double maxWriteUnitsPerSecond) {
+        this.maxWriteUnitsPerSecond = maxWriteUnitsPerSecond;
+        return this;
+    }
+
+    // Continues an unfinished import into the target or starts one; returns once every listed file is written
+    public ImportCheckpoint run() throws IOException {
+        if (!Files.exists(directory.resolve(Manifest.FILE))) {
+            throw new IOException("No " + Manifest.FILE + " in " + directory);
+        }
+        Manifest manifest = Manifest.load(directory, table);
+        ImportCheckpoint checkpoint = ImportCheckpoint.load(directory, target).orElseGet(() -> ImportCheckpoint.start(target));
+        List<String> keyNames = keyNames();
+        ThroughputLimiter limiter = new ThroughputLimiter(maxWriteUnitsPerSecond);
+        List<Workers.Task> tasks = new ArrayList<>();
+        for (Manifest.Segment segment : manifest.getSegments()) {
+            if (!checkpoint.done(segment.getFile())) {
+                tasks.add(() -> importFile(segment, keyNames, checkpoint, limiter));
+            }
+        }
+        Workers.runAll(workers, tasks);
+        return checkpoint;
+    }
+
+    private void importFile(Manifest.Segment segment, List<String> keyNames, ImportCheckpoint checkpoint,
+                            ThroughputLimiter limiter) throws IOException {
+        // A batch may not name one key twice; a later record of the same item replaces the earlier one
+        Map<Map<String, AttributeValue>, WriteRequest> batch = new LinkedHashMap<>();
+        try {
+            ArchiveReader.readSegment(directory, segment, item -> {
+                Map<String, AttributeValue> key = new HashMap<>();
+                keyNames.forEach(name -> key.put(name, item.get(name)));
+                batch.put(key, WriteRequest.builder().putRequest(PutRequest.builder().item(item).build()).build());
+                if (batch.size() == BatchWrites.LIMIT) {
+                    flush(batch, limiter);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        flush(batch, limiter);
+        checkpoint.complete(segment.getFile(), segment.getRecords());
+        checkpoint.save(directory);
+        Log.info("import.file", "file", segment.getFile(), "records", segment.getRecords(),
+                "writeUnitsPerSecond", (long) limiter.rate());
+    }
+
+    private void flush(Map<Map<String, AttributeValue>, WriteRequest> batch, ThroughputLimiter limiter) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            Workers.checkInterrupted();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        BatchWrites.write(target, new ArrayList<>(batch.values()), limiter);
+        batch.clear();
+    }
+
+    private List<String> keyNames() {
+        return DynamoDBClientUtil.getClient().describeTable(DescribeTableRequest.builder().tableName(target).build())
+                .table().keySchema().stream()
+                .map(KeySchemaElement::attributeName)
+                .collect(Collectors.toList());
+    }
+
+    public static void main(String[] args) {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "export");
+        String table = args.length > 1 ? args[1] : "Bookings";
+        String target = args.length > 2 ? args[2] : table;
+        long began = System.nanoTime();
+        try {
+            ImportCheckpoint checkpoint = new BulkImport(directory, table).into(target).run();
+            Log.info("import.done", "table", target, "items", checkpoint.getItems(),
+                    "elapsedMs", (System.nanoTime() - began) / 1_000_000);
+        } catch (Exception e) {
+            // Completed files are listed in the checkpoint; running again skips them
+            Log.error("import.failed", "directory", directory, "error", e.toString());
+            System.exit(1);
+        }
+    }
+
+    private static int envInt(String name, int fallback) {
+        return Optional.ofNullable(System.getenv(name)).map(String::trim).map(Integer::parseInt).orElse(fallback);
+    }
+}
@@ -0,0 +1,107 @@
+package com.example.lambda.bulk;
+
+import com.example.lambda.archive.DurableFiles;
+import com.example.lambda.archive.Manifest;
+import com.example.lambda.util.JsonUtil;
+import com.example.lambda.util.Pagination;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/** Where each parallel scan segment of an export stands, as of the last archive file it completed. */
+public class ExportCheckpoint {
+
+    public static final String FILE = "export-checkpoint.json";
+
+    public static class Position {
+        private int segment;
+        private String nextToken;
+        private long items;
+        private boolean complete;
+        private List<String> files = new ArrayList<>();
+
+        public int getSegment() { return segment; }
+        public void setSegment(int segment) { this.segment = segment; }
+        public String getNextToken() { return nextToken; }
+        public void setNextToken(String nextToken) { this.nextToken = nextToken; }
+        public long getItems() { return items; }
+        public void setItems(long items) { this.items = items; }
+        public boolean isComplete() { return complete; }
+        public void setComplete(boolean complete) { this.complete = complete; }
+        public List<String> getFiles() { return files; }
+        public void setFiles(List<String> files) { this.files = files; }
+
+        @JsonIgnore
+        Map<String, AttributeValue> startKey() {
+            return nextToken == null ? null : Pagination.decodeToken(nextToken)
+                    .orElseThrow(() -> new IllegalStateException("Unreadable scan position in " + FILE));
+        }
+    }
+
+    private String table;
+    private int totalSegments;
+    private List<Position> positions = new ArrayList<>();
+
+    public String getTable() { return table; }
+    public void setTable(String table) { this.table = table; }
+    public int getTotalSegments() { return totalSegments; }
+    public void setTotalSegments(int totalSegments) { this.totalSegments = totalSegments; }
+    public List<Position> getPositions() { return positions; }
+    public void setPositions(List<Position> positions) { this.positions = positions; }
+
+    @JsonIgnore
+    public synchronized boolean isComplete() {
+        return positions.stream().allMatch(Position::isComplete);
+    }
+
+    public synchronized long items() {
+        return positions.stream().mapToLong(Position::getItems).sum();
+    }
+
+    static ExportCheckpoint start(String table, int totalSegments) {
+        ExportCheckpoint checkpoint = new ExportCheckpoint();
+        checkpoint.setTable(table);
+        checkpoint.setTotalSegments(totalSegments);
+        for (int segment = 0; segment < totalSegments; segment++) {
+            Position position = new Position();
+            position.setSegment(segment);
+            checkpoint.positions.add(position);
+        }
+        return checkpoint;
+    }
+
+    // Archive files the checkpointed positions account for
+    synchronized Set<String> files() {
+        return positions.stream().flatMap(position -> position.getFiles().stream()).collect(Collectors.toSet());
+    }
+
+    // Moves the position past a completed file, or past a page that left nothing pending when file is null
+    synchronized void advance(Position position, Map<String, AttributeValue> lastEvaluatedKey, Manifest.Segment file) {
+        position.setNextToken(Pagination.encodeToken(lastEvaluatedKey).orElse(null));
+        position.setComplete(position.getNextToken() == null);
+        if (file != null) {
+            position.setItems(position.getItems() + file.getRecords());
+            position.getFiles().add(file.getFile());
+        }
+    }
+
+    static Optional<ExportCheckpoint> load(Path directory) throws IOException {
+        Path file = directory.resolve(FILE);
+        return Files.exists(file)
+                ? Optional.of(JsonUtil.mapper().readValue(file.toFile(), ExportCheckpoint.class))
+                : Optional.empty();
+    }
+
+    synchronized void save(Path directory) throws IOException {
+        DurableFiles.writeJson(directory, FILE, this);
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.lambda.bulk;
+
+import com.example.lambda.archive.DurableFiles;
+import com.example.lambda.util.JsonUtil;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/** Archive files already written to one target table, so an interrupted import skips them when resumed. */
+public class ImportCheckpoint {
+
+    private String table;
+    private List<String> files = new ArrayList<>();
+    private long items;
+
+    public String getTable() { return table; }
+    public void setTable(String table) { this.table = table; }
+    public List<String> getFiles() { return files; }
+    public void setFiles(List<String> files) { this.files = files; }
+    public long getItems() { return items; }
+    public void setItems(long items) { this.items = items; }
+
+    static String file(String table) {
+        return "import-" + table.toLowerCase(Locale.ROOT) + "-checkpoint.json";
+    }
+
+    static ImportCheckpoint start(String table) {
+        ImportCheckpoint checkpoint = new ImportCheckpoint();
+        checkpoint.setTable(table);
+        return checkpoint;
+    }
+
+    synchronized boolean done(String file) {
+        return files.contains(file);
+    }
+
+    synchronized void complete(String file, long records) {
+        files.add(file);
+        items += records;
+    }
+
+    static Optional<ImportCheckpoint> load(Path directory, String table) throws IOException {
+        Path file = directory.resolve(file(table));
+        return Files.exists(file)
+                ? Optional.of(JsonUtil.mapper().readValue(file.toFile(), ImportCheckpoint.class))
+                : Optional.empty();
+    }
+
+    synchronized void save(Path directory) throws IOException {
+        DurableFiles.writeJson(directory, file(table), this);
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.lambda.bulk;
+
+import com.example.lambda.logging.Log;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs bulk tasks on a fixed pool and fails fast: the first failure interrupts the others and waits
+ * for them to stop, so they have discarded their open files before a rerun reuses the directory.
+ */
+public class Workers {
+
+    public interface Task {
+        void run() throws IOException;
+    }
+
+    public static void runAll(int threads, List<Task> tasks) throws IOException {
+        if (tasks.isEmpty()) {
+            return;
+        }
+        ExecutorService pool = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, tasks.size())));
+        try {
+            CompletionService<Void> running = new ExecutorCompletionService<>(pool);
+            for (Task task : tasks) {
+                running.submit(() -> {
+                    task.run();
+                    return null;
+                });
+            }
+            for (int i = 0; i < tasks.size(); i++) {
+                running.take().get();
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for workers");
+        } finally {
+            pool.shutdownNow();
+            awaitStopped(pool);
+        }
+    }
+
+    // Waits with the caller's interrupt cleared, or an interrupted caller would return while workers still write
+    private static void awaitStopped(ExecutorService pool) {
+        boolean interrupted = Thread.interrupted();
+        while (true) {
+            try {
+                if (pool.awaitTermination(1, TimeUnit.MINUTES)) {
+                    break;
+                }
+                Log.warn("bulk.workers.stopping", "pool", pool.toString());
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public static void checkInterrupted() throws InterruptedIOException {
+        if (Thread.interrupted()) {
+            throw new InterruptedIOException("Stopped after another worker failed");
+        }
+    }
+}
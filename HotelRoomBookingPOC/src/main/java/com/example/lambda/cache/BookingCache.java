@@ -0,0 +1,119 @@
+package com.example.lambda.cache;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.lambda.async.AsyncDynamo;
+import com.example.lambda.util.BookingQuery;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Warm-container caches for booking items by id and for room/user search pages.
+ * BOOKING_CACHE_TTL_MILLIS is the stale-read tolerance (default 0, caching off) and
+ * BOOKING_CACHE_MAX_ENTRIES bounds each cache (default 1000). Writes made through this
+ * container invalidate what they touch; writes from other containers show up once entries expire.
+ * Identical room/user searches that overlap in time share one query and one serialized response
+ * ({@link SingleFlight}) unless SEARCH_COALESCING=false; this holds nothing once the query returns,
+ * so it is on even when caching is off. A caller waits for the shared search no longer than
+ * DYNAMODB_REQUEST_TIMEOUT_MILLIS before running its own.
+ */
+public class BookingCache {
+
+    private static final long TTL_NANOS = TimeUnit.MILLISECONDS.toNanos(envLong("BOOKING_CACHE_TTL_MILLIS", 0));
+    private static final int MAX_ENTRIES = (int) envLong("BOOKING_CACHE_MAX_ENTRIES", 1000);
+
+    private static final BoundedCache<String, Map<String, AttributeValue>> bookings = new BoundedCache<>(MAX_ENTRIES, TTL_NANOS);
+    private static final BoundedCache<PageKey, QueryResponse> pages = new BoundedCache<>(MAX_ENTRIES, TTL_NANOS);
+
+    private static final boolean COALESCE = !"false".equalsIgnoreCase(System.getenv("SEARCH_COALESCING"));
+    private static final SingleFlight<PageKey, APIGatewayProxyResponseEvent> searches = new SingleFlight<>(
+            key -> (key.index.equals(BookingQuery.ROOM_INDEX) ? "room#" : "user#") + key.keyValue, MAX_ENTRIES,
+            AsyncDynamo.REQUEST_TIMEOUT_MILLIS);
+
+    public static Optional<Map<String, AttributeValue>> booking(String bookingId,
+                                                                Function<String, Map<String, AttributeValue>> loader) {
+        return Optional.ofNullable(bookings.get(bookingId, loader));
+    }
+
+    // Cache hit only; async reads fill the cache lazily through the blocking path instead of storing here
+    public static Optional<Map<String, AttributeValue>> cachedBooking(String bookingId) {
+        return bookings.getIfPresent(bookingId);
+    }
+
+    public static QueryResponse page(String index, String keyValue, int limit, Map<String, AttributeValue> startKey,
+                                     Supplier<QueryResponse> loader) {
+        return pages.get(new PageKey(index, keyValue, limit, startKey), key -> loader.get());
+    }
+
+    // The response of an identical search already in flight, or of this one; responses are shared, never modified
+    public static APIGatewayProxyResponseEvent search(String index, String keyValue, int limit, Map<String, AttributeValue> startKey,
+                                                      Supplier<APIGatewayProxyResponseEvent> search) {
+        return COALESCE ? searches.run(new PageKey(index, keyValue, limit, startKey), search) : search.get();
+    }
+
+    // After any write attempt on a booking: drop the item and the room and user pages that may list it
+    public static void invalidate(String bookingId, String roomId, String userId) {
+        if (bookingId != null) {
+            bookings.invalidate(bookingId);
+        }
+        Predicate<PageKey> touched = key -> (key.index.equals(BookingQuery.ROOM_INDEX) && key.keyValue.equals(roomId))
+                || (key.index.equals(BookingQuery.USER_INDEX) && key.keyValue.equals(userId));
+        pages.invalidateIf(touched);
+        searches.forget(touched);
+    }
+
+    public static Map<String, BoundedCache.Stats> stats() {
+        Map<String, BoundedCache.Stats> stats = new LinkedHashMap<>();
+        stats.put("bookings", bookings.stats());
+        stats.put("pages", pages.stats());
+        return stats;
+    }
+
+    public static SingleFlight.Stats searchStats(int topKeys) {
+        return searches.stats(topKeys);
+    }
+
+    public static void clear() {
+        bookings.clear();
+        pages.clear();
+    }
+
+    private static long envLong(String name, long fallback) {
+        return Optional.ofNullable(System.getenv(name)).map(Long::parseLong).orElse(fallback);
+    }
+
+    private static final class PageKey {
+        final String index;
+        final String keyValue;
+        final int limit;
+        final Map<String, AttributeValue> startKey;
+
+        PageKey(String index, String keyValue, int limit, Map<String, AttributeValue> startKey) {
+            this.index = index;
+            this.keyValue = keyValue;
+            this.limit = limit;
+            this.startKey = startKey;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof PageKey)) return false;
+            PageKey other = (PageKey) o;
+            return limit == other.limit && index.equals(other.index) && keyValue.equals(other.keyValue)
+                    && Objects.equals(startKey, other.startKey);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(index, keyValue, limit, startKey);
+        }
+    }
+}
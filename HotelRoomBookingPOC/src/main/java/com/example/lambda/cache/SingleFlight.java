@@ -0,0 +1,153 @@
+package com.example.lambda.cache;
+
+import com.example.lambda.logging.Log;
+
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Collapses concurrent calls for the same key into one: the first caller runs the loader and
+ * callers arriving while it is in flight wait for and share its result, or its exception. A caller
+ * waits at most {@code maxWaitMillis} and then runs the loader itself, so a stuck leader cannot hold
+ * its followers past their own deadline. Nothing is kept once the call completes, so this never
+ * serves a result that finished before the caller arrived. Collapsed calls are counted per key (labelled by {@code label}, for up to
+ * {@code maxTrackedKeys} keys), and a key is logged each time its count reaches another power of ten
+ * from 100 on.
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> collapsedByKey = new ConcurrentHashMap<>();
+    private final Function<? super K, String> label;
+    private final int maxTrackedKeys;
+    private final long maxWaitMillis;
+
+    private final LongAdder leaders = new LongAdder();
+    private final LongAdder followers = new LongAdder();
+    private final LongAdder waitTimeouts = new LongAdder();
+
+    public SingleFlight(Function<? super K, String> label, int maxTrackedKeys, long maxWaitMillis) {
+        this.label = label;
+        this.maxTrackedKeys = maxTrackedKeys;
+        this.maxWaitMillis = maxWaitMillis;
+    }
+
+    public V run(K key, Supplier<? extends V> loader) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            followers.increment();
+            collapsed(key);
+            try {
+                return existing.get(maxWaitMillis, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+                if (e.getCause() instanceof Error) throw (Error) e.getCause();
+                throw new CompletionException(e.getCause());
+            } catch (TimeoutException e) {
+                // The leader outlasted this caller's own deadline; its call is left running, not cancelled
+                waitTimeouts.increment();
+                Log.warn("coalesce.wait_timeout", "key", label.apply(key), "waitedMs", maxWaitMillis);
+                return loader.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return loader.get();
+            }
+        }
+        leaders.increment();
+        try {
+            V value = loader.get();
+            flight.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    // Later callers start a fresh call instead of joining one that may predate a write; current waiters are unaffected
+    public void forget(Predicate<? super K> matching) {
+        inFlight.keySet().removeIf(matching);
+    }
+
+    private void collapsed(K key) {
+        String name = label.apply(key);
+        AtomicLong count = collapsedByKey.get(name);
+        if (count == null) {
+            if (collapsedByKey.size() >= maxTrackedKeys) {
+                return;
+            }
+            count = collapsedByKey.computeIfAbsent(name, n -> new AtomicLong());
+        }
+        long total = count.incrementAndGet();
+        if (total >= 100 && isPowerOfTen(total)) {
+            Log.info("coalesce.hot", "key", name, "collapsed", total);
+        }
+    }
+
+    private static boolean isPowerOfTen(long n) {
+        while (n % 10 == 0) {
+            n /= 10;
+        }
+        return n == 1;
+    }
+
+    public Stats stats(int topKeys) {
+        Map<String, Long> hottest = new LinkedHashMap<>();
+        collapsedByKey.entrySet().stream()
+                .map(entry -> Map.entry(entry.getKey(), entry.getValue().get()))
+                .sorted(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()))
+                .limit(topKeys)
+                .forEach(entry -> hottest.put(entry.getKey(), entry.getValue()));
+        return new Stats(leaders.sum(), followers.sum(), waitTimeouts.sum(), inFlight.size(), hottest);
+    }
+
+    public static final class Stats {
+        private final long leaders;
+        private final long followers;
+        private final long waitTimeouts;
+        private final int inFlight;
+        private final Map<String, Long> collapsedByKey;
+
+        Stats(long leaders, long followers, long waitTimeouts, int inFlight, Map<String, Long> collapsedByKey) {
+            this.leaders = leaders;
+            this.followers = followers;
+            this.waitTimeouts = waitTimeouts;
+            this.inFlight = inFlight;
+            this.collapsedByKey = collapsedByKey;
+        }
+
+        public long getLeaders() { return leaders; }
+        public long getFollowers() { return followers; }
+        // Followers that gave up on the leader and ran the call themselves
+        public long getWaitTimeouts() { return waitTimeouts; }
+        public int getInFlight() { return inFlight; }
+        public Map<String, Long> getCollapsedByKey() { return collapsedByKey; }
+
+        // Share of calls that were served by another caller's call
+        public double collapseRatio() {
+            long calls = leaders + followers;
+            return calls == 0 ? 0 : (double) followers / calls;
+        }
+
+        @Override
+        public String toString() {
+            return "leaders=" + leaders + " followers=" + followers + " waitTimeouts=" + waitTimeouts + " inFlight=" + inFlight
+                    + " collapsedByKey=" + collapsedByKey;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.lambda.compaction;
+
+import com.example.lambda.archive.DurableFiles;
+import com.example.lambda.util.JsonUtil;
+import com.example.lambda.util.Pagination;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.Optional;
+
+/** Where a compaction run stands: its cutoff, the scan position after the last completed segment, and totals. */
+public class Checkpoint {
+
+    public static final String FILE = "compaction-checkpoint.json";
+
+    private long cutoffMillis;
+    private String nextToken;
+    private long scanned;
+    private long archived;
+    private long deleted;
+    private boolean complete;
+
+    public long getCutoffMillis() { return cutoffMillis; }
+    public void setCutoffMillis(long cutoffMillis) { this.cutoffMillis = cutoffMillis; }
+    public String getNextToken() { return nextToken; }
+    public void setNextToken(String nextToken) { this.nextToken = nextToken; }
+    public long getScanned() { return scanned; }
+    public void setScanned(long scanned) { this.scanned = scanned; }
+    public long getArchived() { return archived; }
+    public void setArchived(long archived) { this.archived = archived; }
+    public long getDeleted() { return deleted; }
+    public void setDeleted(long deleted) { this.deleted = deleted; }
+    public boolean isComplete() { return complete; }
+    public void setComplete(boolean complete) { this.complete = complete; }
+
+    static Checkpoint start(long cutoffMillis) {
+        Checkpoint checkpoint = new Checkpoint();
+        checkpoint.setCutoffMillis(cutoffMillis);
+        return checkpoint;
+    }
+
+    @JsonIgnore
+    Map<String, AttributeValue> startKey() {
+        return nextToken == null ? null : Pagination.decodeToken(nextToken)
+                .orElseThrow(() -> new IllegalStateException("Unreadable scan position in " + FILE));
+    }
+
+    void advance(Map<String, AttributeValue> lastEvaluatedKey, long scannedItems, long archivedItems) {
+        nextToken = Pagination.encodeToken(lastEvaluatedKey).orElse(null);
+        complete = nextToken == null;
+        scanned += scannedItems;
+        archived += archivedItems;
+        deleted += archivedItems;
+    }
+
+    static Optional<Checkpoint> load(Path directory) throws IOException {
+        Path file = directory.resolve(FILE);
+        return Files.exists(file)
+                ? Optional.of(JsonUtil.mapper().readValue(file.toFile(), Checkpoint.class))
+                : Optional.empty();
+    }
+
+    void save(Path directory) throws IOException {
+        DurableFiles.writeJson(directory, FILE, this);
+    }
+}
@@ -0,0 +1,157 @@
+package com.example.lambda.compaction;
+
+import com.example.lambda.archive.ArchiveWriter;
+import com.example.lambda.archive.Manifest;
+import com.example.lambda.logging.Log;
+import com.example.lambda.resilience.ThroughputLimiter;
+import com.example.lambda.util.BatchWrites;
+import com.example.lambda.util.DynamoDBClientUtil;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Moves tombstones (deleted = true) older than the retention window (COMPACTION_RETENTION_DAYS,
+ * default 30) out of Bookings into a gzip NDJSON archive. A Scan finds them; each segment is
+ * archived and synced before its items are removed with BatchWriteItem, and the scan position is
+ * checkpointed after every segment, so an interrupted run resumes with the same cutoff. Items
+ * archived but not yet deleted when a run stopped are archived again: restores dedupe by bookingId.
+ * Deletes are paced to COMPACTION_MAX_DELETES_PER_SECOND (default 100); throttles and unprocessed
+ * items slow the pace, which then recovers gradually. Tombstones from before deletedAt was recorded
+ * age by checkOutDate instead.
+ *
+ * <pre>java -cp target/room-booking-lambda-1.0.jar com.example.lambda.compaction.TombstoneCompaction [archiveDir]</pre>
+ */
+public class TombstoneCompaction {
+
+    private static final String TABLE = "Bookings";
+
+    private final Path directory;
+    private Duration retention = Duration.ofDays(envInt("COMPACTION_RETENTION_DAYS", 30));
+    private int pageSize = envInt("COMPACTION_PAGE_SIZE", 500);
+    private int segmentRecords = envInt("COMPACTION_SEGMENT_RECORDS", 10_000);
+    private double maxDeletesPerSecond = envInt("COMPACTION_MAX_DELETES_PER_SECOND", 100);
+
+    public TombstoneCompaction(Path directory) {
+        this.directory = directory;
+    }
+
+    public TombstoneCompaction retention(Duration retention) {
+        this.retention = retention;
+        return this;
+    }
+
+    public TombstoneCompaction pageSize(int pageSize) {
+        this.pageSize = pageSize;
+        return this;
+    }
+
+    public TombstoneCompaction segmentRecords(int segmentRecords) {
+        this.segmentRecords = segmentRecords;
+        return this;
+    }
+
+    public TombstoneCompaction maxDeletesPerSecond(double maxDeletesPerSecond) {
+        this.maxDeletesPerSecond = maxDeletesPerSecond;
+        return this;
+    }
+
+    // Continues an unfinished run or starts a new one; stops after maxSegments segments or at the end of the table
+    public Checkpoint run(Instant now, int maxSegments) throws IOException {
+        Files.createDirectories(directory);
+        Checkpoint checkpoint = Checkpoint.load(directory)
+                .filter(previous -> !previous.isComplete())
+                .orElseGet(() -> Checkpoint.start(now.minus(retention).toEpochMilli()));
+        ThroughputLimiter limiter = new ThroughputLimiter(maxDeletesPerSecond);
+        Map<String, AttributeValue> startKey = checkpoint.startKey();
+        List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        long scanned = 0;
+        int segments = 0;
+
+        try (ArchiveWriter archive = new ArchiveWriter(directory, TABLE)) {
+            do {
+                ScanResponse page = scan(checkpoint.getCutoffMillis(), startKey);
+                scanned += page.scannedCount();
+                for (Map<String, AttributeValue> item : page.items()) {
+                    archive.append(item);
+                    keys.add(Map.of("bookingId", item.get("bookingId")));
+                }
+                startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+
+                // Nothing pending means nothing to lose, so the position can be saved after every such page
+                if (keys.isEmpty() || keys.size() >= segmentRecords || startKey == null) {
+                    Optional<Manifest.Segment> segment = archive.finishSegment();
+                    delete(keys, limiter);
+                    checkpoint.advance(startKey, scanned, keys.size());
+                    checkpoint.save(directory);
+                    if (segment.isPresent()) {
+                        segments++;
+                        Log.info("compaction.segment", "file", segment.get().getFile(), "records", segment.get().getRecords(),
+                                "deletesPerSecond", (long) limiter.rate());
+                        Log.info("compaction.progress", "scanned", checkpoint.getScanned(), "archived", checkpoint.getArchived(),
+                                "deleted", checkpoint.getDeleted());
+                    }
+                    keys.clear();
+                    scanned = 0;
+                    if (segments == maxSegments) {
+                        break;
+                    }
+                }
+            } while (startKey != null);
+        }
+        return checkpoint;
+    }
+
+    private ScanResponse scan(long cutoffMillis, Map<String, AttributeValue> startKey) {
+        LocalDate cutoffDate = Instant.ofEpochMilli(cutoffMillis).atZone(ZoneOffset.UTC).toLocalDate();
+        return DynamoDBClientUtil.getClient().scan(ScanRequest.builder()
+                .tableName(TABLE)
+                .filterExpression("deleted = :true AND (deletedAt < :cutoff"
+                        + " OR (attribute_not_exists(deletedAt) AND checkOutDate < :cutoffDate))")
+                .expressionAttributeValues(Map.of(
+                        ":true", AttributeValue.fromBool(true),
+                        ":cutoff", AttributeValue.fromN(Long.toString(cutoffMillis)),
+                        ":cutoffDate", AttributeValue.fromS(cutoffDate.toString())))
+                .limit(pageSize)
+                .exclusiveStartKey(startKey)
+                .build());
+    }
+
+    private void delete(List<Map<String, AttributeValue>> keys, ThroughputLimiter limiter) {
+        for (int from = 0; from < keys.size(); from += BatchWrites.LIMIT) {
+            List<WriteRequest> writes = new ArrayList<>();
+            for (Map<String, AttributeValue> key : keys.subList(from, Math.min(keys.size(), from + BatchWrites.LIMIT))) {
+                writes.add(WriteRequest.builder().deleteRequest(DeleteRequest.builder().key(key).build()).build());
+            }
+            BatchWrites.write(TABLE, writes, limiter);
+        }
+    }
+
+    public static void main(String[] args) {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "archive");
+        try {
+            Checkpoint checkpoint = new TombstoneCompaction(directory).run(Instant.now(), Integer.MAX_VALUE);
+            Log.info("compaction.done", "scanned", checkpoint.getScanned(), "archived", checkpoint.getArchived(),
+                    "deleted", checkpoint.getDeleted());
+        } catch (Exception e) {
+            // The checkpoint still marks the last completed segment; running again resumes from it
+            Log.error("compaction.failed", "directory", directory, "error", e.toString());
+            System.exit(1);
+        }
+    }
+
+    private static int envInt(String name, int fallback) {
+        return Optional.ofNullable(System.getenv(name)).map(String::trim).map(Integer::parseInt).orElse(fallback);
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.lambda.conflict;
+
+import com.example.lambda.model.Booking;
+import com.example.lambda.model.DateRange;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory booking-conflict detection keyed by room. Answers overlap queries in O(log n) per
+ * room and is maintained incrementally: {@link #add} on create, {@link #move} on date changes
+ * and {@link #remove} on soft delete. Independent of DynamoDB so it can be exercised directly.
+ */
+public class BookingConflictIndex {
+
+    private final Map<String, RoomIntervalIndex> rooms = new ConcurrentHashMap<>();
+
+    public boolean hasConflict(String roomId, DateRange stay) {
+        return hasConflict(roomId, stay.getCheckInDay(), stay.getCheckOutDay(), null);
+    }
+
+    public boolean hasConflict(String roomId, int checkInDay, int checkOutDay, String excludeBookingId) {
+        RoomIntervalIndex room = rooms.get(roomId);
+        return room != null && room.overlaps(checkInDay, checkOutDay, excludeBookingId);
+    }
+
+    // Returns false (and leaves the index unchanged) if the stay overlaps an indexed booking
+    public boolean add(Booking booking) {
+        DateRange stay = booking.getStay();
+        return add(booking.getRoomId(), booking.getBookingId(), stay.getCheckInDay(), stay.getCheckOutDay());
+    }
+
+    public boolean add(String roomId, String bookingId, int checkInDay, int checkOutDay) {
+        return rooms.computeIfAbsent(roomId, id -> new RoomIntervalIndex())
+                .insert(bookingId, checkInDay, checkOutDay);
+    }
+
+    public boolean move(String roomId, String bookingId, int checkInDay, int checkOutDay) {
+        RoomIntervalIndex room = rooms.get(roomId);
+        return room != null && room.move(bookingId, checkInDay, checkOutDay);
+    }
+
+    public boolean remove(String roomId, String bookingId) {
+        RoomIntervalIndex room = rooms.get(roomId);
+        return room != null && room.remove(bookingId);
+    }
+
+    public int size(String roomId) {
+        RoomIntervalIndex room = rooms.get(roomId);
+        return room == null ? 0 : room.size();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.lambda.conflict;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Bookings of a single room as disjoint half-open [checkIn, checkOut) epoch-day intervals,
+ * ordered by check-in. Because stored intervals never overlap, ordering by check-in is also
+ * ordering by check-out, so only the interval starting last before a candidate's check-out
+ * can overlap it and every lookup is a single O(log n) floor search.
+ */
+class RoomIntervalIndex {
+
+    private static final class Stay {
+        final String bookingId;
+        final int checkIn;
+        final int checkOut;
+
+        Stay(String bookingId, int checkIn, int checkOut) {
+            this.bookingId = bookingId;
+            this.checkIn = checkIn;
+            this.checkOut = checkOut;
+        }
+    }
+
+    private final TreeMap<Integer, Stay> byCheckIn = new TreeMap<>();
+    private final Map<String, Stay> byBookingId = new HashMap<>();
+
+    synchronized boolean overlaps(int checkIn, int checkOut, String excludeBookingId) {
+        Map.Entry<Integer, Stay> candidate = byCheckIn.lowerEntry(checkOut);
+        if (candidate != null && candidate.getValue().bookingId.equals(excludeBookingId)) {
+            candidate = byCheckIn.lowerEntry(candidate.getKey());
+        }
+        return candidate != null && candidate.getValue().checkOut > checkIn;
+    }
+
+    synchronized boolean insert(String bookingId, int checkIn, int checkOut) {
+        if (byBookingId.containsKey(bookingId) || overlaps(checkIn, checkOut, null)) {
+            return false;
+        }
+        Stay stay = new Stay(bookingId, checkIn, checkOut);
+        byCheckIn.put(checkIn, stay);
+        byBookingId.put(bookingId, stay);
+        return true;
+    }
+
+    synchronized boolean move(String bookingId, int checkIn, int checkOut) {
+        Stay existing = byBookingId.get(bookingId);
+        if (existing == null || overlaps(checkIn, checkOut, bookingId)) {
+            return false;
+        }
+        byCheckIn.remove(existing.checkIn);
+        Stay stay = new Stay(bookingId, checkIn, checkOut);
+        byCheckIn.put(checkIn, stay);
+        byBookingId.put(bookingId, stay);
+        return true;
+    }
+
+    synchronized boolean remove(String bookingId) {
+        Stay existing = byBookingId.remove(bookingId);
+        if (existing == null) {
+            return false;
+        }
+        byCheckIn.remove(existing.checkIn);
+        return true;
+    }
+
+    synchronized int size() {
+        return byBookingId.size();
+    }
+}
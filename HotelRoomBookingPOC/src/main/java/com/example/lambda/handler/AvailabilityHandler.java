@@ -0,0 +1,72 @@
+package com.example.lambda.handler;
+
+import com.amazonaws.services.lambda.runtime.*;
+import com.amazonaws.services.lambda.runtime.events.*;
+import com.example.lambda.availability.AvailabilitySearch;
+import com.example.lambda.logging.Log;
+import com.example.lambda.metrics.Metrics;
+import com.example.lambda.metrics.RequestTimer;
+import com.example.lambda.model.DateRange;
+import com.example.lambda.model.Hotel;
+import com.example.lambda.startup.Priming;
+import com.example.lambda.util.*;
+
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+public class AvailabilityHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    static {
+        Priming.register();
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        try (RequestTimer timer = Metrics.start("Availability")) {
+            Log.debug("availability.received", "requestId", context.getAwsRequestId());
+            return Optional.ofNullable(request.getPathParameters())
+                    .map(params -> params.get("hotelid"))
+                    .filter(id -> !id.trim().isEmpty())
+                    .map(hotelId -> findAvailability(hotelId, request.getQueryStringParameters(), timer))
+                    .orElseGet(() -> {
+                        Log.info("availability.rejected", "reason", "Missing hotelid in path");
+                        return ResponseUtil.error(400, "Missing hotelid in path");
+                    });
+        }
+    }
+
+    private APIGatewayProxyResponseEvent findAvailability(String hotelId, Map<String, String> queryParams, RequestTimer timer) {
+        Map<String, String> params = Optional.ofNullable(queryParams).orElse(Map.of());
+        DateRange stay;
+        try {
+            stay = DateRange.parse(params.get("checkInDate"), params.get("checkOutDate"));
+        } catch (DateTimeParseException e) {
+            return ResponseUtil.error(400, "checkInDate and checkOutDate query parameters are required in yyyy-MM-dd format");
+        }
+        if (stay.nights() <= 0 || stay.nights() > AvailabilitySearch.MAX_RANGE_DAYS) {
+            return ResponseUtil.error(400, "checkOutDate must be after checkInDate and at most "
+                    + AvailabilitySearch.MAX_RANGE_DAYS + " days later");
+        }
+
+        try {
+            long t = timer.mark();
+            Optional<Hotel> hotel = FindHotel.findHotelById(hotelId);
+            if (!hotel.isPresent()) {
+                return ResponseUtil.error(404, "No hotel found with the given hotelid");
+            }
+
+            Map<String, Object> body = new LinkedHashMap<>();
+            body.put("hotelId", hotelId);
+            body.put("checkInDate", stay.checkInDate());
+            body.put("checkOutDate", stay.checkOutDate());
+            body.put("availableRooms", AvailabilitySearch.freeRooms(hotel.get(), stay));
+            t = timer.record("Search", t);
+            APIGatewayProxyResponseEvent response = ResponseUtil.success(body);
+            timer.record("Serialize", t);
+            return response;
+        } catch (Exception e) {
+            Log.error("availability.failed", "hotelId", hotelId, "error", e.toString());
+            return ResponseUtil.failure(e, "Error fetching availability from database");
+        }
+    }
+}
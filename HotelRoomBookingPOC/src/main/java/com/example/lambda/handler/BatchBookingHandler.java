@@ -0,0 +1,156 @@
+package com.example.lambda.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.lambda.logging.Log;
+import com.example.lambda.metrics.Metrics;
+import com.example.lambda.metrics.RequestTimer;
+import com.example.lambda.model.BatchBookingRequest;
+import com.example.lambda.model.BatchItemResult;
+import com.example.lambda.model.Booking;
+import com.example.lambda.reservation.BatchReservations;
+import com.example.lambda.startup.Priming;
+import com.example.lambda.util.BookingParser;
+import com.example.lambda.util.ResponseUtil;
+import com.example.lambda.validation.BookingValidator;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+public class BatchBookingHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    static {
+        Priming.register();
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        try (RequestTimer timer = Metrics.start("BatchBooking")) {
+            Log.debug("batch.received", "requestId", context.getAwsRequestId());
+            long t = timer.mark();
+
+            Optional<BatchBookingRequest> optionalBatch = BookingParser.parseBatch(request.getBody());
+            timer.record("Parse", t);
+
+            if (!optionalBatch.isPresent()) {
+                return ResponseUtil.error(400, "Invalid or missing batch data");
+            }
+
+            BatchBookingRequest batch = optionalBatch.get();
+            boolean atomic;
+            if ("atomic".equalsIgnoreCase(batch.getMode())) {
+                atomic = true;
+            } else if ("partial".equalsIgnoreCase(batch.getMode())) {
+                atomic = false;
+            } else {
+                return ResponseUtil.error(400, "mode must be atomic or partial");
+            }
+
+            if ("create".equalsIgnoreCase(batch.getAction())) {
+                return create(batch.getBookings(), atomic, timer);
+            }
+            if ("cancel".equalsIgnoreCase(batch.getAction())) {
+                return cancel(batch.getBookingIds(), atomic, timer);
+            }
+            return ResponseUtil.error(400, "action must be create or cancel");
+        }
+    }
+
+    private APIGatewayProxyResponseEvent create(List<Booking> bookings, boolean atomic, RequestTimer timer) {
+        if (bookings == null || bookings.isEmpty() || bookings.size() > BatchReservations.MAX_BATCH_SIZE) {
+            return ResponseUtil.error(400, "bookings must contain 1 to " + BatchReservations.MAX_BATCH_SIZE + " entries");
+        }
+        if (bookings.contains(null)) {
+            return ResponseUtil.error(400, "bookings must not contain null entries");
+        }
+
+        long t = timer.mark();
+        List<Optional<String>> validationErrors = BookingValidator.validateBatch(bookings);
+        bookings.forEach(booking -> booking.setBookingId(UUID.randomUUID().toString()));
+        t = timer.record("Validate", t);
+
+        if (!atomic) {
+            try {
+                List<BatchItemResult> results = BatchReservations.createPartial(bookings, validationErrors);
+                timer.record("Reserve", t);
+                return respond(200, false, results);
+            } catch (Exception e) {
+                Log.error("batch.create.failed", "size", bookings.size(), "error", e.toString());
+                return ResponseUtil.failure(e, "Failed to create bookings");
+            }
+        }
+
+        if (validationErrors.stream().anyMatch(Optional::isPresent)) {
+            List<BatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < bookings.size(); i++) {
+                Optional<String> error = validationErrors.get(i);
+                results.add(error.isPresent()
+                        ? new BatchItemResult(i, null, BatchItemResult.Status.INVALID, error.get())
+                        : new BatchItemResult(i, null, BatchItemResult.Status.ABORTED, "Batch rejected"));
+            }
+            return respond(400, true, results);
+        }
+
+        try {
+            List<BatchItemResult> results = BatchReservations.createAtomic(bookings);
+            timer.record("Reserve", t);
+            Log.info("batch.create.finished", "size", bookings.size(), "status", statusFor(results));
+            return respond(statusFor(results), true, results);
+        } catch (Exception e) {
+            Log.error("batch.create.failed", "size", bookings.size(), "error", e.toString());
+            return ResponseUtil.failure(e, "Failed to create bookings");
+        }
+    }
+
+    private APIGatewayProxyResponseEvent cancel(List<String> bookingIds, boolean atomic, RequestTimer timer) {
+        if (bookingIds == null || bookingIds.isEmpty() || bookingIds.size() > BatchReservations.MAX_BATCH_SIZE) {
+            return ResponseUtil.error(400, "bookingIds must contain 1 to " + BatchReservations.MAX_BATCH_SIZE + " entries");
+        }
+        if (new HashSet<>(bookingIds).size() != bookingIds.size() || bookingIds.stream().anyMatch(id -> id == null || id.trim().isEmpty())) {
+            return ResponseUtil.error(400, "bookingIds must be distinct and non-empty");
+        }
+
+        try {
+            long t = timer.mark();
+            List<BatchItemResult> results = atomic
+                    ? BatchReservations.cancelAtomic(bookingIds)
+                    : BatchReservations.cancelPartial(bookingIds);
+            timer.record("Cancel", t);
+            Log.info("batch.cancel.finished", "size", bookingIds.size(), "atomic", atomic);
+            return respond(atomic ? statusFor(results) : 200, atomic, results);
+        } catch (Exception e) {
+            Log.error("batch.cancel.failed", "size", bookingIds.size(), "error", e.toString());
+            return ResponseUtil.failure(e, "Failed to cancel bookings");
+        }
+    }
+
+    // An atomic batch succeeds or fails as a whole; the first failing item decides the status code
+    private static int statusFor(List<BatchItemResult> results) {
+        for (BatchItemResult result : results) {
+            switch (result.getStatus()) {
+                case INVALID: return 400;
+                case NOT_FOUND: return 404;
+                case CONFLICT: return 409;
+                default:
+            }
+        }
+        return 200;
+    }
+
+    private static APIGatewayProxyResponseEvent respond(int statusCode, boolean atomic, List<BatchItemResult> results) {
+        long succeeded = results.stream().filter(BatchItemResult::isSuccess).count();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("mode", atomic ? "atomic" : "partial");
+        body.put("succeeded", succeeded);
+        body.put("failed", results.size() - succeeded);
+        body.put("results", results);
+        return ResponseUtil.success(body).withStatusCode(statusCode);
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.lambda.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.DynamodbEvent;
+import com.amazonaws.services.lambda.runtime.events.StreamsEventResponse;
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.StreamRecord;
+import com.example.lambda.logging.Log;
+import com.example.lambda.metrics.Metrics;
+import com.example.lambda.metrics.RequestTimer;
+import com.example.lambda.projection.BookingChange;
+import com.example.lambda.projection.StreamImages;
+import com.example.lambda.projection.ViewProjector;
+import com.example.lambda.startup.Priming;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Consumes the Bookings stream (NEW_AND_OLD_IMAGES) with ReportBatchItemFailures enabled on the event source mapping
+public class BookingStreamHandler implements RequestHandler<DynamodbEvent, StreamsEventResponse> {
+
+    static {
+        Priming.register();
+    }
+
+    @Override
+    public StreamsEventResponse handleRequest(DynamodbEvent event, Context context) {
+        try (RequestTimer timer = Metrics.start("BookingStream")) {
+            List<DynamodbEvent.DynamodbStreamRecord> records = Optional.ofNullable(event.getRecords()).orElse(List.of());
+            Log.debug("stream.received", "requestId", context.getAwsRequestId(), "records", records.size());
+
+            long t = timer.mark();
+            List<BookingChange> changes = new ArrayList<>(records.size());
+            for (DynamodbEvent.DynamodbStreamRecord record : records) {
+                StreamRecord change = record.getDynamodb();
+                // Retrying cannot give a record without the booking's key one, so it is skipped rather than blocking the shard
+                if (change == null || change.getKeys() == null || change.getKeys().get("bookingId") == null
+                        || change.getKeys().get("bookingId").getS() == null) {
+                    Log.warn("stream.skipped", "eventId", record.getEventID(), "reason", "Missing bookingId key");
+                    continue;
+                }
+                changes.add(new BookingChange(change.getKeys().get("bookingId").getS(), change.getSequenceNumber(),
+                        StreamImages.toSdk(change.getOldImage()), StreamImages.toSdk(change.getNewImage())));
+            }
+            t = timer.record("Parse", t);
+
+            Optional<String> redeliverFrom = ViewProjector.apply(changes);
+            timer.record("Project", t);
+
+            List<StreamsEventResponse.BatchItemFailure> failures = new ArrayList<>();
+            redeliverFrom.ifPresent(sequence -> {
+                Log.warn("stream.partial", "requestId", context.getAwsRequestId(), "sequenceNumber", sequence);
+                failures.add(StreamsEventResponse.BatchItemFailure.builder().withItemIdentifier(sequence).build());
+            });
+            return StreamsEventResponse.builder().withBatchItemFailures(failures).build();
+        }
+    }
+}
@@ -2,6 +2,12 @@ package com.example.lambda.handler;
 
 import com.amazonaws.services.lambda.runtime.*;
 import com.amazonaws.services.lambda.runtime.events.*;
+import com.example.lambda.logging.Log;
+import com.example.lambda.metrics.Metrics;
+import com.example.lambda.metrics.RequestTimer;
+import com.example.lambda.reservation.BookingReservations;
+import com.example.lambda.reservation.ReservationOutcome;
+import com.example.lambda.startup.Priming;
 import com.example.lambda.util.*;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
@@ -16,48 +22,43 @@ import java.util.*;
 
 public class DeleteBookingHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
-    private static final String TABLE = "Bookings";
+    static {
+        Priming.register();
+    }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
-        context.getLogger().log("Delete booking request received");
-        return Optional.ofNullable(request.getPathParameters())
-                .map(params -> params.get("bookingid"))
-                .filter(id -> !id.trim().isEmpty())
-                .map(this::deleteBooking)
-                .orElseGet(() ->{
-                    context.getLogger().log("Missing bookingid");
-                    return ResponseUtil.error(400, "Missing bookingid");}
-                );
-    }
-
-    private APIGatewayProxyResponseEvent deleteBooking(String bookingId) {
-
-        // First check if booking exists
-        Optional<Map<String, AttributeValue>> existingBooking = FindBooking.findBookingById(bookingId);
-
-        if (!existingBooking.isPresent()) {
-            return ResponseUtil.error(404, "No booking found with the given bookingid");
+        try (RequestTimer timer = Metrics.start("DeleteBooking")) {
+            Log.debug("booking.delete.received", "requestId", context.getAwsRequestId());
+            return Optional.ofNullable(request.getPathParameters())
+                    .map(params -> params.get("bookingid"))
+                    .filter(id -> !id.trim().isEmpty())
+                    .map(bookingId -> deleteBooking(bookingId, timer))
+                    .orElseGet(() ->{
+                        Log.info("booking.delete.rejected", "reason", "Missing bookingid");
+                        return ResponseUtil.error(400, "Missing bookingid");}
+                    );
         }
-
-        // Perform soft delete
-        return updateBooking(bookingId)
-                .map(success -> ResponseUtil.success(Map.of("message", "Booking soft-deleted")))
-                .orElseGet(() -> ResponseUtil.error(500, "Failed to delete booking"));
     }
 
-    private Optional<Boolean> updateBooking(String bookingId) {
+    private APIGatewayProxyResponseEvent deleteBooking(String bookingId, RequestTimer timer) {
         try {
-            DynamoDBClientUtil.getClient().updateItem(UpdateItemRequest.builder()
-                    .tableName(TABLE)
-                    .key(Map.of("bookingId", AttributeValue.fromS(bookingId)))
-                    .updateExpression("SET deleted = :true")
-                    .expressionAttributeValues(Map.of(":true", AttributeValue.fromBool(true)))
-                    .build());
-            return Optional.of(true);
+            long t = timer.mark();
+            // Soft delete and release of the booked nights happen in one transaction
+            ReservationOutcome outcome = BookingReservations.cancel(bookingId);
+            timer.record("Cancel", t);
+            Log.info("booking.delete.finished", "bookingId", bookingId, "outcome", outcome);
+            switch (outcome) {
+                case NOT_FOUND:
+                    return ResponseUtil.error(404, "No booking found with the given bookingid");
+                case CONFLICT:
+                    return ResponseUtil.error(409, "Booking was modified concurrently, please retry");
+                default:
+                    return ResponseUtil.success(Map.of("message", "Booking soft-deleted", "bookingId", bookingId));
+            }
         } catch (Exception e) {
-            return Optional.empty();
+            Log.error("booking.delete.failed", "bookingId", bookingId, "error", e.toString());
+            return ResponseUtil.failure(e, "Failed to delete booking");
         }
     }
 }
-
@@ -0,0 +1,76 @@
+package com.example.lambda.handler;
+
+import com.amazonaws.services.lambda.runtime.Context;
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.lambda.logging.Log;
+import com.example.lambda.resilience.Resilience;
+import com.example.lambda.routing.RouteTable;
+import com.example.lambda.startup.Priming;
+import com.example.lambda.util.ResponseUtil;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Single entry point for every booking route, so all routes share one warm container, DynamoDB
+ * client and cache. Deploy behind an API Gateway {proxy+} resource (or one resource per route);
+ * the request path is matched against the table below and the path parameters it binds are
+ * passed on to the per-route handler. Matched requests are admitted through the adaptive limiter
+ * and shed with a 503 when DynamoDB has recently been pushing back.
+ */
+public class RouterHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
+
+    static {
+        Priming.register();
+    }
+
+    private static final RouteTable<RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> routes =
+            new RouteTable<RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>>()
+                    .add("POST", "/bookings", new CreateBookingHandler())
+                    .add("POST", "/bookings/batch", new BatchBookingHandler())
+                    .add("PUT", "/bookings/{bookingid}", new UpdateBookingHandler())
+                    .add("DELETE", "/bookings/{bookingid}", new DeleteBookingHandler())
+                    .add("GET", "/rooms/{roomid}/bookings", new SearchByRoomHandler())
+                    .add("GET", "/users/{userid}/bookings", new SearchByUserHandler())
+                    .add("GET", "/hotels/{hotelid}/availability", new AvailabilityHandler());
+
+    public static RouteTable<RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>> routes() {
+        return routes;
+    }
+
+    @Override
+    public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
+        String method = Optional.ofNullable(request.getHttpMethod()).orElse("");
+        String path = request.getPath();
+
+        Optional<RouteTable.Match<RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent>>> match =
+                routes.match(method, path);
+        if (!match.isPresent()) {
+            Set<String> allowed = routes.allowedMethods(path);
+            if (allowed.isEmpty()) {
+                Log.info("route.not_found", "method", method, "path", path);
+                return ResponseUtil.error(404, "No route for " + method + " " + path);
+            }
+            return ResponseUtil.error(405, "Method not allowed")
+                    .withHeaders(Map.of("Content-Type", "application/json", "Allow", String.join(", ", allowed)));
+        }
+
+        if (!Resilience.admit()) {
+            Log.debug("route.shed", "path", path, "limit", Resilience.limiter().limit());
+            return ResponseUtil.overloaded();
+        }
+        try {
+            // Parameters bound by API Gateway win over the ones parsed from the path
+            Map<String, String> pathParameters = new HashMap<>(match.get().getPathParameters());
+            Optional.ofNullable(request.getPathParameters()).ifPresent(pathParameters::putAll);
+            request.setPathParameters(pathParameters);
+            return match.get().getTarget().handleRequest(request, context);
+        } finally {
+            Resilience.release();
+        }
+    }
+}
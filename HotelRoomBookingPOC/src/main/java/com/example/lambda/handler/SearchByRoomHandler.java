@@ -2,77 +2,87 @@ package com.example.lambda.handler;
 
 import com.amazonaws.services.lambda.runtime.*;
 import com.amazonaws.services.lambda.runtime.events.*;
+import com.example.lambda.cache.BookingCache;
+import com.example.lambda.logging.Log;
+import com.example.lambda.metrics.Metrics;
+import com.example.lambda.metrics.RequestTimer;
+import com.example.lambda.startup.Priming;
 import com.example.lambda.util.*;
 import software.amazon.awssdk.services.dynamodb.model.*;
 
-import java.io.Serializable;
 import java.util.*;
-import java.util.stream.Collectors;
 
 public class SearchByRoomHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
-    private static final String TABLE = "Bookings";
+    static {
+        Priming.register();
+    }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
-        context.getLogger().log("Received request for search booking by roomid");
-        return Optional.ofNullable(request.getPathParameters())
-                .map(params -> params.get("roomid"))
-                .filter(id -> !id.trim().isEmpty())
-                .map(this::findBookingsByRoomId)
-                .orElseGet(() -> {
-                    context.getLogger().log("Missing roomid in path");
-                    return ResponseUtil.error(400, "Missing roomid in path");});
+        try (RequestTimer timer = Metrics.start("SearchByRoom")) {
+            Log.debug("booking.search.room.received", "requestId", context.getAwsRequestId());
+            return Optional.ofNullable(request.getPathParameters())
+                    .map(params -> params.get("roomid"))
+                    .filter(id -> !id.trim().isEmpty())
+                    .map(roomId -> findBookingsByRoomId(roomId, request.getQueryStringParameters(), timer))
+                    .orElseGet(() -> {
+                        Log.info("booking.search.room.rejected", "reason", "Missing roomid in path");
+                        return ResponseUtil.error(400, "Missing roomid in path");});
+        }
     }
 
-    private APIGatewayProxyResponseEvent findBookingsByRoomId(String roomId) {
-
-        Optional<ScanResponse> responseOpt = getRoomBookings(roomId);
+    private APIGatewayProxyResponseEvent findBookingsByRoomId(String roomId, Map<String, String> queryParams, RequestTimer timer) {
+        Map<String, String> params = Optional.ofNullable(queryParams).orElse(Map.of());
 
-        if (!responseOpt.isPresent()) {
-            return ResponseUtil.error(500, "Error fetching bookings from database");
+        Optional<Integer> limit = Pagination.parseLimit(params.get("limit"));
+        if (!limit.isPresent()) {
+            return ResponseUtil.error(400, "limit must be between 1 and " + Pagination.MAX_LIMIT);
         }
 
-        List<Map<String, ? extends Serializable>> bookings = responseOpt.get().items().stream()
-                .map(this::convertItemToMap)
-                .collect(Collectors.toList());
-
-        if (bookings.isEmpty()) {
-            return ResponseUtil.error(404, "No bookings found for the given roomid");
+        Map<String, AttributeValue> startKey = null;
+        if (params.get("nextToken") != null) {
+            Optional<Map<String, AttributeValue>> decoded = Pagination.decodeToken(params.get("nextToken"));
+            if (!decoded.isPresent()) {
+                return ResponseUtil.error(400, "Invalid nextToken");
+            }
+            startKey = decoded.get();
         }
 
-        return ResponseUtil.success(bookings);
+        // Identical searches in flight at the same time share one query and one serialized response
+        long t = timer.mark();
+        Map<String, AttributeValue> from = startKey;
+        boolean[] led = new boolean[1];
+        APIGatewayProxyResponseEvent response = BookingCache.search(BookingQuery.ROOM_INDEX, roomId, limit.get(), startKey, () -> {
+            led[0] = true;
+            return search(roomId, limit.get(), from, timer);
+        });
+        if (!led[0]) {
+            timer.record("Coalesced", t);
+        }
+        return response;
     }
 
-    private Optional<ScanResponse> getRoomBookings(String roomId) {
+    private APIGatewayProxyResponseEvent search(String roomId, int limit, Map<String, AttributeValue> startKey, RequestTimer timer) {
+        long t = timer.mark();
+        QueryResponse page;
         try {
-            ScanResponse response = DynamoDBClientUtil.getClient().scan(
-                    ScanRequest.builder()
-                            .tableName(TABLE)
-                            .filterExpression("roomId = :roomId and deleted = :false")
-                            .expressionAttributeValues(Map.of(
-                                    ":roomId", AttributeValue.fromS(roomId),
-                                    ":false", AttributeValue.fromBool(false)
-                            ))
-                            .build()
-            );
-            return Optional.of(response);
+            page = BookingQuery.activeByRoom(roomId, limit, startKey);
         } catch (Exception e) {
-            return Optional.empty();
+            Log.error("booking.search.room.failed", "roomId", roomId, "error", e.toString());
+            return ResponseUtil.failure(e, "Error fetching bookings from database");
+        }
+        t = timer.record("Query", t);
+
+        List<Map<String, AttributeValue>> bookings = page.items();
+        Optional<String> nextToken = Pagination.encodeToken(page.lastEvaluatedKey());
+
+        if (bookings.isEmpty() && startKey == null && !nextToken.isPresent()) {
+            return ResponseUtil.error(404, "No bookings found for the given roomid");
         }
-    }
 
-    private Map<String, ? extends Serializable> convertItemToMap(Map<String, AttributeValue> item) {
-        return item.entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        entry -> {
-                            AttributeValue val = entry.getValue();
-                            if (val.s() != null) return val.s();
-                            if (val.n() != null) return val.n();
-                            if (val.bool() != null) return val.bool();
-                            return null;
-                        }
-                ));
+        APIGatewayProxyResponseEvent response = ResponseUtil.page("bookings", bookings, nextToken);
+        timer.record("Serialize", t);
+        return response;
     }
 }
\ No newline at end of file
@@ -3,82 +3,75 @@ package com.example.lambda.handler;
 import com.amazonaws.services.lambda.runtime.*;
 import com.amazonaws.services.lambda.runtime.events.*;
 import com.example.lambda.model.Booking;
+import com.example.lambda.reservation.BookingReservations;
+import com.example.lambda.reservation.ReservationOutcome;
+import com.example.lambda.startup.Priming;
 import com.example.lambda.util.*;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import software.amazon.awssdk.services.dynamodb.model.*;
+import com.example.lambda.validation.BookingValidator;
+import com.example.lambda.logging.Log;
+import com.example.lambda.metrics.Metrics;
+import com.example.lambda.metrics.RequestTimer;
 
 import java.util.Map;
 import java.util.Optional;
 
 public class UpdateBookingHandler implements RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> {
 
-    private static final String TABLE = "Bookings";
-    private static final ObjectMapper mapper = new ObjectMapper();
+    static {
+        Priming.register();
+    }
 
     @Override
     public APIGatewayProxyResponseEvent handleRequest(APIGatewayProxyRequestEvent request, Context context) {
-        context.getLogger().log("Received request for update booking request");
-        return Optional.ofNullable(request.getPathParameters())
-                .map(params -> params.get("bookingid"))
-                .filter(id -> !id.trim().isEmpty())
-                .map(bookingId -> updateBooking(request, bookingId))
-                .orElseGet(() -> {
-                    context.getLogger().log("Missing bookingid in path");
-                    return ResponseUtil.error(400, "Missing bookingid");
-                });
+        try (RequestTimer timer = Metrics.start("UpdateBooking")) {
+            Log.debug("booking.update.received", "requestId", context.getAwsRequestId());
+            return Optional.ofNullable(request.getPathParameters())
+                    .map(params -> params.get("bookingid"))
+                    .filter(id -> !id.trim().isEmpty())
+                    .map(bookingId -> updateBooking(request, bookingId, timer))
+                    .orElseGet(() -> {
+                        Log.info("booking.update.rejected", "reason", "Missing bookingid in path");
+                        return ResponseUtil.error(400, "Missing bookingid");
+                    });
+        }
     }
 
-    private APIGatewayProxyResponseEvent updateBooking(APIGatewayProxyRequestEvent request, String bookingId) {
-
-        Optional<Booking> optionalBooking = parseBooking(request.getBody());
+    private APIGatewayProxyResponseEvent updateBooking(APIGatewayProxyRequestEvent request, String bookingId, RequestTimer timer) {
+        long t = timer.mark();
+        Optional<Booking> optionalBooking = BookingParser.parseBooking(request.getBody());
+        t = timer.record("Parse", t);
 
         if (!optionalBooking.isPresent()) {
             return ResponseUtil.error(400, "Invalid or missing booking data");
         }
 
         Booking updated = optionalBooking.get();
+        Optional<String> validationError = BookingValidator.validateUpdate(updated);
+        t = timer.record("Validate", t);
 
-        // Check if booking exists before updating
-        Optional<Map<String, AttributeValue>> existingBooking = FindBooking.findBookingById(bookingId);
-
-        if (!existingBooking.isPresent()) {
-            return ResponseUtil.error(404, "No booking found with the given bookingid");
+        if (validationError.isPresent()) {
+            return ResponseUtil.error(400, validationError.get());
         }
 
-        // Perform the update
-        return performUpdate(bookingId, updated)
-                .map(success -> ResponseUtil.success(Map.of("message", "Booking updated successfully")))
-                .orElseGet(() -> ResponseUtil.error(500, "Failed to update booking"));
-    }
-
-    private Optional<Booking> parseBooking(String body) {
-        return Optional.ofNullable(body)
-                .filter(b -> !b.trim().isEmpty())
-                .flatMap(json -> {
-                    try {
-                        return Optional.of(mapper.readValue(json, Booking.class));
-                    } catch (Exception e) {
-                        return Optional.empty();
-                    }
-                });
-    }
-
-    private Optional<Boolean> performUpdate(String bookingId, Booking updated) {
         try {
-            DynamoDBClientUtil.getClient().updateItem(
-                    UpdateItemRequest.builder()
-                            .tableName(TABLE)
-                            .key(Map.of("bookingId", AttributeValue.fromS(bookingId)))
-                            .updateExpression("SET checkInDate = :in, checkOutDate = :out")
-                            .expressionAttributeValues(Map.of(
-                                    ":in", AttributeValue.fromS(updated.getCheckInDate()),
-                                    ":out", AttributeValue.fromS(updated.getCheckOutDate())
-                            ))
-                            .build()
-            );
-            return Optional.of(true);
+            ReservationOutcome outcome = BookingReservations.reschedule(bookingId, updated.getStay());
+            timer.record("Reserve", t);
+            Log.info("booking.update.finished", "bookingId", bookingId, "outcome", outcome);
+            switch (outcome) {
+                case NOT_FOUND:
+                    return ResponseUtil.error(404, "No booking found with the given bookingid");
+                case CONFLICT:
+                    return ResponseUtil.error(400, "Room is already booked for the specified period");
+                default:
+                    return ResponseUtil.success(Map.of(
+                            "message", "Booking updated successfully",
+                            "bookingId", bookingId,
+                            "checkInDate", updated.getCheckInDate(),
+                            "checkOutDate", updated.getCheckOutDate()));
+            }
         } catch (Exception e) {
-            return Optional.empty();
+            Log.error("booking.update.failed", "bookingId", bookingId, "error", e.toString());
+            return ResponseUtil.failure(e, "Failed to update booking");
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,5 @@
+package com.example.lambda.logging;
+
+public enum Level {
+    DEBUG, INFO, WARN, ERROR, OFF
+}
@@ -0,0 +1,126 @@
+package com.example.lambda.logging;
+
+import java.io.PrintStream;
+import java.util.Optional;
+
+/**
+ * Level-gated JSON-line logger: {"level":"INFO","event":"booking.created","bookingId":"..."}.
+ * Fields are passed as fixed key/value overloads rather than varargs or a message template, so
+ * a call below the configured level (LOG_LEVEL, default INFO) returns after one comparison and
+ * allocates nothing. Callers should pass values they already hold, not build strings for the call.
+ */
+public class Log {
+
+    private static volatile Level level = Optional.ofNullable(System.getenv("LOG_LEVEL"))
+            .map(name -> Level.valueOf(name.trim().toUpperCase()))
+            .orElse(Level.INFO);
+    private static volatile PrintStream out = System.out;
+
+    public static boolean isEnabled(Level candidate) {
+        return candidate.compareTo(level) >= 0 && level != Level.OFF;
+    }
+
+    public static void setLevel(Level newLevel) {
+        level = newLevel;
+    }
+
+    // Redirects log lines, e.g. to capture them in local runs
+    public static void setOutput(PrintStream output) {
+        out = output;
+    }
+
+    public static void debug(String event) {
+        if (isEnabled(Level.DEBUG)) write(Level.DEBUG, event, null, null, null, null, null, null);
+    }
+
+    public static void debug(String event, String k1, Object v1) {
+        if (isEnabled(Level.DEBUG)) write(Level.DEBUG, event, k1, v1, null, null, null, null);
+    }
+
+    public static void debug(String event, String k1, Object v1, String k2, Object v2) {
+        if (isEnabled(Level.DEBUG)) write(Level.DEBUG, event, k1, v1, k2, v2, null, null);
+    }
+
+    public static void debug(String event, String k1, Object v1, String k2, Object v2, String k3, Object v3) {
+        if (isEnabled(Level.DEBUG)) write(Level.DEBUG, event, k1, v1, k2, v2, k3, v3);
+    }
+
+    public static void info(String event) {
+        if (isEnabled(Level.INFO)) write(Level.INFO, event, null, null, null, null, null, null);
+    }
+
+    public static void info(String event, String k1, Object v1) {
+        if (isEnabled(Level.INFO)) write(Level.INFO, event, k1, v1, null, null, null, null);
+    }
+
+    public static void info(String event, String k1, Object v1, String k2, Object v2) {
+        if (isEnabled(Level.INFO)) write(Level.INFO, event, k1, v1, k2, v2, null, null);
+    }
+
+    public static void info(String event, String k1, Object v1, String k2, Object v2, String k3, Object v3) {
+        if (isEnabled(Level.INFO)) write(Level.INFO, event, k1, v1, k2, v2, k3, v3);
+    }
+
+    public static void warn(String event, String k1, Object v1) {
+        if (isEnabled(Level.WARN)) write(Level.WARN, event, k1, v1, null, null, null, null);
+    }
+
+    public static void warn(String event, String k1, Object v1, String k2, Object v2) {
+        if (isEnabled(Level.WARN)) write(Level.WARN, event, k1, v1, k2, v2, null, null);
+    }
+
+    public static void error(String event, String k1, Object v1) {
+        if (isEnabled(Level.ERROR)) write(Level.ERROR, event, k1, v1, null, null, null, null);
+    }
+
+    public static void error(String event, String k1, Object v1, String k2, Object v2) {
+        if (isEnabled(Level.ERROR)) write(Level.ERROR, event, k1, v1, k2, v2, null, null);
+    }
+
+    private static void write(Level lineLevel, String event,
+                              String k1, Object v1, String k2, Object v2, String k3, Object v3) {
+        // Short-lived and sized for a typical line; a per-thread buffer would be one per virtual thread
+        StringBuilder line = new StringBuilder(256);
+        line.append("{\"level\":\"").append(lineLevel.name()).append("\",\"event\":");
+        quote(line, event);
+        field(line, k1, v1);
+        field(line, k2, v2);
+        field(line, k3, v3);
+        line.append('}');
+        out.println(line);
+    }
+
+    private static void field(StringBuilder line, String key, Object value) {
+        if (key == null) {
+            return;
+        }
+        line.append(',');
+        quote(line, key);
+        line.append(':');
+        if (value == null) {
+            line.append("null");
+        } else if (value instanceof Number || value instanceof Boolean) {
+            line.append(value);
+        } else {
+            quote(line, value.toString());
+        }
+    }
+
+    private static void quote(StringBuilder line, String value) {
+        line.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"': line.append("\\\""); break;
+                case '\\': line.append("\\\\"); break;
+                case '\n': line.append("\\n"); break;
+                case '\r': line.append("\\r"); break;
+                case '\t': line.append("\\t"); break;
+                default:
+                    if (c < 0x20) line.append(String.format("\\u%04x", (int) c));
+                    else line.append(c);
+            }
+        }
+        line.append('"');
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.lambda.metrics;
+
+import software.amazon.awssdk.awscore.AwsRequestOverrideConfiguration;
+import software.amazon.awssdk.core.interceptor.Context;
+import software.amazon.awssdk.core.interceptor.ExecutionAttribute;
+import software.amazon.awssdk.core.interceptor.ExecutionAttributes;
+import software.amazon.awssdk.core.interceptor.ExecutionInterceptor;
+import software.amazon.awssdk.core.interceptor.SdkExecutionAttribute;
+
+import java.util.Optional;
+
+/**
+ * Records each DynamoDB call as a "DynamoDB.&lt;Operation&gt;" phase of the request that made it,
+ * including retries. Blocking calls find the timer bound to the calling thread; async calls start on
+ * other threads, so they carry it as a request execution attribute (see {@link #withTimer}).
+ */
+public class DynamoDbTimingInterceptor implements ExecutionInterceptor {
+
+    private static final ExecutionAttribute<RequestTimer> TIMER = new ExecutionAttribute<>("RequestTimer");
+    private static final ExecutionAttribute<Long> STARTED = new ExecutionAttribute<>("RequestTimerStarted");
+
+    // The request's override configuration with the timer attached, for a call started on another thread
+    public static AwsRequestOverrideConfiguration withTimer(Optional<AwsRequestOverrideConfiguration> existing, RequestTimer timer) {
+        return existing.map(AwsRequestOverrideConfiguration::toBuilder)
+                .orElseGet(AwsRequestOverrideConfiguration::builder)
+                .putExecutionAttribute(TIMER, timer)
+                .build();
+    }
+
+    @Override
+    public void beforeExecution(Context.BeforeExecution context, ExecutionAttributes attributes) {
+        RequestTimer timer = attributes.getAttribute(TIMER);
+        if (timer == null) {
+            timer = RequestTimer.current();
+        }
+        if (timer != null) {
+            attributes.putAttribute(TIMER, timer);
+            attributes.putAttribute(STARTED, System.nanoTime());
+        }
+    }
+
+    @Override
+    public void afterExecution(Context.AfterExecution context, ExecutionAttributes attributes) {
+        record(attributes);
+    }
+
+    @Override
+    public void onExecutionFailure(Context.FailedExecution context, ExecutionAttributes attributes) {
+        record(attributes);
+    }
+
+    private static void record(ExecutionAttributes attributes) {
+        RequestTimer timer = attributes.getAttribute(TIMER);
+        if (timer != null) {
+            timer.record("DynamoDB." + attributes.getAttribute(SdkExecutionAttribute.OPERATION_NAME),
+                    attributes.getAttribute(STARTED));
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.lambda.metrics;
+
+/**
+ * Formats one histogram interval as a CloudWatch Embedded Metric Format line with Handler and
+ * Phase dimensions. Percentiles are reported in milliseconds as separate metrics because EMF
+ * takes plain values, not distributions.
+ */
+class EmfWriter {
+
+    private final String namespace;
+
+    EmfWriter(String namespace) {
+        this.namespace = namespace;
+    }
+
+    String line(String handler, String phase, LatencyHistogram.Snapshot snapshot, long timestampMillis) {
+        StringBuilder line = new StringBuilder(512);
+        line.append("{\"_aws\":{\"Timestamp\":").append(timestampMillis)
+                .append(",\"CloudWatchMetrics\":[{\"Namespace\":\"").append(escape(namespace))
+                .append("\",\"Dimensions\":[[\"Handler\",\"Phase\"]],\"Metrics\":[")
+                .append("{\"Name\":\"Count\",\"Unit\":\"Count\"},")
+                .append("{\"Name\":\"LatencyP50\",\"Unit\":\"Milliseconds\"},")
+                .append("{\"Name\":\"LatencyP90\",\"Unit\":\"Milliseconds\"},")
+                .append("{\"Name\":\"LatencyP99\",\"Unit\":\"Milliseconds\"},")
+                .append("{\"Name\":\"LatencyMax\",\"Unit\":\"Milliseconds\"}]}]},")
+                .append("\"Handler\":\"").append(escape(handler)).append("\",")
+                .append("\"Phase\":\"").append(escape(phase)).append("\",")
+                .append("\"Count\":").append(snapshot.count()).append(',')
+                .append("\"LatencyP50\":").append(millis(snapshot.percentileMicros(50))).append(',')
+                .append("\"LatencyP90\":").append(millis(snapshot.percentileMicros(90))).append(',')
+                .append("\"LatencyP99\":").append(millis(snapshot.percentileMicros(99))).append(',')
+                .append("\"LatencyMax\":").append(millis(snapshot.maxMicros())).append('}');
+        return line.toString();
+    }
+
+    private static String millis(long micros) {
+        return micros / 1000 + "." + String.format("%03d", micros % 1000);
+    }
+
+    // Names come from code, not user input; quotes and backslashes are the only characters to guard
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
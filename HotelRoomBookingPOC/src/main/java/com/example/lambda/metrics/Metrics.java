@@ -0,0 +1,74 @@
+package com.example.lambda.metrics;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-handler, per-phase latency histograms for the container, flushed as CloudWatch Embedded
+ * Metric Format lines. Histograms aggregate between flushes so a busy process writes one line
+ * per phase per interval (METRICS_FLUSH_SECONDS; 0 flushes after every request). In Lambda the
+ * default is 0: a container serves one invocation at a time and may be frozen or reclaimed right
+ * after it, so anything held for a later request could be lost. Elsewhere the default is 60, and
+ * whatever is pending at shutdown is flushed by a shutdown hook.
+ */
+public class Metrics {
+
+    private static final Map<String, Map<String, LatencyHistogram>> histograms = new ConcurrentHashMap<>();
+
+    private static final long flushIntervalNanos = TimeUnit.SECONDS.toNanos(
+            Optional.ofNullable(System.getenv("METRICS_FLUSH_SECONDS")).map(String::trim).map(Long::parseLong)
+                    .orElse(System.getenv("AWS_LAMBDA_FUNCTION_NAME") != null ? 0L : 60L));
+    private static final EmfWriter writer = new EmfWriter(
+            Optional.ofNullable(System.getenv("METRICS_NAMESPACE")).orElse("RoomBooking"));
+
+    private static volatile PrintStream out = System.out;
+    private static volatile long lastFlush = System.nanoTime();
+
+    static {
+        Runtime.getRuntime().addShutdownHook(new Thread(Metrics::flush, "metrics-flush"));
+    }
+
+    public static RequestTimer start(String handler) {
+        return RequestTimer.begin(handler);
+    }
+
+    // Plain get first: computeIfAbsent may lock the bin even when the key is present
+    public static LatencyHistogram histogram(String handler, String phase) {
+        Map<String, LatencyHistogram> phases = histograms.get(handler);
+        if (phases == null) {
+            phases = histograms.computeIfAbsent(handler, h -> new ConcurrentHashMap<>());
+        }
+        LatencyHistogram histogram = phases.get(phase);
+        return histogram != null ? histogram : phases.computeIfAbsent(phase, p -> new LatencyHistogram());
+    }
+
+    // Redirects EMF output, e.g. to capture it in local runs
+    public static void setOutput(PrintStream output) {
+        out = output;
+    }
+
+    static void flushIfDue() {
+        long now = System.nanoTime();
+        if (now - lastFlush >= flushIntervalNanos) {
+            synchronized (Metrics.class) {
+                if (now - lastFlush >= flushIntervalNanos) {
+                    lastFlush = now;
+                    flush();
+                }
+            }
+        }
+    }
+
+    public static synchronized void flush() {
+        PrintStream output = out;
+        histograms.forEach((handler, phases) -> phases.forEach((phase, histogram) -> {
+            if (histogram.count() > 0) {
+                output.println(writer.line(handler, phase, histogram.drain(), System.currentTimeMillis()));
+            }
+        }));
+        output.flush();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.lambda.metrics;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Times the phases of one request. Phases are recorded from a start mark so the hot path is
+ * {@code System.nanoTime()} plus a histogram update:
+ * <pre>
+ * long t = timer.mark();
+ * parse(...);
+ * t = timer.record("Parse", t);
+ * </pre>
+ * The timer is bound to the calling thread until closed so SDK calls made on its behalf can
+ * record into it; closing records the total and may trigger a metrics flush.
+ */
+public class RequestTimer implements AutoCloseable {
+
+    private static final ThreadLocal<RequestTimer> current = new ThreadLocal<>();
+
+    private final String handler;
+    private final long started;
+    private final RequestTimer outer;
+
+    private RequestTimer(String handler, RequestTimer outer) {
+        this.handler = handler;
+        this.outer = outer;
+        this.started = System.nanoTime();
+    }
+
+    static RequestTimer begin(String handler) {
+        RequestTimer timer = new RequestTimer(handler, current.get());
+        current.set(timer);
+        return timer;
+    }
+
+    // Timer of the request running on this thread, or null outside a request
+    public static RequestTimer current() {
+        return current.get();
+    }
+
+    // Completes with the future, with the timer bound while dependent stages run on the completing thread
+    public static <T> CompletableFuture<T> carry(RequestTimer timer, CompletableFuture<T> future) {
+        if (timer == null) {
+            return future;
+        }
+        CompletableFuture<T> carried = new CompletableFuture<>();
+        future.whenComplete((value, error) -> {
+            RequestTimer previous = current.get();
+            current.set(timer);
+            try {
+                if (error != null) {
+                    carried.completeExceptionally(error);
+                } else {
+                    carried.complete(value);
+                }
+            } finally {
+                current.set(previous);
+            }
+        });
+        return carried;
+    }
+
+    public long mark() {
+        return System.nanoTime();
+    }
+
+    // Records the time since startNanos under the phase and returns now, the start of the next phase
+    public long record(String phase, long startNanos) {
+        long now = System.nanoTime();
+        Metrics.histogram(handler, phase).recordNanos(now - startNanos);
+        return now;
+    }
+
+    @Override
+    public void close() {
+        Metrics.histogram(handler, "Total").recordNanos(System.nanoTime() - started);
+        // set(null) rather than remove(): removing clears the entry's weak reference, a native call on every request
+        current.set(outer);
+        Metrics.flushIfDue();
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.lambda.model;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchBookingRequest {
+    private String action;
+    private String mode = "atomic";
+    private List<Booking> bookings = new ArrayList<>();
+    private List<String> bookingIds = new ArrayList<>();
+
+    public BatchBookingRequest() {}
+
+    // Getters and setters
+    public String getAction() { return action; }
+    public void setAction(String action) { this.action = action; }
+
+    public String getMode() { return mode; }
+    public void setMode(String mode) { this.mode = mode; }
+
+    public List<Booking> getBookings() { return bookings; }
+    public void setBookings(List<Booking> bookings) { this.bookings = bookings; }
+
+    public List<String> getBookingIds() { return bookingIds; }
+    public void setBookingIds(List<String> bookingIds) { this.bookingIds = bookingIds; }
+}
@@ -0,0 +1,30 @@
+package com.example.lambda.model;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    public enum Status { CREATED, CANCELLED, INVALID, CONFLICT, NOT_FOUND, ABORTED, FAILED }
+
+    private final int index;
+    private final String bookingId;
+    private final Status status;
+    private final String error;
+
+    public BatchItemResult(int index, String bookingId, Status status, String error) {
+        this.index = index;
+        this.bookingId = bookingId;
+        this.status = status;
+        this.error = error;
+    }
+
+    public int getIndex() { return index; }
+    public String getBookingId() { return bookingId; }
+    public Status getStatus() { return status; }
+    public String getError() { return error; }
+
+    @JsonIgnore
+    public boolean isSuccess() { return status == Status.CREATED || status == Status.CANCELLED; }
+}
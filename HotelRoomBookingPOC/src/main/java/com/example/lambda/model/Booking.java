@@ -1,6 +1,6 @@
 package com.example.lambda.model;
 
-import java.time.LocalDate;
+import com.fasterxml.jackson.annotation.JsonIgnore;
 
 public class Booking {
     private String bookingId;
@@ -10,6 +10,9 @@ public class Booking {
     private String checkOutDate;
     private boolean deleted = false;
 
+    // Epoch-day form of checkInDate/checkOutDate, parsed on first use
+    private DateRange stay;
+
     public Booking() {}
 
     // Getters and setters
@@ -23,11 +26,27 @@ public class Booking {
     public void setUserId(String userId) { this.userId = userId; }
 
     public String getCheckInDate() { return checkInDate; }
-    public void setCheckInDate(String checkInDate) { this.checkInDate = checkInDate; }
+    public void setCheckInDate(String checkInDate) { this.checkInDate = checkInDate; this.stay = null; }
 
     public String getCheckOutDate() { return checkOutDate; }
-    public void setCheckOutDate(String checkOutDate) { this.checkOutDate = checkOutDate; }
+    public void setCheckOutDate(String checkOutDate) { this.checkOutDate = checkOutDate; this.stay = null; }
 
     public boolean isDeleted() { return deleted; }
     public void setDeleted(boolean deleted) { this.deleted = deleted; }
+
+    // Throws DateTimeParseException if either date is not yyyy-MM-dd
+    @JsonIgnore
+    public DateRange getStay() {
+        if (stay == null) {
+            stay = DateRange.parse(checkInDate, checkOutDate);
+        }
+        return stay;
+    }
+
+    @JsonIgnore
+    public void setStay(DateRange stay) {
+        this.checkInDate = stay.checkInDate();
+        this.checkOutDate = stay.checkOutDate();
+        this.stay = stay;
+    }
 }
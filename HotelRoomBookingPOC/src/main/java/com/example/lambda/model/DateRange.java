@@ -0,0 +1,128 @@
+package com.example.lambda.model;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
+/**
+ * A stay as a half-open range of epoch days [checkIn, checkOut): the check-out day is not a night.
+ * Dates are parsed from yyyy-MM-dd once at the edge; everything past that works on the ints.
+ */
+public final class DateRange {
+
+    private final int checkInDay;
+    private final int checkOutDay;
+
+    public DateRange(int checkInDay, int checkOutDay) {
+        this.checkInDay = checkInDay;
+        this.checkOutDay = checkOutDay;
+    }
+
+    public static DateRange of(LocalDate checkIn, LocalDate checkOut) {
+        return new DateRange(Math.toIntExact(checkIn.toEpochDay()), Math.toIntExact(checkOut.toEpochDay()));
+    }
+
+    public static DateRange parse(String checkIn, String checkOut) {
+        return new DateRange(parseDay(checkIn), parseDay(checkOut));
+    }
+
+    // Strict yyyy-MM-dd to epoch day without building a LocalDate or a parser
+    public static int parseDay(String text) {
+        if (text == null || text.length() != 10 || text.charAt(4) != '-' || text.charAt(7) != '-') {
+            throw new DateTimeParseException("Expected yyyy-MM-dd", String.valueOf(text), 0);
+        }
+        int year = digits(text, 0, 4);
+        int month = digits(text, 5, 7);
+        int day = digits(text, 8, 10);
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            throw new DateTimeParseException("Invalid date", text, 0);
+        }
+        return epochDay(year, month, day);
+    }
+
+    public static String format(int epochDay) {
+        return LocalDate.ofEpochDay(epochDay).toString();
+    }
+
+    public static boolean overlaps(int checkInA, int checkOutA, int checkInB, int checkOutB) {
+        return checkInA < checkOutB && checkInB < checkOutA;
+    }
+
+    public int getCheckInDay() { return checkInDay; }
+
+    public int getCheckOutDay() { return checkOutDay; }
+
+    public int nights() {
+        return checkOutDay - checkInDay;
+    }
+
+    public boolean contains(int day) {
+        return day >= checkInDay && day < checkOutDay;
+    }
+
+    public boolean overlaps(DateRange other) {
+        return overlaps(checkInDay, checkOutDay, other.checkInDay, other.checkOutDay);
+    }
+
+    public String checkInDate() {
+        return format(checkInDay);
+    }
+
+    public String checkOutDate() {
+        return format(checkOutDay);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DateRange)) return false;
+        DateRange other = (DateRange) o;
+        return checkInDay == other.checkInDay && checkOutDay == other.checkOutDay;
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * checkInDay + checkOutDay;
+    }
+
+    @Override
+    public String toString() {
+        return "[" + checkInDate() + ", " + checkOutDate() + ")";
+    }
+
+    private static int digits(String text, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                throw new DateTimeParseException("Expected yyyy-MM-dd", text, i);
+            }
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+
+    private static boolean isLeap(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2: return isLeap(year) ? 29 : 28;
+            case 4: case 6: case 9: case 11: return 30;
+            default: return 31;
+        }
+    }
+
+    // Same arithmetic as LocalDate.toEpochDay, for non-negative years
+    private static int epochDay(int year, int month, int day) {
+        long total = 365L * year;
+        total += (year + 3) / 4 - (year + 99) / 100 + (year + 399) / 400;
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeap(year)) total--;
+        }
+        return (int) (total - 719528);
+    }
+}
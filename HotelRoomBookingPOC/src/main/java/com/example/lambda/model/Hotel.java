@@ -1,4 +1,22 @@
 package com.example.lambda.model;
 
+import java.util.ArrayList;
+import java.util.List;
+
 public class Hotel {
+    private String hotelId;
+    private String name;
+    private List<String> roomIds = new ArrayList<>();
+
+    public Hotel() {}
+
+    // Getters and setters
+    public String getHotelId() { return hotelId; }
+    public void setHotelId(String hotelId) { this.hotelId = hotelId; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public List<String> getRoomIds() { return roomIds; }
+    public void setRoomIds(List<String> roomIds) { this.roomIds = roomIds; }
 }
@@ -0,0 +1,43 @@
+package com.example.lambda.projection;
+
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+/** One change to a Bookings item as delivered by its stream; an image is null when the item did not exist. */
+public class BookingChange {
+
+    private final String bookingId;
+    private final String sequenceNumber;
+    private final Map<String, AttributeValue> oldImage;
+    private final Map<String, AttributeValue> newImage;
+
+    public BookingChange(String bookingId, String sequenceNumber,
+                         Map<String, AttributeValue> oldImage, Map<String, AttributeValue> newImage) {
+        this.bookingId = bookingId;
+        this.sequenceNumber = sequenceNumber;
+        this.oldImage = oldImage;
+        this.newImage = newImage;
+    }
+
+    public String getBookingId() {
+        return bookingId;
+    }
+
+    public String getSequenceNumber() {
+        return sequenceNumber;
+    }
+
+    public Map<String, AttributeValue> getOldImage() {
+        return oldImage;
+    }
+
+    public Map<String, AttributeValue> getNewImage() {
+        return newImage;
+    }
+
+    // The latest known state of the item, whichever image carries it
+    Map<String, AttributeValue> image() {
+        return newImage != null ? newImage : oldImage;
+    }
+}
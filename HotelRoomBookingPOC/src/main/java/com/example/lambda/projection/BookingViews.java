@@ -0,0 +1,140 @@
+package com.example.lambda.projection;
+
+import com.example.lambda.async.AsyncDynamo;
+import com.example.lambda.model.DateRange;
+import com.example.lambda.util.DynamoDBClientUtil;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Read models in the BookingViews table (key viewId), maintained from the Bookings stream by
+ * {@link ViewProjector}. "room#" + roomId and "user#" + userId hold each active booking as attribute
+ * "b_" + bookingId, so a room's or user's bookings are one GetItem. "days#yyyy-MM#shard" items count
+ * booked rooms per night in "c" + epoch day, split over {@link #COUNT_SHARDS} items to spread writes.
+ * The marker of a booking removed from the table carries {@link #EXPIRES_AT} (epoch seconds), and
+ * TTL on that attribute deletes it once the stream can no longer redeliver the booking's records.
+ * Views trail the table by the stream delay. With BOOKING_VIEWS=true the room and user searches read
+ * them, falling back to the indexes for views that do not exist yet or grew past MAX_ENTRIES.
+ */
+public class BookingViews {
+
+    public static final String TABLE = "BookingViews";
+    public static final boolean ENABLED = "true".equalsIgnoreCase(System.getenv("BOOKING_VIEWS"));
+    public static final int COUNT_SHARDS = 8;
+
+    // Keeps a view item well under the 400 KB item limit; larger rooms and users are served by the indexes
+    static final int MAX_ENTRIES = 800;
+    static final String ENTRY_PREFIX = "b_";
+    static final String ENTRIES = "entries";
+    static final String OVERFLOW = "overflow";
+    // TTL attribute of the BookingViews table
+    public static final String EXPIRES_AT = "expiresAt";
+
+    private static final Comparator<Map<String, AttributeValue>> ORDER = Comparator
+            .comparing((Map<String, AttributeValue> entry) -> entry.get("checkInDate").s())
+            .thenComparing(entry -> entry.get("bookingId").s());
+
+    public static String roomView(String roomId) {
+        return "room#" + roomId;
+    }
+
+    public static String userView(String userId) {
+        return "user#" + userId;
+    }
+
+    static String marker(String bookingId) {
+        return "booking#" + bookingId;
+    }
+
+    static String counts(YearMonth month, int shard) {
+        return "days#" + month + "#" + shard;
+    }
+
+    static String countAttribute(int epochDay) {
+        return "c" + epochDay;
+    }
+
+    static Map<String, AttributeValue> key(String viewId) {
+        return Map.of("viewId", AttributeValue.fromS(viewId));
+    }
+
+    // A page shaped like the index query it replaces, including a LastEvaluatedKey the same tokens decode to
+    public static Optional<QueryResponse> page(String viewId, String keyName, int limit, Map<String, AttributeValue> startKey) {
+        GetItemResponse response = DynamoDBClientUtil.getClient().getItem(GetItemRequest.builder()
+                .tableName(TABLE)
+                .key(key(viewId))
+                .build());
+        Map<String, AttributeValue> view = response.item();
+        if (view == null || view.isEmpty() || isTrue(view.get(OVERFLOW))) {
+            return Optional.empty();
+        }
+
+        List<Map<String, AttributeValue>> entries = new ArrayList<>();
+        view.forEach((name, value) -> {
+            if (name.startsWith(ENTRY_PREFIX) && value.hasM()) entries.add(value.m());
+        });
+        entries.sort(ORDER);
+
+        int from = 0;
+        if (startKey != null && startKey.containsKey("checkInDate") && startKey.containsKey("bookingId")) {
+            while (from < entries.size() && ORDER.compare(entries.get(from), startKey) <= 0) {
+                from++;
+            }
+        }
+        int to = Math.min(entries.size(), from + limit);
+        QueryResponse.Builder page = QueryResponse.builder()
+                .items(entries.subList(from, to))
+                .count(to - from)
+                .scannedCount(to - from);
+        if (to < entries.size()) {
+            Map<String, AttributeValue> last = entries.get(to - 1);
+            Map<String, AttributeValue> lastKey = new HashMap<>();
+            lastKey.put("bookingId", last.get("bookingId"));
+            lastKey.put("checkInDate", last.get("checkInDate"));
+            lastKey.put(keyName, last.get(keyName));
+            page.lastEvaluatedKey(lastKey);
+        }
+        return Optional.of(page.build());
+    }
+
+    // Booked rooms per night of the range, summed over the count shards
+    public static int[] bookedRooms(DateRange range) {
+        int firstDay = range.getCheckInDay();
+        int[] nights = new int[range.getCheckOutDay() - firstDay];
+        TreeSet<YearMonth> months = new TreeSet<>();
+        for (int day = firstDay; day < range.getCheckOutDay(); day++) {
+            months.add(YearMonth.from(LocalDate.ofEpochDay(day)));
+        }
+        List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        for (YearMonth month : months) {
+            for (int shard = 0; shard < COUNT_SHARDS; shard++) {
+                keys.add(key(counts(month, shard)));
+            }
+        }
+        for (Map<String, AttributeValue> item : AsyncDynamo.join(AsyncDynamo.batchGetAll(TABLE, keys))) {
+            for (int i = 0; i < nights.length; i++) {
+                AttributeValue count = item.get(countAttribute(firstDay + i));
+                if (count != null && count.n() != null) {
+                    nights[i] += Integer.parseInt(count.n());
+                }
+            }
+        }
+        return nights;
+    }
+
+    static boolean isTrue(AttributeValue value) {
+        return value != null && Boolean.TRUE.equals(value.bool());
+    }
+}
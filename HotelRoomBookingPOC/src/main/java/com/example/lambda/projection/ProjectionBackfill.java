@@ -0,0 +1,76 @@
+package com.example.lambda.projection;
+
+import com.example.lambda.bulk.BulkExport;
+import com.example.lambda.bulk.Workers;
+import com.example.lambda.logging.Log;
+import com.example.lambda.resilience.ThroughputLimiter;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.ReturnConsumedCapacity;
+import software.amazon.awssdk.services.dynamodb.model.ScanRequest;
+import software.amazon.awssdk.services.dynamodb.model.ScanResponse;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Brings bookings written before the stream projection (or before it projected occupancy) into
+ * {@link BookingViews} and the RoomOccupancy counters, through {@link ViewProjector#backfill}. Bookings
+ * is read with a paced parallel Scan (BACKFILL_SEGMENTS, default 4, at BACKFILL_READ_UNITS_PER_SECOND,
+ * default 100) in pages of BACKFILL_PAGE_SIZE items (default 100). Every step is guarded by the booking
+ * markers, so it can run while the stream is live and a failed run is simply run again.
+ *
+ * <pre>java -cp target/room-booking-lambda-1.0.jar com.example.lambda.projection.ProjectionBackfill</pre>
+ */
+public class ProjectionBackfill {
+
+    private static final String TABLE = "Bookings";
+
+    // Returns how many bookings were written
+    public static long run() throws IOException {
+        int totalSegments = envInt("BACKFILL_SEGMENTS", 4);
+        int pageSize = envInt("BACKFILL_PAGE_SIZE", 100);
+        ThroughputLimiter limiter = new ThroughputLimiter(envInt("BACKFILL_READ_UNITS_PER_SECOND", 100));
+        AtomicLong written = new AtomicLong();
+        List<Workers.Task> tasks = new ArrayList<>();
+        for (int segment = 0; segment < totalSegments; segment++) {
+            int current = segment;
+            tasks.add(() -> {
+                Map<String, AttributeValue> startKey = null;
+                do {
+                    Workers.checkInterrupted();
+                    ScanResponse page = BulkExport.scan(ScanRequest.builder()
+                            .tableName(TABLE)
+                            .segment(current)
+                            .totalSegments(totalSegments)
+                            .limit(pageSize)
+                            .exclusiveStartKey(startKey)
+                            .returnConsumedCapacity(ReturnConsumedCapacity.TOTAL)
+                            .build(), limiter);
+                    written.addAndGet(ViewProjector.backfill(page.items()));
+                    startKey = page.hasLastEvaluatedKey() && !page.lastEvaluatedKey().isEmpty() ? page.lastEvaluatedKey() : null;
+                } while (startKey != null);
+            });
+        }
+        Workers.runAll(totalSegments, tasks);
+        return written.get();
+    }
+
+    public static void main(String[] args) {
+        try {
+            long began = System.nanoTime();
+            long written = run();
+            Log.info("backfill.done", "bookings", written, "ms", (System.nanoTime() - began) / 1_000_000);
+        } catch (Exception e) {
+            Log.error("backfill.failed", "error", e.toString());
+            System.exit(1);
+        }
+    }
+
+    private static int envInt(String name, int fallback) {
+        return Optional.ofNullable(System.getenv(name)).map(String::trim).map(Integer::parseInt).orElse(fallback);
+    }
+}
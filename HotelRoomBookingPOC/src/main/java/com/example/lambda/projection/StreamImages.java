@@ -0,0 +1,45 @@
+package com.example.lambda.projection;
+
+import com.amazonaws.services.lambda.runtime.events.models.dynamodb.AttributeValue;
+import software.amazon.awssdk.core.SdkBytes;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Converts stream images (Lambda events model) to the SDK attribute values the rest of the code uses. */
+public class StreamImages {
+
+    public static Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> toSdk(Map<String, AttributeValue> image) {
+        if (image == null) {
+            return null;
+        }
+        Map<String, software.amazon.awssdk.services.dynamodb.model.AttributeValue> item = new LinkedHashMap<>();
+        image.forEach((name, value) -> item.put(name, toSdk(value)));
+        return item;
+    }
+
+    public static software.amazon.awssdk.services.dynamodb.model.AttributeValue toSdk(AttributeValue value) {
+        var builder = software.amazon.awssdk.services.dynamodb.model.AttributeValue.builder();
+        if (value.getS() != null) return builder.s(value.getS()).build();
+        if (value.getN() != null) return builder.n(value.getN()).build();
+        if (value.getBOOL() != null) return builder.bool(value.getBOOL()).build();
+        if (value.getNULL() != null) return builder.nul(value.getNULL()).build();
+        if (value.getB() != null) return builder.b(SdkBytes.fromByteBuffer(value.getB().duplicate())).build();
+        if (value.getSS() != null) return builder.ss(value.getSS()).build();
+        if (value.getNS() != null) return builder.ns(value.getNS()).build();
+        if (value.getBS() != null) {
+            List<SdkBytes> bytes = new ArrayList<>();
+            value.getBS().forEach(b -> bytes.add(SdkBytes.fromByteBuffer(b.duplicate())));
+            return builder.bs(bytes).build();
+        }
+        if (value.getM() != null) return builder.m(toSdk(value.getM())).build();
+        if (value.getL() != null) {
+            List<software.amazon.awssdk.services.dynamodb.model.AttributeValue> list = new ArrayList<>();
+            value.getL().forEach(element -> list.add(toSdk(element)));
+            return builder.l(list).build();
+        }
+        return builder.nul(true).build();
+    }
+}
@@ -0,0 +1,423 @@
+package com.example.lambda.projection;
+
+import com.example.lambda.async.AsyncDynamo;
+import com.example.lambda.availability.RoomOccupancy;
+import com.example.lambda.logging.Log;
+import com.example.lambda.model.DateRange;
+import com.example.lambda.util.StayAttributes;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Applies Bookings stream records to {@link BookingViews}. Each booking has a marker item
+ * ("booking#" + bookingId) with the last applied sequence number and the state it projected; one
+ * transaction per booking moves the marker forward and applies the difference from that state to the
+ * room view, user view, night counts and the room's {@link RoomOccupancy} counters. A record at or
+ * below the marker is a redelivery and is skipped, so replays and retried batches are harmless.
+ * Records of one booking in a batch collapse into its latest image; transactions sharing an item run
+ * one after another, the rest concurrently. A REMOVE record leaves the marker to expire by TTL rather
+ * than deleting it, since deleting it would let a redelivered earlier record project the booking
+ * again. {@link #backfill} brings in bookings the stream never delivered, and the occupancy of
+ * markers written before occupancy was projected (their "occupancy" flag is missing).
+ */
+public class ViewProjector {
+
+    private static final String TABLE = BookingViews.TABLE;
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int SEQUENCE_WIDTH = 40;
+    private static final String OCCUPANCY = "occupancy";
+    // Sorts below every real sequence number, so any stream record supersedes a backfilled booking
+    private static final String BACKFILL_SEQUENCE = "0";
+    // Stream records are kept for 24 hours; a removed booking's marker outlives them so redeliveries are still skipped
+    private static final long REMOVED_MARKER_SECONDS = TimeUnit.DAYS.toSeconds(2);
+    private static final List<String> STATE_ATTRIBUTES = List.of(
+            "viewId", "seq", "live", "roomId", "userId", StayAttributes.CHECK_IN_DAY, StayAttributes.CHECK_OUT_DAY,
+            OCCUPANCY, BookingViews.ENTRIES, BookingViews.OVERFLOW);
+
+    /** What a booking contributes to the views: nothing unless live. */
+    private static final class Projected {
+        final boolean live;
+        final String roomId;
+        final String userId;
+        final DateRange stay;
+
+        Projected(boolean live, String roomId, String userId, DateRange stay) {
+            this.live = live;
+            this.roomId = roomId;
+            this.userId = userId;
+            this.stay = stay;
+        }
+
+        static Projected of(Map<String, AttributeValue> image, boolean exists) {
+            boolean live = exists && !BookingViews.isTrue(image.get("deleted"));
+            return new Projected(live, string(image, "roomId"), string(image, "userId"),
+                    live ? StayAttributes.read(image) : null);
+        }
+
+        static Projected of(Map<String, AttributeValue> marker) {
+            if (marker == null || !BookingViews.isTrue(marker.get("live"))) {
+                return NONE;
+            }
+            return Projected.of(marker, true);
+        }
+
+        // What the marker's booking contributes to occupancy: only what an earlier projection counted
+        static Projected counted(Map<String, AttributeValue> marker) {
+            return marker != null && BookingViews.isTrue(marker.get(OCCUPANCY)) ? of(marker) : NONE;
+        }
+    }
+
+    private static final Projected NONE = new Projected(false, null, null, null);
+
+    // Applies the changes in stream order; on failure returns the sequence number to redeliver from
+    public static Optional<String> apply(List<BookingChange> changes) {
+        Map<String, BookingChange> latest = new LinkedHashMap<>();
+        Map<String, String> first = new HashMap<>();
+        for (BookingChange change : changes) {
+            latest.put(change.getBookingId(), change);
+            first.putIfAbsent(change.getBookingId(), change.getSequenceNumber());
+        }
+        if (latest.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Map<String, Map<String, AttributeValue>> state = AsyncDynamo.join(read(stateKeys(latest.values())));
+        Map<String, CompletableFuture<Void>> results = projectAll(latest.values(), state);
+
+        String redeliverFrom = null;
+        for (Map.Entry<String, CompletableFuture<Void>> result : results.entrySet()) {
+            try {
+                AsyncDynamo.join(result.getValue());
+            } catch (RuntimeException e) {
+                String sequence = first.get(result.getKey());
+                Log.warn("projection.failed", "sequenceNumber", sequence, "error", e.toString());
+                if (redeliverFrom == null || padded(sequence).compareTo(padded(redeliverFrom)) < 0) {
+                    redeliverFrom = sequence;
+                }
+            }
+        }
+        return Optional.ofNullable(redeliverFrom);
+    }
+
+    // Brings a page of Bookings items into the views: items without a marker are projected as if inserted
+    // before any stream record, then live markers missing the occupancy flag have their nights counted.
+    // Returns how many bookings were written; a failure propagates and the page can simply be backfilled again
+    public static int backfill(List<Map<String, AttributeValue>> bookings) {
+        List<BookingChange> changes = new ArrayList<>();
+        bookings.forEach(item -> changes.add(new BookingChange(item.get("bookingId").s(), BACKFILL_SEQUENCE, null, item)));
+        Map<String, Map<String, AttributeValue>> state = AsyncDynamo.join(read(stateKeys(changes)));
+
+        List<BookingChange> unprojected = new ArrayList<>();
+        List<String> uncounted = new ArrayList<>();
+        for (BookingChange change : changes) {
+            Map<String, AttributeValue> marker = state.get(BookingViews.marker(change.getBookingId()));
+            if (marker == null) {
+                unprojected.add(change);
+            } else if (occupancyWrites(marker).isPresent()) {
+                uncounted.add(BookingViews.marker(change.getBookingId()));
+            }
+        }
+        AsyncDynamo.join(AsyncDynamo.all(new ArrayList<>(projectAll(unprojected, state).values())));
+        // Old markers of one room share its month items, so they are counted one at a time
+        for (String markerId : uncounted) {
+            AsyncDynamo.join(transact(List.of(BookingViews.key(markerId)), fresh -> occupancyWrites(fresh.get(markerId)), state, 0));
+        }
+        return unprojected.size() + uncounted.size();
+    }
+
+    // One projection per change, chained behind earlier ones that touch a shared item; keyed by bookingId
+    private static Map<String, CompletableFuture<Void>> projectAll(Iterable<BookingChange> changes,
+                                                                   Map<String, Map<String, AttributeValue>> state) {
+        Map<String, CompletableFuture<Void>> lastByItem = new HashMap<>();
+        Map<String, CompletableFuture<Void>> results = new LinkedHashMap<>();
+        for (BookingChange change : changes) {
+            List<String> items = touched(change, state);
+            List<CompletableFuture<Void>> before = new ArrayList<>();
+            items.forEach(item -> Optional.ofNullable(lastByItem.get(item)).ifPresent(before::add));
+            CompletableFuture<Void> result = CompletableFuture.allOf(before.toArray(new CompletableFuture<?>[0]))
+                    .handle((done, error) -> null)
+                    .thenCompose(ready -> transact(stateKeys(List.of(change)), fresh -> writes(change, fresh), state, 0));
+            items.forEach(item -> lastByItem.put(item, result));
+            results.put(change.getBookingId(), result);
+        }
+        return results;
+    }
+
+    // Issues the writes computed from the state; when a condition fails the keys are re-read and the writes computed again
+    private static CompletableFuture<Void> transact(List<Map<String, AttributeValue>> keys,
+                                                    Function<Map<String, Map<String, AttributeValue>>, Optional<TransactWriteItemsRequest>> writes,
+                                                    Map<String, Map<String, AttributeValue>> state, int attempt) {
+        Optional<TransactWriteItemsRequest> request = writes.apply(state);
+        if (!request.isPresent()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        return AsyncDynamo.transactWriteItems(request.get()).handle((response, error) -> {
+            if (error == null) {
+                return CompletableFuture.<Void>completedFuture(null);
+            }
+            // Another invocation moved the marker or a view since it was read: re-read and diff again
+            if (!AsyncDynamo.cause(error, TransactionCanceledException.class).isPresent() || attempt + 1 == MAX_ATTEMPTS) {
+                return CompletableFuture.<Void>failedFuture(error);
+            }
+            return AsyncDynamo.after(25L << attempt)
+                    .thenCompose(waited -> read(keys))
+                    .thenCompose(fresh -> {
+                        Map<String, Map<String, AttributeValue>> merged = new HashMap<>(state);
+                        keys.forEach(key -> merged.remove(key.get("viewId").s()));
+                        merged.putAll(fresh);
+                        return transact(keys, writes, merged, attempt + 1);
+                    });
+        }).thenCompose(next -> next);
+    }
+
+    // Empty when the change is already applied
+    static Optional<TransactWriteItemsRequest> writes(BookingChange change, Map<String, Map<String, AttributeValue>> state) {
+        String markerId = BookingViews.marker(change.getBookingId());
+        Map<String, AttributeValue> marker = state.get(markerId);
+        String sequence = padded(change.getSequenceNumber());
+        if (marker != null && marker.containsKey("seq") && marker.get("seq").s().compareTo(sequence) >= 0) {
+            return Optional.empty();
+        }
+        Projected before = Projected.of(marker);
+        Projected after = Projected.of(change.image(), change.getNewImage() != null);
+
+        List<TransactWriteItem> writes = new ArrayList<>();
+        writes.add(markerWrite(change, marker, sequence, after));
+        writes.addAll(viewWrites(BookingViews::roomView, before.live ? before.roomId : null, after.live ? after.roomId : null,
+                change, state));
+        writes.addAll(viewWrites(BookingViews::userView, before.live ? before.userId : null, after.live ? after.userId : null,
+                change, state));
+        writes.addAll(countWrites(change.getBookingId(), before, after));
+        writes.addAll(occupancyWrites(Projected.counted(marker), after));
+        return Optional.of(TransactWriteItemsRequest.builder().transactItems(writes).build());
+    }
+
+    // Counts the nights of a live marker written before occupancy was projected; empty once counted
+    private static Optional<TransactWriteItemsRequest> occupancyWrites(Map<String, AttributeValue> marker) {
+        if (marker == null || marker.containsKey(OCCUPANCY) || !BookingViews.isTrue(marker.get("live"))) {
+            return Optional.empty();
+        }
+        List<TransactWriteItem> writes = new ArrayList<>();
+        writes.add(TransactWriteItem.builder()
+                .update(Update.builder()
+                        .tableName(TABLE)
+                        .key(BookingViews.key(marker.get("viewId").s()))
+                        .updateExpression("SET " + OCCUPANCY + " = :true")
+                        .conditionExpression("seq = :seq AND attribute_not_exists(" + OCCUPANCY + ")")
+                        .expressionAttributeValues(Map.of(":true", AttributeValue.fromBool(true), ":seq", marker.get("seq")))
+                        .build())
+                .build());
+        writes.addAll(occupancyWrites(NONE, Projected.of(marker)));
+        return Optional.of(TransactWriteItemsRequest.builder().transactItems(writes).build());
+    }
+
+    private static TransactWriteItem markerWrite(BookingChange change, Map<String, AttributeValue> marker,
+                                                 String sequence, Projected after) {
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("viewId", AttributeValue.fromS(BookingViews.marker(change.getBookingId())));
+        item.put("seq", AttributeValue.fromS(sequence));
+        item.put("live", AttributeValue.fromBool(after.live));
+        item.put(OCCUPANCY, AttributeValue.fromBool(after.live));
+        if (change.getNewImage() == null) {
+            long expiresAt = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + REMOVED_MARKER_SECONDS;
+            item.put(BookingViews.EXPIRES_AT, AttributeValue.fromN(Long.toString(expiresAt)));
+        }
+        if (after.live) {
+            item.put("roomId", AttributeValue.fromS(after.roomId));
+            item.put("userId", AttributeValue.fromS(after.userId));
+            item.put(StayAttributes.CHECK_IN_DAY, AttributeValue.fromN(Integer.toString(after.stay.getCheckInDay())));
+            item.put(StayAttributes.CHECK_OUT_DAY, AttributeValue.fromN(Integer.toString(after.stay.getCheckOutDay())));
+        }
+        Put.Builder put = Put.builder().tableName(TABLE).item(item);
+        if (marker == null) {
+            put.conditionExpression("attribute_not_exists(viewId)");
+        } else {
+            put.conditionExpression("seq = :seq").expressionAttributeValues(Map.of(":seq", marker.get("seq")));
+        }
+        return TransactWriteItem.builder().put(put.build()).build();
+    }
+
+    // Removes the entry from the view it left and writes it to the view it is in; overflowed views are left alone
+    private static List<TransactWriteItem> viewWrites(Function<String, String> viewOf, String from, String to,
+                                                      BookingChange change, Map<String, Map<String, AttributeValue>> state) {
+        List<TransactWriteItem> writes = new ArrayList<>();
+        Map<String, String> names = Map.of("#b", BookingViews.ENTRY_PREFIX + change.getBookingId());
+        if (from != null && !from.equals(to) && !overflowed(state.get(viewOf.apply(from)))) {
+            writes.add(update(viewOf.apply(from), "REMOVE #b ADD " + BookingViews.ENTRIES + " :delta", names,
+                    Map.of(":delta", AttributeValue.fromN("-1"))));
+        }
+        if (to == null || overflowed(state.get(viewOf.apply(to)))) {
+            return writes;
+        }
+        Map<String, AttributeValue> view = state.get(viewOf.apply(to));
+        if (to.equals(from)) {
+            writes.add(update(viewOf.apply(to), "SET #b = :entry", names,
+                    Map.of(":entry", AttributeValue.fromM(change.getNewImage()))));
+        } else if (entries(view) >= BookingViews.MAX_ENTRIES) {
+            writes.add(update(viewOf.apply(to), "SET " + BookingViews.OVERFLOW + " = :true", Map.of(),
+                    Map.of(":true", AttributeValue.fromBool(true))));
+        } else {
+            writes.add(update(viewOf.apply(to), "SET #b = :entry ADD " + BookingViews.ENTRIES + " :delta", names,
+                    Map.of(":entry", AttributeValue.fromM(change.getNewImage()), ":delta", AttributeValue.fromN("1"))));
+        }
+        return writes;
+    }
+
+    // Net change per night, one ADD per month on this booking's count shard
+    private static List<TransactWriteItem> countWrites(String bookingId, Projected before, Projected after) {
+        TreeMap<Integer, Integer> delta = new TreeMap<>();
+        addNights(delta, before, -1);
+        addNights(delta, after, 1);
+        Map<YearMonth, Map<Integer, Integer>> byMonth = new TreeMap<>();
+        delta.forEach((night, change) -> {
+            if (change != 0) {
+                byMonth.computeIfAbsent(YearMonth.from(LocalDate.ofEpochDay(night)), m -> new TreeMap<>()).put(night, change);
+            }
+        });
+
+        List<TransactWriteItem> writes = new ArrayList<>();
+        int shard = shard(bookingId);
+        byMonth.forEach((month, nights) -> {
+            List<String> adds = new ArrayList<>();
+            Map<String, String> names = new HashMap<>();
+            Map<String, AttributeValue> values = new HashMap<>();
+            nights.forEach((night, change) -> {
+                names.put("#c" + night, BookingViews.countAttribute(night));
+                values.put(":c" + night, AttributeValue.fromN(Integer.toString(change)));
+                adds.add("#c" + night + " :c" + night);
+            });
+            writes.add(update(BookingViews.counts(month, shard), "ADD " + String.join(", ", adds), names, values));
+        });
+        return writes;
+    }
+
+    // Net change per night of each room the booking leaves or enters
+    private static List<TransactWriteItem> occupancyWrites(Projected before, Projected after) {
+        Map<String, TreeMap<Integer, Integer>> byRoom = new TreeMap<>();
+        if (before.live) addNights(byRoom.computeIfAbsent(before.roomId, r -> new TreeMap<>()), before, -1);
+        if (after.live) addNights(byRoom.computeIfAbsent(after.roomId, r -> new TreeMap<>()), after, 1);
+        List<TransactWriteItem> writes = new ArrayList<>();
+        byRoom.forEach((roomId, delta) -> writes.addAll(RoomOccupancy.writes(roomId, delta)));
+        return writes;
+    }
+
+    private static void addNights(Map<Integer, Integer> delta, Projected projected, int change) {
+        if (projected.live) {
+            for (int night = projected.stay.getCheckInDay(); night < projected.stay.getCheckOutDay(); night++) {
+                delta.merge(night, change, Integer::sum);
+            }
+        }
+    }
+
+    private static TransactWriteItem update(String viewId, String expression, Map<String, String> names,
+                                            Map<String, AttributeValue> values) {
+        return TransactWriteItem.builder()
+                .update(Update.builder()
+                        .tableName(TABLE)
+                        .key(BookingViews.key(viewId))
+                        .updateExpression(expression)
+                        .expressionAttributeNames(names.isEmpty() ? null : names)
+                        .expressionAttributeValues(values)
+                        .build())
+                .build();
+    }
+
+    // Items a booking's transaction may write, so transactions sharing one are not issued together
+    private static List<String> touched(BookingChange change, Map<String, Map<String, AttributeValue>> state) {
+        List<String> items = new ArrayList<>(stateIds(change));
+        Projected before = Projected.of(state.get(BookingViews.marker(change.getBookingId())));
+        if (before.live) {
+            items.add(BookingViews.roomView(before.roomId));
+            items.add(BookingViews.userView(before.userId));
+        }
+        int shard = shard(change.getBookingId());
+        Projected after = Projected.of(change.image(), change.getNewImage() != null);
+        for (Projected projected : List.of(before, after)) {
+            if (projected.live) {
+                for (int night = projected.stay.getCheckInDay(); night < projected.stay.getCheckOutDay(); night++) {
+                    items.add(BookingViews.counts(YearMonth.from(LocalDate.ofEpochDay(night)), shard));
+                }
+            }
+        }
+        for (Projected projected : List.of(Projected.counted(state.get(BookingViews.marker(change.getBookingId()))), after)) {
+            if (projected.live) {
+                for (int night = projected.stay.getCheckInDay(); night < projected.stay.getCheckOutDay(); night++) {
+                    items.add("occupancy#" + RoomOccupancy.itemId(projected.roomId, night));
+                }
+            }
+        }
+        return items.stream().distinct().toList();
+    }
+
+    private static List<String> stateIds(BookingChange change) {
+        List<String> ids = new ArrayList<>();
+        ids.add(BookingViews.marker(change.getBookingId()));
+        String roomId = string(change.image(), "roomId");
+        String userId = string(change.image(), "userId");
+        if (roomId != null) ids.add(BookingViews.roomView(roomId));
+        if (userId != null) ids.add(BookingViews.userView(userId));
+        return ids;
+    }
+
+    // Markers plus the counters of the views the changes move into; entries themselves are not read
+    private static List<Map<String, AttributeValue>> stateKeys(Iterable<BookingChange> changes) {
+        List<Map<String, AttributeValue>> keys = new ArrayList<>();
+        List<String> seen = new ArrayList<>();
+        for (BookingChange change : changes) {
+            for (String id : stateIds(change)) {
+                if (!seen.contains(id)) {
+                    seen.add(id);
+                    keys.add(BookingViews.key(id));
+                }
+            }
+        }
+        return keys;
+    }
+
+    private static CompletableFuture<Map<String, Map<String, AttributeValue>>> read(List<Map<String, AttributeValue>> keys) {
+        return AsyncDynamo.batchGetAll(TABLE, keys, STATE_ATTRIBUTES).thenApply(items -> {
+            Map<String, Map<String, AttributeValue>> state = new HashMap<>();
+            items.forEach(item -> state.put(item.get("viewId").s(), item));
+            return state;
+        });
+    }
+
+    private static boolean overflowed(Map<String, AttributeValue> view) {
+        return view != null && BookingViews.isTrue(view.get(BookingViews.OVERFLOW));
+    }
+
+    private static int entries(Map<String, AttributeValue> view) {
+        AttributeValue entries = view == null ? null : view.get(BookingViews.ENTRIES);
+        return entries == null || entries.n() == null ? 0 : Integer.parseInt(entries.n());
+    }
+
+    private static int shard(String bookingId) {
+        return Math.floorMod(bookingId.hashCode(), BookingViews.COUNT_SHARDS);
+    }
+
+    // Stream sequence numbers are decimal strings of varying length; padding makes them compare as numbers
+    static String padded(String sequenceNumber) {
+        StringBuilder padded = new StringBuilder(SEQUENCE_WIDTH);
+        for (int i = sequenceNumber.length(); i < SEQUENCE_WIDTH; i++) {
+            padded.append('0');
+        }
+        return padded.append(sequenceNumber).toString();
+    }
+
+    private static String string(Map<String, AttributeValue> item, String name) {
+        AttributeValue value = item == null ? null : item.get(name);
+        return value == null ? null : value.s();
+    }
+}
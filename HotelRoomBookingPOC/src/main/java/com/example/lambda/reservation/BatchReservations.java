@@ -0,0 +1,199 @@
+package com.example.lambda.reservation;
+
+import com.example.lambda.async.AsyncDynamo;
+import com.example.lambda.cache.BookingCache;
+import com.example.lambda.model.BatchItemResult;
+import com.example.lambda.model.BatchItemResult.Status;
+import com.example.lambda.model.Booking;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.CancellationReason;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.IntFunction;
+
+/**
+ * Group create and cancel. Atomic batches go out as one TransactWriteItems call covering every
+ * booking and room-night lock, so they are limited to {@value #MAX_TRANSACTION_ITEMS} items in
+ * total. Partial batches use one transaction per booking and report each outcome separately;
+ * their items run concurrently, except that creates for the same room keep their batch order.
+ * Plain BatchWriteItem is not used because it cannot carry the lock conditions.
+ */
+public class BatchReservations {
+
+    public static final int MAX_BATCH_SIZE = 25;
+    public static final int MAX_TRANSACTION_ITEMS = 100;
+    private static final int MAX_ATTEMPTS = 3;
+
+    // Bookings must already be validated and carry their new bookingIds
+    public static List<BatchItemResult> createAtomic(List<Booking> bookings) {
+        List<TransactWriteItem> writes = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            for (TransactWriteItem write : BookingReservations.createWrites(booking)) {
+                writes.add(write);
+                owners.add(i);
+            }
+        }
+        if (writes.size() > MAX_TRANSACTION_ITEMS) {
+            return failAll(bookings.size(), i -> null, Status.INVALID,
+                    "Atomic batch needs " + writes.size() + " writes (bookings plus nights); the limit is " + MAX_TRANSACTION_ITEMS);
+        }
+
+        Optional<List<Integer>> failed = transactAll(writes, owners);
+        if (!failed.isPresent()) {
+            bookings.forEach(booking -> BookingCache.invalidate(null, booking.getRoomId(), booking.getUserId()));
+        }
+        List<BatchItemResult> results = new ArrayList<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            String bookingId = bookings.get(i).getBookingId();
+            if (!failed.isPresent()) {
+                results.add(new BatchItemResult(i, bookingId, Status.CREATED, null));
+            } else if (failed.get().contains(i)) {
+                results.add(new BatchItemResult(i, null, Status.CONFLICT, "Room is already booked for the specified period"));
+            } else {
+                results.add(new BatchItemResult(i, null, Status.ABORTED, "Batch rolled back"));
+            }
+        }
+        return results;
+    }
+
+    public static List<BatchItemResult> createPartial(List<Booking> bookings, List<Optional<String>> validationErrors) {
+        List<CompletableFuture<BatchItemResult>> results = new ArrayList<>();
+        Map<String, CompletableFuture<?>> lastByRoom = new LinkedHashMap<>();
+        for (int i = 0; i < bookings.size(); i++) {
+            if (validationErrors.get(i).isPresent()) {
+                results.add(CompletableFuture.completedFuture(
+                        new BatchItemResult(i, null, Status.INVALID, validationErrors.get(i).get())));
+                continue;
+            }
+            int position = i;
+            Booking booking = bookings.get(i);
+            // Chained behind the previous create for the room, so the earlier item wins a clash as it did sequentially
+            CompletableFuture<?> previous = lastByRoom.getOrDefault(booking.getRoomId(), CompletableFuture.completedFuture(null));
+            CompletableFuture<BatchItemResult> result = previous
+                    .handle((ignored, error) -> null)
+                    .thenCompose(ready -> BookingReservations.createAsync(booking))
+                    .handle((outcome, error) -> error != null
+                            ? new BatchItemResult(position, null, Status.FAILED, "Failed to create booking")
+                            : outcome == ReservationOutcome.SUCCESS
+                                    ? new BatchItemResult(position, booking.getBookingId(), Status.CREATED, null)
+                                    : new BatchItemResult(position, null, Status.CONFLICT, "Room is already booked for the specified period"));
+            lastByRoom.put(booking.getRoomId(), result);
+            results.add(result);
+        }
+        return AsyncDynamo.join(AsyncDynamo.all(results));
+    }
+
+    public static List<BatchItemResult> cancelAtomic(List<String> bookingIds) {
+        List<TransactWriteItem> writes = new ArrayList<>();
+        List<Integer> owners = new ArrayList<>();
+        List<Integer> missing = new ArrayList<>();
+        Map<String, Map<String, AttributeValue>> read = new LinkedHashMap<>();
+        List<CompletableFuture<Optional<Map<String, AttributeValue>>>> reads = new ArrayList<>();
+        bookingIds.forEach(bookingId -> reads.add(BookingReservations.readLiveAsync(bookingId)));
+        List<Optional<Map<String, AttributeValue>>> items = AsyncDynamo.join(AsyncDynamo.all(reads));
+        for (int i = 0; i < bookingIds.size(); i++) {
+            Optional<Map<String, AttributeValue>> current = items.get(i);
+            if (!current.isPresent()) {
+                missing.add(i);
+                continue;
+            }
+            read.put(bookingIds.get(i), current.get());
+            for (TransactWriteItem write : BookingReservations.cancelWrites(bookingIds.get(i), current.get())) {
+                writes.add(write);
+                owners.add(i);
+            }
+        }
+        if (!missing.isEmpty()) {
+            List<BatchItemResult> results = new ArrayList<>();
+            for (int i = 0; i < bookingIds.size(); i++) {
+                results.add(missing.contains(i)
+                        ? new BatchItemResult(i, bookingIds.get(i), Status.NOT_FOUND, "No booking found with the given bookingid")
+                        : new BatchItemResult(i, bookingIds.get(i), Status.ABORTED, "Batch rolled back"));
+            }
+            return results;
+        }
+        if (writes.size() > MAX_TRANSACTION_ITEMS) {
+            return failAll(bookingIds.size(), bookingIds::get, Status.INVALID,
+                    "Atomic batch needs " + writes.size() + " writes (bookings plus nights); the limit is " + MAX_TRANSACTION_ITEMS);
+        }
+
+        Optional<List<Integer>> failed = transactAll(writes, owners);
+        read.forEach(BookingReservations::invalidate);
+        List<BatchItemResult> results = new ArrayList<>();
+        for (int i = 0; i < bookingIds.size(); i++) {
+            if (!failed.isPresent()) {
+                results.add(new BatchItemResult(i, bookingIds.get(i), Status.CANCELLED, null));
+            } else if (failed.get().contains(i)) {
+                results.add(new BatchItemResult(i, bookingIds.get(i), Status.CONFLICT, "Booking was modified concurrently, please retry"));
+            } else {
+                results.add(new BatchItemResult(i, bookingIds.get(i), Status.ABORTED, "Batch rolled back"));
+            }
+        }
+        return results;
+    }
+
+    public static List<BatchItemResult> cancelPartial(List<String> bookingIds) {
+        List<CompletableFuture<BatchItemResult>> results = new ArrayList<>();
+        for (int i = 0; i < bookingIds.size(); i++) {
+            int position = i;
+            String bookingId = bookingIds.get(i);
+            results.add(BookingReservations.cancelAsync(bookingId).handle((outcome, error) -> {
+                if (error != null) {
+                    return new BatchItemResult(position, bookingId, Status.FAILED, "Failed to cancel booking");
+                }
+                switch (outcome) {
+                    case NOT_FOUND:
+                        return new BatchItemResult(position, bookingId, Status.NOT_FOUND, "No booking found with the given bookingid");
+                    case CONFLICT:
+                        return new BatchItemResult(position, bookingId, Status.CONFLICT, "Booking was modified concurrently, please retry");
+                    default:
+                        return new BatchItemResult(position, bookingId, Status.CANCELLED, null);
+                }
+            }));
+        }
+        return AsyncDynamo.join(AsyncDynamo.all(results));
+    }
+
+    // Empty on success; otherwise the batch positions whose writes failed their conditions. A cancellation
+    // without a failed condition (throttling, exhausted contention, invalid request) is rethrown for the caller to map
+    private static Optional<List<Integer>> transactAll(List<TransactWriteItem> writes, List<Integer> owners) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                BookingReservations.transact(writes);
+                return Optional.empty();
+            } catch (TransactionCanceledException e) {
+                if (BookingReservations.isRetryable(e) && attempt < MAX_ATTEMPTS) {
+                    continue;
+                }
+                if (!BookingReservations.conditionFailed(e)) {
+                    throw e;
+                }
+                List<Integer> failed = new ArrayList<>();
+                List<CancellationReason> reasons = e.hasCancellationReasons() ? e.cancellationReasons() : List.of();
+                for (int i = 0; i < reasons.size() && i < owners.size(); i++) {
+                    if ("ConditionalCheckFailed".equals(reasons.get(i).code()) && !failed.contains(owners.get(i))) {
+                        failed.add(owners.get(i));
+                    }
+                }
+                return Optional.of(failed);
+            }
+        }
+    }
+
+    private static List<BatchItemResult> failAll(int size, IntFunction<String> bookingId, Status status, String error) {
+        List<BatchItemResult> results = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            results.add(new BatchItemResult(i, bookingId.apply(i), status, error));
+        }
+        return results;
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.lambda.reservation;
+
+import com.example.lambda.async.AsyncDynamo;
+import com.example.lambda.cache.BookingCache;
+import com.example.lambda.model.Booking;
+import com.example.lambda.model.DateRange;
+import com.example.lambda.util.DynamoDBClientUtil;
+import com.example.lambda.util.FindBooking;
+import com.example.lambda.util.StayAttributes;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Create, reschedule and cancel bookings as single TransactWriteItems calls that also take or
+ * release the booking's room-night locks. No read is needed to detect conflicts; reschedule and cancel read the booking once (strongly consistent,
+ * or from the warm-container cache) to learn which nights it holds and guard the write with the
+ * dates they read. Create and cancel are also available as futures so batches can run their items
+ * concurrently through {@link AsyncDynamo}; the blocking forms wait on those.
+ */
+public class BookingReservations {
+
+    private static final String TABLE = "Bookings";
+    private static final int MAX_ATTEMPTS = 3;
+
+    public static ReservationOutcome create(Booking booking) {
+        return AsyncDynamo.join(createAsync(booking));
+    }
+
+    public static CompletableFuture<ReservationOutcome> createAsync(Booking booking) {
+        return createAttempt(booking, createWrites(booking), 1);
+    }
+
+    private static CompletableFuture<ReservationOutcome> createAttempt(Booking booking, List<TransactWriteItem> writes, int attempt) {
+        return transactAsync(writes).handle((done, error) -> {
+            if (error == null) {
+                BookingCache.invalidate(null, booking.getRoomId(), booking.getUserId());
+                return CompletableFuture.completedFuture(ReservationOutcome.SUCCESS);
+            }
+            Optional<TransactionCanceledException> canceled = AsyncDynamo.cause(error, TransactionCanceledException.class);
+            if (!canceled.isPresent()) {
+                return CompletableFuture.<ReservationOutcome>failedFuture(error);
+            }
+            if (isRetryable(canceled.get()) && attempt < MAX_ATTEMPTS) {
+                return createAttempt(booking, writes, attempt + 1);
+            }
+            // Only a failed lock condition means taken nights; throttling or exhausted contention is the caller's to map
+            return conditionFailed(canceled.get())
+                    ? CompletableFuture.completedFuture(ReservationOutcome.CONFLICT)
+                    : CompletableFuture.<ReservationOutcome>failedFuture(error);
+        }).thenCompose(next -> next);
+    }
+
+    public static ReservationOutcome reschedule(String bookingId, DateRange wanted) {
+        for (int attempt = 1; ; attempt++) {
+            Optional<Map<String, AttributeValue>> current = readLive(bookingId);
+            if (!current.isPresent()) {
+                return ReservationOutcome.NOT_FOUND;
+            }
+            Map<String, AttributeValue> item = current.get();
+            String roomId = item.get("roomId").s();
+            DateRange held = StayAttributes.read(item);
+
+            Map<String, AttributeValue> values = new HashMap<>();
+            values.put(":false", AttributeValue.fromBool(false));
+            String set = StayAttributes.setClause(wanted, values, "new");
+            String unchanged = StayAttributes.unchanged(item, values, "old");
+
+            List<TransactWriteItem> writes = new ArrayList<>();
+            writes.add(TransactWriteItem.builder()
+                    .update(Update.builder()
+                            .tableName(TABLE)
+                            .key(Map.of("bookingId", AttributeValue.fromS(bookingId)))
+                            .updateExpression("SET " + set)
+                            .conditionExpression("deleted = :false AND " + unchanged)
+                            .expressionAttributeValues(values)
+                            .build())
+                    .build());
+            for (int night = held.getCheckInDay(); night < held.getCheckOutDay(); night++) {
+                if (!wanted.contains(night)) writes.add(RoomNightLocks.release(roomId, night, bookingId));
+            }
+            for (int night = wanted.getCheckInDay(); night < wanted.getCheckOutDay(); night++) {
+                if (!held.contains(night)) writes.add(RoomNightLocks.acquire(roomId, night, bookingId));
+            }
+
+            try {
+                transact(writes);
+                return ReservationOutcome.SUCCESS;
+            } catch (TransactionCanceledException e) {
+                // A failed condition on the booking itself means it changed since we read it: re-read and retry
+                if ((isRetryable(e) || bookingChanged(e)) && attempt < MAX_ATTEMPTS) {
+                    continue;
+                }
+                if (conditionFailed(e)) {
+                    return ReservationOutcome.CONFLICT;
+                }
+                throw e;
+            } finally {
+                invalidate(bookingId, item);
+            }
+        }
+    }
+
+    public static ReservationOutcome cancel(String bookingId) {
+        return AsyncDynamo.join(cancelAsync(bookingId));
+    }
+
+    public static CompletableFuture<ReservationOutcome> cancelAsync(String bookingId) {
+        return cancelAttempt(bookingId, 1);
+    }
+
+    private static CompletableFuture<ReservationOutcome> cancelAttempt(String bookingId, int attempt) {
+        return readLiveAsync(bookingId).thenCompose(current -> {
+            if (!current.isPresent()) {
+                return CompletableFuture.completedFuture(ReservationOutcome.NOT_FOUND);
+            }
+            Map<String, AttributeValue> item = current.get();
+            List<TransactWriteItem> writes = cancelWrites(bookingId, item);
+
+            return transactAsync(writes).handle((done, error) -> {
+                invalidate(bookingId, item);
+                if (error == null) {
+                    return CompletableFuture.completedFuture(ReservationOutcome.SUCCESS);
+                }
+                Optional<TransactionCanceledException> canceled = AsyncDynamo.cause(error, TransactionCanceledException.class);
+                if (!canceled.isPresent()) {
+                    return CompletableFuture.<ReservationOutcome>failedFuture(error);
+                }
+                if ((isRetryable(canceled.get()) || bookingChanged(canceled.get())) && attempt < MAX_ATTEMPTS) {
+                    return cancelAttempt(bookingId, attempt + 1);
+                }
+                return conditionFailed(canceled.get())
+                        ? CompletableFuture.completedFuture(ReservationOutcome.CONFLICT)
+                        : CompletableFuture.<ReservationOutcome>failedFuture(error);
+            }).thenCompose(next -> next);
+        });
+    }
+
+    static List<TransactWriteItem> createWrites(Booking booking) {
+        DateRange stay = booking.getStay();
+        Map<String, AttributeValue> item = new HashMap<>();
+        item.put("bookingId", AttributeValue.fromS(booking.getBookingId()));
+        item.put("roomId", AttributeValue.fromS(booking.getRoomId()));
+        item.put("userId", AttributeValue.fromS(booking.getUserId()));
+        item.put("deleted", AttributeValue.fromBool(false));
+        // When the booking was made, in epoch millis; analytics derive lead time from it
+        item.put("createdAt", AttributeValue.fromN(Long.toString(System.currentTimeMillis())));
+        StayAttributes.write(item, stay);
+
+        List<TransactWriteItem> writes = new ArrayList<>();
+        writes.add(TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(TABLE)
+                        .item(item)
+                        .conditionExpression("attribute_not_exists(bookingId)")
+                        .build())
+                .build());
+        for (int night = stay.getCheckInDay(); night < stay.getCheckOutDay(); night++) {
+            writes.add(RoomNightLocks.acquire(booking.getRoomId(), night, booking.getBookingId()));
+        }
+        return writes;
+    }
+
+    // Soft delete guarded by the dates that were read, plus release of every night they cover;
+    // deletedAt starts the retention window after which compaction archives the tombstone
+    static List<TransactWriteItem> cancelWrites(String bookingId, Map<String, AttributeValue> item) {
+        String roomId = item.get("roomId").s();
+        DateRange stay = StayAttributes.read(item);
+
+        Map<String, AttributeValue> values = new HashMap<>();
+        values.put(":true", AttributeValue.fromBool(true));
+        values.put(":false", AttributeValue.fromBool(false));
+        values.put(":now", AttributeValue.fromN(Long.toString(System.currentTimeMillis())));
+        String unchanged = StayAttributes.unchanged(item, values, "old");
+
+        List<TransactWriteItem> writes = new ArrayList<>();
+        writes.add(TransactWriteItem.builder()
+                .update(Update.builder()
+                        .tableName(TABLE)
+                        .key(Map.of("bookingId", AttributeValue.fromS(bookingId)))
+                        .updateExpression("SET deleted = :true, deletedAt = :now")
+                        .conditionExpression("deleted = :false AND " + unchanged)
+                        .expressionAttributeValues(values)
+                        .build())
+                .build());
+        for (int night = stay.getCheckInDay(); night < stay.getCheckOutDay(); night++) {
+            writes.add(RoomNightLocks.release(roomId, night, bookingId));
+        }
+        return writes;
+    }
+
+    // May be served from cache: every write built from it is conditioned on the read state and
+    // invalidates the entry afterwards, so a stale read costs one failed attempt and a re-read
+    static Optional<Map<String, AttributeValue>> readLive(String bookingId) {
+        return FindBooking.findBookingById(bookingId).filter(BookingReservations::isLive);
+    }
+
+    static CompletableFuture<Optional<Map<String, AttributeValue>>> readLiveAsync(String bookingId) {
+        Optional<Map<String, AttributeValue>> cached = BookingCache.cachedBooking(bookingId);
+        CompletableFuture<Optional<Map<String, AttributeValue>>> read = cached.isPresent()
+                ? CompletableFuture.completedFuture(cached)
+                : AsyncDynamo.getItem(GetItemRequest.builder()
+                        .tableName(TABLE)
+                        .key(Map.of("bookingId", AttributeValue.fromS(bookingId)))
+                        .consistentRead(true)
+                        .build())
+                .thenApply(response -> response.item() == null || response.item().isEmpty()
+                        ? Optional.<Map<String, AttributeValue>>empty() : Optional.of(response.item()));
+        return read.thenApply(item -> item.filter(BookingReservations::isLive));
+    }
+
+    private static boolean isLive(Map<String, AttributeValue> item) {
+        return !item.containsKey("deleted") || !Boolean.TRUE.equals(item.get("deleted").bool());
+    }
+
+    static void invalidate(String bookingId, Map<String, AttributeValue> item) {
+        BookingCache.invalidate(bookingId, item.get("roomId").s(),
+                item.containsKey("userId") ? item.get("userId").s() : null);
+    }
+
+    static void transact(List<TransactWriteItem> writes) {
+        DynamoDBClientUtil.getClient().transactWriteItems(TransactWriteItemsRequest.builder()
+                .transactItems(writes)
+                .build());
+    }
+
+    static CompletableFuture<TransactWriteItemsResponse> transactAsync(List<TransactWriteItem> writes) {
+        return AsyncDynamo.transactWriteItems(TransactWriteItemsRequest.builder()
+                .transactItems(writes)
+                .build());
+    }
+
+    // Cancellation reasons are positional; the booking item is always first
+    private static boolean bookingChanged(TransactionCanceledException e) {
+        return e.hasCancellationReasons() && !e.cancellationReasons().isEmpty()
+                && "ConditionalCheckFailed".equals(e.cancellationReasons().get(0).code());
+    }
+
+    // Some write's condition failed: a night is taken or the booking changed, as opposed to throttling or contention
+    static boolean conditionFailed(TransactionCanceledException e) {
+        return e.hasCancellationReasons() && e.cancellationReasons().stream()
+                .anyMatch(reason -> "ConditionalCheckFailed".equals(reason.code()));
+    }
+
+    // Another transaction touching the same items; nothing was written and the attempt can be repeated
+    static boolean isRetryable(TransactionCanceledException e) {
+        return e.hasCancellationReasons() && e.cancellationReasons().stream()
+                .anyMatch(reason -> "TransactionConflict".equals(reason.code()))
+                && e.cancellationReasons().stream()
+                .noneMatch(reason -> "ConditionalCheckFailed".equals(reason.code()));
+    }
+}
@@ -0,0 +1,7 @@
+package com.example.lambda.reservation;
+
+public enum ReservationOutcome {
+    SUCCESS,
+    NOT_FOUND,
+    CONFLICT
+}
@@ -0,0 +1,50 @@
+package com.example.lambda.reservation;
+
+import com.example.lambda.model.DateRange;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.Delete;
+import software.amazon.awssdk.services.dynamodb.model.Put;
+import software.amazon.awssdk.services.dynamodb.model.TransactWriteItem;
+
+import java.util.Map;
+
+/**
+ * One item per booked room-night in the RoomNightLocks table, keyed by "roomId#yyyy-MM-dd".
+ * Locks are written and removed in the same transaction as the booking they belong to, so
+ * the conditional put on an existing lock is what rejects a double booking.
+ */
+public class RoomNightLocks {
+
+    public static final String TABLE = "RoomNightLocks";
+
+    public static String lockId(String roomId, int night) {
+        return roomId + "#" + DateRange.format(night);
+    }
+
+    public static TransactWriteItem acquire(String roomId, int night, String bookingId) {
+        return TransactWriteItem.builder()
+                .put(Put.builder()
+                        .tableName(TABLE)
+                        .item(Map.of(
+                                "lockId", AttributeValue.fromS(lockId(roomId, night)),
+                                "roomId", AttributeValue.fromS(roomId),
+                                "night", AttributeValue.fromS(DateRange.format(night)),
+                                "bookingId", AttributeValue.fromS(bookingId)
+                        ))
+                        .conditionExpression("attribute_not_exists(lockId)")
+                        .build())
+                .build();
+    }
+
+    // Bookings written before locks existed have none, so a missing lock is not an error
+    public static TransactWriteItem release(String roomId, int night, String bookingId) {
+        return TransactWriteItem.builder()
+                .delete(Delete.builder()
+                        .tableName(TABLE)
+                        .key(Map.of("lockId", AttributeValue.fromS(lockId(roomId, night))))
+                        .conditionExpression("attribute_not_exists(lockId) OR bookingId = :bookingId")
+                        .expressionAttributeValues(Map.of(":bookingId", AttributeValue.fromS(bookingId)))
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.lambda.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * AIMD concurrency limit on admitted requests. The limit grows by one per limit's worth of
+ * successful DynamoDB calls (about one per round trip of the whole window, as in TCP) while
+ * requests are actually pressing against it, and is multiplied by {@code decrease} on a throttle
+ * or timeout, at most once per cool-down so a
+ * burst of failures from one overload counts once. Requests over the limit are shed before they
+ * reach DynamoDB.
+ */
+public class AdaptiveLimiter {
+
+    private static final long COOL_DOWN_NANOS = 100_000_000L;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double decrease;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    // Written under the lock, read without it on admission
+    private volatile double limit;
+    private int successes;
+    private long lastDecrease;
+
+    public AdaptiveLimiter(int initialLimit, int minLimit, int maxLimit, double decrease) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.decrease = decrease;
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+        this.lastDecrease = System.nanoTime() - COOL_DOWN_NANOS;
+    }
+
+    public boolean tryAcquire() {
+        int limitNow = limit();
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limitNow) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public void onSuccess() {
+        // Only grow when the limit is what is holding requests back; checked before locking since most calls skip it
+        if (inFlight.get() * 2 < limit || limit >= maxLimit) {
+            return;
+        }
+        synchronized (this) {
+            if (++successes >= (int) limit) {
+                successes = 0;
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    public synchronized void onOverload() {
+        long now = System.nanoTime();
+        if (now - lastDecrease >= COOL_DOWN_NANOS) {
+            lastDecrease = now;
+            successes = 0;
+            limit = Math.max(minLimit, limit * decrease);
+        }
+    }
+
+    public int limit() {
+        return (int) limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,29 @@
+package com.example.lambda.resilience;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Exponential backoff with full jitter: the n-th retry waits a uniformly random time in
+ * [0, min(cap, base * 2^n)). Spreading retries over the whole window keeps clients that were
+ * throttled together from coming back together. Throttles start from a longer base than
+ * transient errors, since the table needs time to recover capacity.
+ */
+public class Backoff {
+
+    private final long transientBaseMillis;
+    private final long throttleBaseMillis;
+    private final long capMillis;
+
+    public Backoff(long transientBaseMillis, long throttleBaseMillis, long capMillis) {
+        this.transientBaseMillis = transientBaseMillis;
+        this.throttleBaseMillis = throttleBaseMillis;
+        this.capMillis = capMillis;
+    }
+
+    // retry counts from 0 for the first retry
+    public long delayMillis(int retry, ErrorClass cause) {
+        long base = cause == ErrorClass.THROTTLED ? throttleBaseMillis : transientBaseMillis;
+        long window = Math.min(capMillis, base << Math.min(retry, 20));
+        return window <= 0 ? 0 : ThreadLocalRandom.current().nextLong(window);
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.lambda.resilience;
+
+public enum ErrorClass {
+    // DynamoDB asked us to slow down; retry with backoff and tell the limiter
+    THROTTLED,
+    // Server-side or network failure that a repeat of the same call may not hit
+    TRANSIENT,
+    // The call's whole time budget ran out: not retried, but the backend is slow, so the limiter backs off
+    TIMEOUT,
+    // Retrying cannot help: validation, failed conditions, missing tables
+    TERMINAL
+}
@@ -0,0 +1,64 @@
+package com.example.lambda.resilience;
+
+import software.amazon.awssdk.core.exception.ApiCallAttemptTimeoutException;
+import software.amazon.awssdk.core.exception.ApiCallTimeoutException;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.core.exception.SdkServiceException;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+
+public class ErrorClassifier {
+
+    public static ErrorClass classify(Throwable error) {
+        Throwable e = unwrap(error);
+
+        if (e instanceof ProvisionedThroughputExceededException || e instanceof RequestLimitExceededException) {
+            return ErrorClass.THROTTLED;
+        }
+        // Failed conditions are the caller's business; throttling is load, and contention alone can succeed later
+        if (e instanceof TransactionCanceledException) {
+            TransactionCanceledException canceled = (TransactionCanceledException) e;
+            List<CancellationReason> reasons = canceled.hasCancellationReasons() ? canceled.cancellationReasons() : List.of();
+            if (reasons.stream().anyMatch(reason -> "ThrottlingError".equals(reason.code())
+                    || "ProvisionedThroughputExceeded".equals(reason.code()))) {
+                return ErrorClass.THROTTLED;
+            }
+            return reasons.stream().anyMatch(reason -> "TransactionConflict".equals(reason.code()))
+                    && reasons.stream().allMatch(reason -> "TransactionConflict".equals(reason.code()) || "None".equals(reason.code()))
+                    ? ErrorClass.TRANSIENT : ErrorClass.TERMINAL;
+        }
+        if (e instanceof TransactionInProgressException || e instanceof InternalServerErrorException) {
+            return ErrorClass.TRANSIENT;
+        }
+        if (e instanceof SdkServiceException) {
+            SdkServiceException service = (SdkServiceException) e;
+            if (service.isThrottlingException()) {
+                return ErrorClass.THROTTLED;
+            }
+            return service.statusCode() >= 500 ? ErrorClass.TRANSIENT : ErrorClass.TERMINAL;
+        }
+        // The whole call's time budget is spent, but a single slow attempt can be repeated
+        if (e instanceof ApiCallTimeoutException) {
+            return ErrorClass.TIMEOUT;
+        }
+        if (e instanceof ApiCallAttemptTimeoutException) {
+            return ErrorClass.TRANSIENT;
+        }
+        if (e instanceof SdkClientException) {
+            return e.getCause() instanceof IOException || ((SdkClientException) e).retryable()
+                    ? ErrorClass.TRANSIENT : ErrorClass.TERMINAL;
+        }
+        return ErrorClass.TERMINAL;
+    }
+
+    static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while (current instanceof CompletionException && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+}
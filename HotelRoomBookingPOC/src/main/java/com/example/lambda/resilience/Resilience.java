@@ -0,0 +1,132 @@
+package com.example.lambda.resilience;
+
+import com.example.lambda.async.AsyncDynamo;
+import com.example.lambda.logging.Log;
+import software.amazon.awssdk.services.dynamodb.model.TransactionCanceledException;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+/**
+ * Retry and load-shedding policy for every DynamoDB call, replacing the SDK's own retries so
+ * there is one place that decides. Throttles and transient errors are retried with full-jitter
+ * backoff up to RETRY_MAX_ATTEMPTS (default 4) attempts, while the {@link RetryBudget} allows it;
+ * terminal errors and calls that ran out of time surface at once. Each outcome also steers the {@link AdaptiveLimiter} that
+ * admits requests (LOAD_SHED_INITIAL_LIMIT / _MIN_LIMIT / _MAX_LIMIT, default 256 / 4 / 1024).
+ */
+public class Resilience {
+
+    private static final int MAX_ATTEMPTS = envInt("RETRY_MAX_ATTEMPTS", 4);
+
+    private static final Backoff backoff = new Backoff(25, 50, 1000);
+    private static final RetryBudget budget = new RetryBudget(0.1, 20);
+    private static final AdaptiveLimiter limiter = new AdaptiveLimiter(
+            envInt("LOAD_SHED_INITIAL_LIMIT", 256), envInt("LOAD_SHED_MIN_LIMIT", 4),
+            envInt("LOAD_SHED_MAX_LIMIT", 1024), 0.9);
+
+    public static <T> T call(String operation, Supplier<T> call) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                T result = call.get();
+                onSuccess();
+                return result;
+            } catch (RuntimeException e) {
+                long delay = retryDelay(operation, e, attempt);
+                if (delay < 0) {
+                    throw e;
+                }
+                sleep(delay, e);
+            }
+        }
+    }
+
+    public static <T> CompletableFuture<T> callAsync(String operation, Supplier<CompletableFuture<T>> call) {
+        return attemptAsync(operation, call, 1);
+    }
+
+    private static <T> CompletableFuture<T> attemptAsync(String operation, Supplier<CompletableFuture<T>> call, int attempt) {
+        CompletableFuture<T> started;
+        try {
+            started = call.get();
+        } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+        }
+        return started.handle((result, error) -> {
+            if (error == null) {
+                onSuccess();
+                return CompletableFuture.completedFuture(result);
+            }
+            long delay = retryDelay(operation, error, attempt);
+            if (delay < 0) {
+                return CompletableFuture.<T>failedFuture(error);
+            }
+            return AsyncDynamo.after(delay).thenCompose(waited -> attemptAsync(operation, call, attempt + 1));
+        }).thenCompose(next -> next);
+    }
+
+    // Admission for one request; a false return means shed it. Pair every true with release().
+    public static boolean admit() {
+        return limiter.tryAcquire();
+    }
+
+    public static void release() {
+        limiter.release();
+    }
+
+    public static AdaptiveLimiter limiter() {
+        return limiter;
+    }
+
+    public static RetryBudget budget() {
+        return budget;
+    }
+
+    private static void onSuccess() {
+        budget.onSuccess();
+        limiter.onSuccess();
+    }
+
+    // Milliseconds to wait before the next attempt, or -1 to give up with the error
+    private static long retryDelay(String operation, Throwable error, int attempt) {
+        ErrorClass errorClass = ErrorClassifier.classify(error);
+        if (errorClass == ErrorClass.TERMINAL) {
+            // The call itself went through; a failed condition says nothing about load
+            onSuccess();
+            return -1;
+        }
+        // Retrying would spend another full timeout on a backend that is already slow; shrink the limit instead
+        if (errorClass == ErrorClass.TIMEOUT) {
+            limiter.onOverload();
+            return -1;
+        }
+        // Conflicting transactions are contention, not load; their callers retry them, re-reading where needed
+        if (errorClass == ErrorClass.TRANSIENT && ErrorClassifier.unwrap(error) instanceof TransactionCanceledException) {
+            onSuccess();
+            return -1;
+        }
+        limiter.onOverload();
+        if (attempt >= MAX_ATTEMPTS) {
+            Log.warn("dynamodb.retries_exhausted", "operation", operation, "errorClass", errorClass);
+            return -1;
+        }
+        if (!budget.tryRetry()) {
+            Log.warn("dynamodb.retry_budget_exhausted", "operation", operation, "errorClass", errorClass);
+            return -1;
+        }
+        return backoff.delayMillis(attempt - 1, errorClass);
+    }
+
+    private static void sleep(long millis, RuntimeException pending) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw pending;
+        }
+    }
+
+    private static int envInt(String name, int fallback) {
+        return Optional.ofNullable(System.getenv(name)).map(String::trim).map(Integer::parseInt).orElse(fallback);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.lambda.resilience;
+
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.*;
+
+import java.util.UUID;
+
+/**
+ * Blocking client whose calls go through {@link Resilience}. Covers the operations this code
+ * uses; transactions get a client request token up front so a retry after a lost response is
+ * recognised by DynamoDB as the same transaction instead of failing its own conditions.
+ */
+public class ResilientDynamoDbClient implements DynamoDbClient {
+
+    private final DynamoDbClient client;
+
+    public ResilientDynamoDbClient(DynamoDbClient client) {
+        this.client = client;
+    }
+
+    @Override
+    public GetItemResponse getItem(GetItemRequest request) {
+        return Resilience.call("GetItem", () -> client.getItem(request));
+    }
+
+    @Override
+    public BatchGetItemResponse batchGetItem(BatchGetItemRequest request) {
+        return Resilience.call("BatchGetItem", () -> client.batchGetItem(request));
+    }
+
+    @Override
+    public PutItemResponse putItem(PutItemRequest request) {
+        return Resilience.call("PutItem", () -> client.putItem(request));
+    }
+
+    @Override
+    public UpdateItemResponse updateItem(UpdateItemRequest request) {
+        return Resilience.call("UpdateItem", () -> client.updateItem(request));
+    }
+
+    @Override
+    public DeleteItemResponse deleteItem(DeleteItemRequest request) {
+        return Resilience.call("DeleteItem", () -> client.deleteItem(request));
+    }
+
+    @Override
+    public BatchWriteItemResponse batchWriteItem(BatchWriteItemRequest request) {
+        return Resilience.call("BatchWriteItem", () -> client.batchWriteItem(request));
+    }
+
+    @Override
+    public TransactWriteItemsResponse transactWriteItems(TransactWriteItemsRequest request) {
+        TransactWriteItemsRequest idempotent = withToken(request);
+        return Resilience.call("TransactWriteItems", () -> client.transactWriteItems(idempotent));
+    }
+
+    @Override
+    public QueryResponse query(QueryRequest request) {
+        return Resilience.call("Query", () -> client.query(request));
+    }
+
+    @Override
+    public ScanResponse scan(ScanRequest request) {
+        return Resilience.call("Scan", () -> client.scan(request));
+    }
+
+    @Override
+    public DescribeTableResponse describeTable(DescribeTableRequest request) {
+        return Resilience.call("DescribeTable", () -> client.describeTable(request));
+    }
+
+    public static TransactWriteItemsRequest withToken(TransactWriteItemsRequest request) {
+        return request.clientRequestToken() != null ? request
+                : request.toBuilder().clientRequestToken(UUID.randomUUID().toString()).build();
+    }
+
+    // The underlying client, for callers that apply their own policy
+    public DynamoDbClient unwrap() {
+        return client;
+    }
+
+    @Override
+    public String serviceName() {
+        return client.serviceName();
+    }
+
+    @Override
+    public void close() {
+        client.close();
+    }
+}
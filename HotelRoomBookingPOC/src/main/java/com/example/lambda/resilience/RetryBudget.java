@@ -0,0 +1,43 @@
+package com.example.lambda.resilience;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps retries at a fraction of successful calls so an outage does not multiply our own load.
+ * Each success deposits {@code ratio} of a token, each retry withdraws one, and the balance is
+ * capped; a retry with no token left is not attempted. Balances are kept in thousandths.
+ */
+public class RetryBudget {
+
+    private static final long UNIT = 1000;
+
+    private final long depositPerSuccess;
+    private final long maxBalance;
+    private final AtomicLong balance;
+
+    public RetryBudget(double ratio, int maxTokens) {
+        this.depositPerSuccess = Math.round(ratio * UNIT);
+        this.maxBalance = maxTokens * UNIT;
+        this.balance = new AtomicLong(maxBalance);
+    }
+
+    public void onSuccess() {
+        balance.accumulateAndGet(depositPerSuccess, (current, deposit) -> Math.min(maxBalance, current + deposit));
+    }
+
+    public boolean tryRetry() {
+        while (true) {
+            long current = balance.get();
+            if (current < UNIT) {
+                return false;
+            }
+            if (balance.compareAndSet(current, current - UNIT)) {
+                return true;
+            }
+        }
+    }
+
+    public double tokens() {
+        return balance.get() / (double) UNIT;
+    }
+}
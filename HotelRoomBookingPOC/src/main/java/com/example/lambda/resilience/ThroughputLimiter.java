@@ -0,0 +1,61 @@
+package com.example.lambda.resilience;
+
+import software.amazon.awssdk.core.exception.SdkClientException;
+
+/**
+ * Paces background jobs to a rate in capacity units per second, shared by all their threads so
+ * they leave the rest of the table's capacity to request traffic. Each caller reserves a slot for
+ * its units and sleeps until it comes up. A throttle cuts the rate to 70%, at most once per
+ * cool-down so one overload seen by several threads counts once; clean calls recover it by 5%
+ * plus one unit, up to the configured maximum.
+ */
+public class ThroughputLimiter {
+
+    private static final long COOL_DOWN_NANOS = 100_000_000L;
+
+    private final double maxPerSecond;
+    private double rate;
+    private long nextNanos;
+    private long lastDecrease;
+
+    public ThroughputLimiter(double maxPerSecond) {
+        this.maxPerSecond = Math.max(1, maxPerSecond);
+        this.rate = this.maxPerSecond;
+        this.nextNanos = System.nanoTime();
+        this.lastDecrease = nextNanos - COOL_DOWN_NANOS;
+    }
+
+    public void acquire(double units) {
+        long waitNanos;
+        synchronized (this) {
+            long now = System.nanoTime();
+            long start = Math.max(now, nextNanos);
+            nextNanos = start + (long) (units * 1e9 / rate);
+            waitNanos = start - now;
+        }
+        if (waitNanos > 0) {
+            try {
+                Thread.sleep(waitNanos / 1_000_000, (int) (waitNanos % 1_000_000));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw SdkClientException.create("Interrupted while pacing", e);
+            }
+        }
+    }
+
+    public synchronized void onThrottled() {
+        long now = System.nanoTime();
+        if (now - lastDecrease >= COOL_DOWN_NANOS) {
+            lastDecrease = now;
+            rate = Math.max(1, rate * 0.7);
+        }
+    }
+
+    public synchronized void onSuccess() {
+        rate = Math.min(maxPerSecond, rate * 1.05 + 1);
+    }
+
+    public synchronized double rate() {
+        return rate;
+    }
+}
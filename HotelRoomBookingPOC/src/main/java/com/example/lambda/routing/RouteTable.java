@@ -0,0 +1,115 @@
+package com.example.lambda.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Method + path templates ("/bookings/{bookingid}") split into segments once at startup.
+ * Matching a request splits its path once and compares segment by segment against the routes
+ * with the same segment count; no regular expressions are involved.
+ */
+public class RouteTable<T> {
+
+    private static final class Route<T> {
+        final String method;
+        final String[] segments;
+        final T target;
+
+        Route(String method, String[] segments, T target) {
+            this.method = method;
+            this.segments = segments;
+            this.target = target;
+        }
+    }
+
+    public static final class Match<T> {
+        private final T target;
+        private final Map<String, String> pathParameters;
+
+        Match(T target, Map<String, String> pathParameters) {
+            this.target = target;
+            this.pathParameters = pathParameters;
+        }
+
+        public T getTarget() { return target; }
+        public Map<String, String> getPathParameters() { return pathParameters; }
+    }
+
+    // Routes grouped by segment count
+    private final Map<Integer, List<Route<T>>> routes = new HashMap<>();
+
+    public RouteTable<T> add(String method, String template, T target) {
+        String[] segments = split(template);
+        routes.computeIfAbsent(segments.length, n -> new ArrayList<>())
+                .add(new Route<>(method.toUpperCase(), segments, target));
+        return this;
+    }
+
+    public Optional<Match<T>> match(String method, String path) {
+        String[] segments = split(path);
+        for (Route<T> route : routes.getOrDefault(segments.length, List.of())) {
+            if (route.method.equalsIgnoreCase(method)) {
+                Map<String, String> parameters = bind(route, segments);
+                if (parameters != null) {
+                    return Optional.of(new Match<>(route.target, parameters));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    // Methods registered for a path, to tell 405 from 404
+    public Set<String> allowedMethods(String path) {
+        String[] segments = split(path);
+        Set<String> methods = new TreeSet<>();
+        for (Route<T> route : routes.getOrDefault(segments.length, List.of())) {
+            if (bind(route, segments) != null) {
+                methods.add(route.method);
+            }
+        }
+        return methods;
+    }
+
+    private static Map<String, String> bind(Route<?> route, String[] segments) {
+        Map<String, String> parameters = null;
+        for (int i = 0; i < segments.length; i++) {
+            String expected = route.segments[i];
+            if (isParameter(expected)) {
+                if (segments[i].isEmpty()) {
+                    return null;
+                }
+                if (parameters == null) {
+                    parameters = new LinkedHashMap<>();
+                }
+                parameters.put(expected.substring(1, expected.length() - 1), segments[i]);
+            } else if (!expected.equals(segments[i])) {
+                return null;
+            }
+        }
+        return parameters == null ? Map.of() : parameters;
+    }
+
+    private static boolean isParameter(String segment) {
+        return segment.length() > 2 && segment.charAt(0) == '{' && segment.charAt(segment.length() - 1) == '}';
+    }
+
+    // "/a/b/" and "a/b" both become [a, b]; the query string, if any, is ignored
+    private static String[] split(String path) {
+        if (path == null) {
+            return new String[0];
+        }
+        int query = path.indexOf('?');
+        String trimmed = query >= 0 ? path.substring(0, query) : path;
+        int from = 0;
+        int to = trimmed.length();
+        while (from < to && trimmed.charAt(from) == '/') from++;
+        while (to > from && trimmed.charAt(to - 1) == '/') to--;
+        return from == to ? new String[0] : trimmed.substring(from, to).split("/", -1);
+    }
+}
@@ -0,0 +1,139 @@
+package com.example.lambda.server;
+
+import com.amazonaws.services.lambda.runtime.RequestHandler;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyRequestEvent;
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.lambda.logging.Log;
+import com.example.lambda.util.ResponseUtil;
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Turns a raw HTTP exchange into the API Gateway proxy event the handlers already understand,
+ * invokes the handler, and writes its response back. Headers and query parameters are exposed in
+ * both the single- and multi-value forms, as API Gateway does.
+ */
+class ApiGatewayAdapter implements HttpHandler {
+
+    // Lambda's synchronous payload limit
+    static final int MAX_BODY_BYTES = 6 * 1024 * 1024;
+
+    private final RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler;
+    private final long requestTimeoutMillis;
+
+    ApiGatewayAdapter(RequestHandler<APIGatewayProxyRequestEvent, APIGatewayProxyResponseEvent> handler,
+                      long requestTimeoutMillis) {
+        this.handler = handler;
+        this.requestTimeoutMillis = requestTimeoutMillis;
+    }
+
+    @Override
+    public void handle(HttpExchange exchange) throws IOException {
+        try {
+            write(exchange, invoke(exchange));
+        } catch (IOException e) {
+            Log.warn("server.io_error", "path", exchange.getRequestURI().getPath(), "error", e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private APIGatewayProxyResponseEvent invoke(HttpExchange exchange) throws IOException {
+        byte[] body;
+        try (InputStream in = exchange.getRequestBody()) {
+            body = in.readNBytes(MAX_BODY_BYTES + 1);
+        }
+        if (body.length > MAX_BODY_BYTES) {
+            return ResponseUtil.error(413, "Request body too large");
+        }
+
+        String requestId = UUID.randomUUID().toString();
+        APIGatewayProxyRequestEvent event = toEvent(exchange, body, requestId);
+        try {
+            return handler.handleRequest(event, new ServerContext(requestId, requestTimeoutMillis));
+        } catch (RuntimeException e) {
+            Log.error("server.handler_failed", "path", event.getPath(), "error", e.toString());
+            return ResponseUtil.error(500, "Internal server error");
+        }
+    }
+
+    static APIGatewayProxyRequestEvent toEvent(HttpExchange exchange, byte[] body, String requestId) {
+        Map<String, String> headers = new HashMap<>();
+        Map<String, List<String>> multiValueHeaders = new HashMap<>();
+        exchange.getRequestHeaders().forEach((name, values) -> {
+            headers.put(name, values.get(values.size() - 1));
+            multiValueHeaders.put(name, values);
+        });
+
+        Map<String, List<String>> multiValueQuery = parseQuery(exchange.getRequestURI().getRawQuery());
+        Map<String, String> query = new HashMap<>();
+        multiValueQuery.forEach((name, values) -> query.put(name, values.get(values.size() - 1)));
+
+        return new APIGatewayProxyRequestEvent()
+                .withHttpMethod(exchange.getRequestMethod())
+                .withPath(exchange.getRequestURI().getPath())
+                .withHeaders(headers)
+                .withMultiValueHeaders(multiValueHeaders)
+                .withQueryStringParameters(query.isEmpty() ? null : query)
+                .withMultiValueQueryStringParameters(multiValueQuery.isEmpty() ? null : multiValueQuery)
+                .withBody(body.length == 0 ? null : new String(body, StandardCharsets.UTF_8))
+                .withIsBase64Encoded(false)
+                .withRequestContext(new APIGatewayProxyRequestEvent.ProxyRequestContext()
+                        .withRequestId(requestId)
+                        .withHttpMethod(exchange.getRequestMethod())
+                        .withPath(exchange.getRequestURI().getPath()));
+    }
+
+    static Map<String, List<String>> parseQuery(String rawQuery) {
+        Map<String, List<String>> parameters = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return parameters;
+        }
+        for (String pair : rawQuery.split("&")) {
+            if (pair.isEmpty()) {
+                continue;
+            }
+            int eq = pair.indexOf('=');
+            String name = URLDecoder.decode(eq < 0 ? pair : pair.substring(0, eq), StandardCharsets.UTF_8);
+            String value = eq < 0 ? "" : URLDecoder.decode(pair.substring(eq + 1), StandardCharsets.UTF_8);
+            parameters.computeIfAbsent(name, n -> new ArrayList<>(1)).add(value);
+        }
+        return parameters;
+    }
+
+    private static void write(HttpExchange exchange, APIGatewayProxyResponseEvent response) throws IOException {
+        Headers headers = exchange.getResponseHeaders();
+        if (response.getMultiValueHeaders() != null) {
+            response.getMultiValueHeaders().forEach((name, values) -> headers.put(name, new ArrayList<>(values)));
+        }
+        if (response.getHeaders() != null) {
+            response.getHeaders().forEach(headers::set);
+        }
+
+        byte[] body = response.getBody() == null ? new byte[0]
+                : Boolean.TRUE.equals(response.getIsBase64Encoded())
+                        ? Base64.getDecoder().decode(response.getBody())
+                        : response.getBody().getBytes(StandardCharsets.UTF_8);
+        int status = response.getStatusCode() == null ? 200 : response.getStatusCode();
+        boolean noBody = body.length == 0 || "HEAD".equals(exchange.getRequestMethod());
+        exchange.sendResponseHeaders(status, noBody ? -1 : body.length);
+        if (!noBody) {
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        }
+    }
+}
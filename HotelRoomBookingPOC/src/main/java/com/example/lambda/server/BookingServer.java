@@ -0,0 +1,104 @@
+package com.example.lambda.server;
+
+import com.example.lambda.handler.RouterHandler;
+import com.example.lambda.logging.Log;
+import com.example.lambda.metrics.Metrics;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Long-running server mode: hosts {@link RouterHandler} behind the JDK's embedded HTTP server,
+ * one virtual thread per request, so the same jar can run in a container under sustained load.
+ * Configured through SERVER_PORT (8080), SERVER_BACKLOG (1024 pending connections),
+ * SERVER_SHUTDOWN_SECONDS (10) and SERVER_REQUEST_TIMEOUT_MILLIS (30000, reported to handlers as
+ * the Context's remaining time). On SIGTERM the server answers new requests and /health with 503,
+ * lets in-flight requests finish within the shutdown grace period, then closes the listener and
+ * flushes metrics. The drain is tracked here because HttpServer.stop(delay) on JDK 21 always sleeps for
+ * the full delay, even when nothing is in flight.
+ */
+public class BookingServer {
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final int shutdownSeconds;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile boolean draining;
+
+    public BookingServer(int port, int backlog, int shutdownSeconds, long requestTimeoutMillis) throws IOException {
+        this.server = HttpServer.create(new InetSocketAddress(port), backlog);
+        this.executor = Executors.newVirtualThreadPerTaskExecutor();
+        this.shutdownSeconds = shutdownSeconds;
+        server.setExecutor(executor);
+        // Fails once draining starts so load balancers stop routing here before the listener closes
+        server.createContext("/health", exchange -> {
+            exchange.sendResponseHeaders(draining ? 503 : 200, -1);
+            exchange.close();
+        });
+        server.createContext("/", draining(new ApiGatewayAdapter(new RouterHandler(), requestTimeoutMillis)));
+    }
+
+    private HttpHandler draining(HttpHandler handler) {
+        return exchange -> {
+            inFlight.incrementAndGet();
+            try {
+                if (draining) {
+                    exchange.getResponseHeaders().set("Connection", "close");
+                    exchange.sendResponseHeaders(503, -1);
+                    exchange.close();
+                } else {
+                    handler.handle(exchange);
+                }
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        };
+    }
+
+    public BookingServer start() {
+        server.start();
+        Log.info("server.started", "port", server.getAddress().getPort());
+        return this;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public void stop() {
+        Log.info("server.stopping", "graceSeconds", shutdownSeconds, "inFlight", inFlight.get());
+        draining = true;
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(shutdownSeconds);
+        try {
+            while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(20);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        server.stop(0);
+        executor.shutdownNow();
+        Metrics.flush();
+        Log.info("server.stopped", "abandoned", inFlight.get());
+    }
+
+    public static void main(String[] args) throws IOException {
+        BookingServer server = new BookingServer(
+                intEnv("SERVER_PORT", 8080),
+                intEnv("SERVER_BACKLOG", 1024),
+                intEnv("SERVER_SHUTDOWN_SECONDS", 10),
+                intEnv("SERVER_REQUEST_TIMEOUT_MILLIS", 30_000)).start();
+        Runtime.getRuntime().addShutdownHook(new Thread(server::stop, "booking-server-shutdown"));
+    }
+
+    private static int intEnv(String name, int defaultValue) {
+        return Optional.ofNullable(System.getenv(name)).map(String::trim).map(Integer::parseInt).orElse(defaultValue);
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.lambda.startup;
+
+import com.example.lambda.async.AsyncDynamo;
+import com.example.lambda.logging.Log;
+import com.example.lambda.model.Booking;
+import com.example.lambda.util.BookingParser;
+import com.example.lambda.util.DynamoDBClientUtil;
+import com.example.lambda.util.ResponseUtil;
+import com.example.lambda.validation.BookingValidator;
+import org.crac.Core;
+import org.crac.Resource;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * SnapStart/CRaC hooks. Before the snapshot is taken the parse, validate, serialize and
+ * DynamoDB marshalling paths run once so their classes are loaded and JIT-warm in the image;
+ * after restore the DynamoDB connections are re-established, since sockets do not survive a snapshot.
+ * Both the blocking and the async client are primed.
+ */
+public class Priming implements Resource {
+
+    private static final String TABLE = "Bookings";
+    private static final String PRIMING_BOOKING_ID = "__priming__";
+
+    // CRaC holds registered resources weakly
+    private static final Priming INSTANCE = new Priming();
+    private static volatile boolean registered;
+
+    public static void register() {
+        if (registered) {
+            return;
+        }
+        synchronized (Priming.class) {
+            if (!registered) {
+                Core.getGlobalContext().register(INSTANCE);
+                registered = true;
+            }
+        }
+    }
+
+    @Override
+    public void beforeCheckpoint(org.crac.Context<? extends Resource> context) {
+        primeRequestPath();
+        primeDynamoDB();
+    }
+
+    @Override
+    public void afterRestore(org.crac.Context<? extends Resource> context) {
+        DynamoDBClientUtil.discardAsyncConnections();
+        primeDynamoDB();
+    }
+
+    static void primeRequestPath() {
+        Optional<Booking> booking = BookingParser.parseBooking(
+                "{\"roomId\":\"101\",\"userId\":\"priming\",\"checkInDate\":\"2024-01-01\",\"checkOutDate\":\"2024-01-02\"}");
+        booking.ifPresent(BookingValidator::validate);
+
+        Map<String, AttributeValue> item = Map.of(
+                "bookingId", AttributeValue.fromS(PRIMING_BOOKING_ID),
+                "roomId", AttributeValue.fromS("101"),
+                "checkInDate", AttributeValue.fromS("2024-01-01"),
+                "deleted", AttributeValue.fromBool(false));
+        ResponseUtil.page("bookings", List.of(item), Optional.empty());
+        ResponseUtil.success(Map.of("message", "priming", "bookingId", PRIMING_BOOKING_ID));
+        ResponseUtil.error(400, "priming");
+    }
+
+    // A GetItem for a key that never exists exercises request marshalling, signing and the HTTP client
+    static void primeDynamoDB() {
+        GetItemRequest request = GetItemRequest.builder()
+                .tableName(TABLE)
+                .key(Map.of("bookingId", AttributeValue.fromS(PRIMING_BOOKING_ID)))
+                .build();
+        try {
+            DynamoDBClientUtil.getClient().getItem(request);
+            AsyncDynamo.join(AsyncDynamo.getItem(request));
+        } catch (Exception e) {
+            Log.warn("priming.dynamodb_failed", "error", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.lambda.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import software.amazon.awssdk.core.SdkBytes;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes DynamoDB items straight to a {@link JsonGenerator} without building intermediate maps.
+ * S and B become strings (B base64), N becomes a JSON number, sets and lists become arrays,
+ * M becomes an object and NULL becomes null.
+ */
+public class AttributeValueJson {
+
+    public static void writeItem(JsonGenerator gen, Map<String, AttributeValue> item) throws IOException {
+        gen.writeStartObject();
+        for (Map.Entry<String, AttributeValue> entry : item.entrySet()) {
+            gen.writeFieldName(entry.getKey());
+            writeValue(gen, entry.getValue());
+        }
+        gen.writeEndObject();
+    }
+
+    public static void writeValue(JsonGenerator gen, AttributeValue value) throws IOException {
+        if (value == null) {
+            gen.writeNull();
+            return;
+        }
+        switch (value.type()) {
+            case S:
+                gen.writeString(value.s());
+                break;
+            case N:
+                gen.writeNumber(value.n());
+                break;
+            case BOOL:
+                gen.writeBoolean(value.bool());
+                break;
+            case B:
+                gen.writeBinary(value.b().asByteArrayUnsafe());
+                break;
+            case SS:
+                gen.writeStartArray();
+                for (String s : value.ss()) gen.writeString(s);
+                gen.writeEndArray();
+                break;
+            case NS:
+                gen.writeStartArray();
+                for (String n : value.ns()) gen.writeNumber(n);
+                gen.writeEndArray();
+                break;
+            case BS:
+                gen.writeStartArray();
+                for (SdkBytes b : value.bs()) gen.writeBinary(b.asByteArrayUnsafe());
+                gen.writeEndArray();
+                break;
+            case L:
+                writeList(gen, value.l());
+                break;
+            case M:
+                writeItem(gen, value.m());
+                break;
+            default:
+                // NUL, or a type added to the SDK after this was written
+                gen.writeNull();
+        }
+    }
+
+    private static void writeList(JsonGenerator gen, List<AttributeValue> values) throws IOException {
+        gen.writeStartArray();
+        for (AttributeValue value : values) {
+            writeValue(gen, value);
+        }
+        gen.writeEndArray();
+    }
+}
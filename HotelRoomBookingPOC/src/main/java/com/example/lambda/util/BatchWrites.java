@@ -0,0 +1,70 @@
+package com.example.lambda.util;
+
+import com.example.lambda.resilience.Backoff;
+import com.example.lambda.resilience.ErrorClass;
+import com.example.lambda.resilience.ErrorClassifier;
+import com.example.lambda.resilience.ThroughputLimiter;
+import software.amazon.awssdk.core.exception.SdkClientException;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.BatchWriteItemResponse;
+import software.amazon.awssdk.services.dynamodb.model.DynamoDbException;
+import software.amazon.awssdk.services.dynamodb.model.WriteRequest;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * BatchWriteItem for bulk jobs: one call of up to {@link #LIMIT} writes, paced by a shared
+ * {@link ThroughputLimiter} at one unit per write. Unprocessed items, throttling exceptions and
+ * timed-out calls are retried with backoff and slow the limiter down, and server errors that outlast the client's
+ * own retries are retried the same way without slowing it, since a bulk job would rather wait than
+ * fail; anything still unprocessed after {@link #MAX_ROUNDS} calls fails the batch.
+ */
+public class BatchWrites {
+
+    public static final int LIMIT = 25;
+    private static final int MAX_ROUNDS = 8;
+
+    private static final Backoff backoff = new Backoff(25, 100, 5000);
+
+    public static void write(String table, List<WriteRequest> writes, ThroughputLimiter limiter) {
+        limiter.acquire(writes.size());
+        Map<String, List<WriteRequest>> request = Map.of(table, writes);
+        for (int round = 0; ; round++) {
+            Map<String, List<WriteRequest>> unprocessed;
+            ErrorClass cause = ErrorClass.THROTTLED;
+            try {
+                BatchWriteItemResponse response = DynamoDBClientUtil.getClient().batchWriteItem(
+                        BatchWriteItemRequest.builder().requestItems(request).build());
+                unprocessed = response.hasUnprocessedItems() ? response.unprocessedItems() : Map.of();
+            } catch (RuntimeException e) {
+                cause = ErrorClassifier.classify(e);
+                if (cause == ErrorClass.TERMINAL || round + 1 == MAX_ROUNDS) {
+                    throw e;
+                }
+                unprocessed = request;
+            }
+            if (unprocessed.isEmpty()) {
+                if (round == 0) limiter.onSuccess();
+                return;
+            }
+            if (round + 1 == MAX_ROUNDS) {
+                throw DynamoDbException.builder().message("Writes to " + table + " left unprocessed after retries").build();
+            }
+            if (cause == ErrorClass.THROTTLED || cause == ErrorClass.TIMEOUT) {
+                limiter.onThrottled();
+            }
+            sleep(backoff.delayMillis(round, cause));
+            request = unprocessed;
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw SdkClientException.create("Interrupted while backing off", e);
+        }
+    }
+}
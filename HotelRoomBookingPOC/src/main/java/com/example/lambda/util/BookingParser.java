@@ -1,5 +1,7 @@
 package com.example.lambda.util;
 
+import com.example.lambda.logging.Log;
+import com.example.lambda.model.BatchBookingRequest;
 import com.example.lambda.model.Booking;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
@@ -8,7 +10,7 @@ import java.util.Optional;
 
 public class BookingParser {
 
-    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectMapper mapper = JsonUtil.mapper();
 
     public static Optional<Booking> parseBooking(String requestBody) {
         return Optional.ofNullable(requestBody)                  // Handle null request body
@@ -18,7 +20,20 @@ public class BookingParser {
                         return mapper.readValue(body, Booking.class);
                     } catch (IOException e) {
                         // Log the error if needed
-                        System.err.println("JSON parsing error: " + e.getMessage());
+                        Log.warn("request.parse_failed", "error", e.getMessage());
+                        return null;
+                    }
+                });
+    }
+
+    public static Optional<BatchBookingRequest> parseBatch(String requestBody) {
+        return Optional.ofNullable(requestBody)
+                .filter(body -> !body.trim().isEmpty())
+                .map(body -> {
+                    try {
+                        return mapper.readValue(body, BatchBookingRequest.class);
+                    } catch (IOException e) {
+                        Log.warn("request.parse_failed", "error", e.getMessage());
                         return null;
                     }
                 });
@@ -0,0 +1,52 @@
+package com.example.lambda.util;
+
+import com.example.lambda.cache.BookingCache;
+import com.example.lambda.projection.BookingViews;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryResponse;
+
+import java.util.Map;
+import java.util.Optional;
+
+public class BookingQuery {
+
+    private static final String TABLE = "Bookings";
+
+    // Global secondary indexes on Bookings, both with checkInDate as sort key
+    public static final String ROOM_INDEX = "roomId-checkInDate-index";
+    public static final String USER_INDEX = "userId-checkInDate-index";
+
+    public static QueryResponse activeByRoom(String roomId, int limit, Map<String, AttributeValue> startKey) {
+        return queryActive(ROOM_INDEX, BookingViews.roomView(roomId), "roomId", roomId, limit, startKey);
+    }
+
+    public static QueryResponse activeByUser(String userId, int limit, Map<String, AttributeValue> startKey) {
+        return queryActive(USER_INDEX, BookingViews.userView(userId), "userId", userId, limit, startKey);
+    }
+
+    // Served from the warm-container cache when BOOKING_CACHE_TTL_MILLIS allows stale pages, then from
+    // the stream-maintained view when BOOKING_VIEWS is on and the view exists, otherwise from the index
+    private static QueryResponse queryActive(String index, String viewId, String keyName, String keyValue,
+                                             int limit, Map<String, AttributeValue> startKey) {
+        return BookingCache.page(index, keyValue, limit, startKey,
+                () -> (BookingViews.ENABLED ? BookingViews.page(viewId, keyName, limit, startKey) : Optional.<QueryResponse>empty())
+                        .orElseGet(() -> query(index, keyName, keyValue, limit, startKey)));
+    }
+
+    private static QueryResponse query(String index, String keyName, String keyValue,
+                                       int limit, Map<String, AttributeValue> startKey) {
+        return DynamoDBClientUtil.getClient().query(QueryRequest.builder()
+                .tableName(TABLE)
+                .indexName(index)
+                .keyConditionExpression(keyName + " = :key")
+                .filterExpression("deleted = :false")
+                .expressionAttributeValues(Map.of(
+                        ":key", AttributeValue.fromS(keyValue),
+                        ":false", AttributeValue.fromBool(false)
+                ))
+                .limit(limit)
+                .exclusiveStartKey(startKey)
+                .build());
+    }
+}
@@ -1,14 +1,153 @@
 package com.example.lambda.util;
 
+import com.example.lambda.async.AsyncDynamo;
+import com.example.lambda.async.BlockingAsyncClient;
+import com.example.lambda.logging.Log;
+import com.example.lambda.metrics.DynamoDbTimingInterceptor;
+import com.example.lambda.resilience.ResilientDynamoDbClient;
+import software.amazon.awssdk.auth.credentials.AwsCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.DefaultCredentialsProvider;
+import software.amazon.awssdk.auth.credentials.EnvironmentVariableCredentialsProvider;
+import software.amazon.awssdk.awscore.retry.AwsRetryStrategy;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.http.urlconnection.UrlConnectionHttpClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClient;
+import software.amazon.awssdk.services.dynamodb.DynamoDbAsyncClientBuilder;
 import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
 import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClientBuilder;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executors;
 
 public class DynamoDBClientUtil {
-    private static final DynamoDbClient client = DynamoDbClient.builder()
-            .region(Region.AP_SOUTH_1) // change region if needed
-            .build();
+
+    // Built on first use rather than at class load, so handlers that fail validation never pay for it.
+    // Handed out wrapped in the retry policy; the SDK's own retries are off.
+    private static volatile ResilientDynamoDbClient client;
+    private static volatile DynamoDbAsyncClient asyncClient;
+
+    // Netty brings a second HTTP stack with its own event loop, which a Lambda cold start should not pay for:
+    // there the async path runs the URLConnection client on virtual threads unless DYNAMODB_ASYNC_HTTP=netty
+    private static final boolean NETTY = Optional.ofNullable(System.getenv("DYNAMODB_ASYNC_HTTP"))
+            .map("netty"::equalsIgnoreCase)
+            .orElse(System.getenv("AWS_LAMBDA_FUNCTION_NAME") == null);
+
+    private static final Duration ASYNC_CALL_TIMEOUT = Duration.ofMillis(
+            Optional.ofNullable(System.getenv("DYNAMODB_CALL_TIMEOUT_MILLIS")).map(Long::parseLong).orElse(3000L));
 
     public static DynamoDbClient getClient() {
-        return client;
+        ResilientDynamoDbClient current = client;
+        if (current == null) {
+            synchronized (DynamoDBClientUtil.class) {
+                current = client;
+                if (current == null) {
+                    current = new ResilientDynamoDbClient(buildClient());
+                    client = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Also built lazily; falls back to the blocking client run inline when async is disabled or unavailable
+    public static DynamoDbAsyncClient getAsyncClient() {
+        DynamoDbAsyncClient current = asyncClient;
+        if (current == null) {
+            synchronized (DynamoDBClientUtil.class) {
+                current = asyncClient;
+                if (current == null) {
+                    current = !AsyncDynamo.ENABLED ? new BlockingAsyncClient(rawClient(), Runnable::run)
+                            : NETTY ? buildAsyncClient()
+                            : new BlockingAsyncClient(rawClient(), Executors.newVirtualThreadPerTaskExecutor());
+                    asyncClient = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    // Netty's event loop and pooled channels do not survive a snapshot; the next call builds a fresh client
+    public static void discardAsyncConnections() {
+        synchronized (DynamoDBClientUtil.class) {
+            if (asyncClient != null && !(asyncClient instanceof BlockingAsyncClient)) {
+                asyncClient.close();
+                asyncClient = null;
+            }
+        }
+    }
+
+    // Swaps the shared client, e.g. for an in-memory stand-in in benchmarks and local runs.
+    // The async path is routed through the replacement too, on virtual threads unless async is disabled.
+    public static void setClient(DynamoDbClient replacement) {
+        synchronized (DynamoDBClientUtil.class) {
+            client = new ResilientDynamoDbClient(replacement);
+            asyncClient = new BlockingAsyncClient(replacement,
+                    AsyncDynamo.ENABLED ? Executors.newVirtualThreadPerTaskExecutor() : Runnable::run);
+        }
+    }
+
+    // The async path applies the retry policy itself, so its blocking fallback must not retry again
+    private static DynamoDbClient rawClient() {
+        getClient();
+        return client.unwrap();
+    }
+
+    public static Region region() {
+        return Optional.ofNullable(System.getenv("AWS_REGION"))
+                .filter(r -> !r.isEmpty())
+                .map(Region::of)
+                .orElse(Region.AP_SOUTH_1); // change region if needed
+    }
+
+    // Lightweight URLConnection HTTP stack and explicit region/credentials skip the
+    // Apache client and the default provider-chain lookups during cold start
+    private static DynamoDbClient buildClient() {
+        DynamoDbClientBuilder builder = DynamoDbClient.builder()
+                .region(region())
+                .credentialsProvider(credentialsProvider())
+                .httpClientBuilder(UrlConnectionHttpClient.builder())
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .retryStrategy(AwsRetryStrategy.doNotRetry())
+                        .addExecutionInterceptor(new DynamoDbTimingInterceptor())
+                        .build());
+        Optional.ofNullable(System.getenv("DYNAMODB_ENDPOINT"))
+                .filter(e -> !e.isEmpty())
+                .ifPresent(endpoint -> builder.endpointOverride(URI.create(endpoint)));
+        return builder.build();
+    }
+
+    // Netty is the only non-blocking HTTP stack; its pool is sized to the in-flight cap so queued
+    // calls wait in AsyncDynamo rather than for a connection
+    private static DynamoDbAsyncClient buildAsyncClient() {
+        try {
+            DynamoDbAsyncClientBuilder builder = DynamoDbAsyncClient.builder()
+                    .region(region())
+                    .credentialsProvider(credentialsProvider())
+                    .httpClientBuilder(NettyNioAsyncHttpClient.builder()
+                            .maxConcurrency(AsyncDynamo.MAX_IN_FLIGHT))
+                    .overrideConfiguration(ClientOverrideConfiguration.builder()
+                            .apiCallTimeout(ASYNC_CALL_TIMEOUT)
+                            .retryStrategy(AwsRetryStrategy.doNotRetry())
+                            .addExecutionInterceptor(new DynamoDbTimingInterceptor())
+                            .build());
+            Optional.ofNullable(System.getenv("DYNAMODB_ENDPOINT"))
+                    .filter(e -> !e.isEmpty())
+                    .ifPresent(endpoint -> builder.endpointOverride(URI.create(endpoint)));
+            return builder.build();
+        } catch (RuntimeException | LinkageError e) {
+            Log.warn("dynamodb.async_unavailable", "error", e.toString());
+            return new BlockingAsyncClient(rawClient(), Runnable::run);
+        }
+    }
+
+    // Lambda exports the execution role's keys as environment variables; elsewhere fall back to the full chain
+    private static AwsCredentialsProvider credentialsProvider() {
+        return System.getenv("AWS_ACCESS_KEY_ID") != null
+                ? EnvironmentVariableCredentialsProvider.create()
+                : DefaultCredentialsProvider.create();
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.example.lambda.util;
 
+import com.example.lambda.cache.BookingCache;
 import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
 import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
@@ -11,19 +12,21 @@ public class FindBooking {
 
     private static final String TABLE = "Bookings";
 
+    // Empty only when the booking does not exist; DynamoDB errors propagate so callers can tell them apart.
+    // Existing items may come from the warm-container cache, so writers must still guard on what they read.
     public static Optional<Map<String, AttributeValue>> findBookingById(String bookingId) {
-        try {
-            GetItemResponse response = DynamoDBClientUtil.getClient().getItem(
-                    GetItemRequest.builder()
-                            .tableName(TABLE)
-                            .key(Map.of("bookingId", AttributeValue.fromS(bookingId)))
-                            .build()
-            );
-            return Optional.ofNullable(response.item())
-                    .filter(item -> !item.isEmpty());
-        } catch (Exception e) {
-            return Optional.empty();
-        }
+        return BookingCache.booking(bookingId, FindBooking::load);
+    }
+
+    private static Map<String, AttributeValue> load(String bookingId) {
+        GetItemResponse response = DynamoDBClientUtil.getClient().getItem(
+                GetItemRequest.builder()
+                        .tableName(TABLE)
+                        .key(Map.of("bookingId", AttributeValue.fromS(bookingId)))
+                        .consistentRead(true)
+                        .build()
+        );
+        return response.item() == null || response.item().isEmpty() ? null : response.item();
     }
 
 }
@@ -0,0 +1,39 @@
+package com.example.lambda.util;
+
+import com.example.lambda.model.Hotel;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.GetItemResponse;
+
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Optional;
+
+public class FindHotel {
+
+    private static final String TABLE = "Hotels";
+
+    // Room inventory is stored as a string set "roomIds" on the hotel item
+    public static Optional<Hotel> findHotelById(String hotelId) {
+        GetItemResponse response = DynamoDBClientUtil.getClient().getItem(
+                GetItemRequest.builder()
+                        .tableName(TABLE)
+                        .key(Map.of("hotelId", AttributeValue.fromS(hotelId)))
+                        .build()
+        );
+        return Optional.ofNullable(response.item())
+                .filter(item -> !item.isEmpty())
+                .map(FindHotel::toHotel);
+    }
+
+    private static Hotel toHotel(Map<String, AttributeValue> item) {
+        Hotel hotel = new Hotel();
+        hotel.setHotelId(item.get("hotelId").s());
+        Optional.ofNullable(item.get("name")).map(AttributeValue::s).ifPresent(hotel::setName);
+        Optional.ofNullable(item.get("roomIds"))
+                .filter(AttributeValue::hasSs)
+                .map(roomIds -> new ArrayList<>(roomIds.ss()))
+                .ifPresent(hotel::setRoomIds);
+        return hotel;
+    }
+}
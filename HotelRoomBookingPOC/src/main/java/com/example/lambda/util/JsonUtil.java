@@ -0,0 +1,31 @@
+package com.example.lambda.util;
+
+import com.example.lambda.logging.Log;
+import com.example.lambda.model.Booking;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.List;
+import java.util.Map;
+
+public class JsonUtil {
+
+    // One mapper for the whole container; Jackson caches (de)serializers per mapper instance
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    static {
+        // Build the serializers the request path needs during class init instead of on the first request
+        try {
+            Booking booking = mapper.readValue(
+                    "{\"roomId\":\"r\",\"userId\":\"u\",\"checkInDate\":\"2024-01-01\",\"checkOutDate\":\"2024-01-02\"}",
+                    Booking.class);
+            mapper.writeValueAsString(booking);
+            mapper.writeValueAsString(Map.of("bookings", List.of(Map.of("roomId", "r", "deleted", false)), "message", "m"));
+        } catch (Exception e) {
+            Log.warn("json.warmup_failed", "error", e.getMessage());
+        }
+    }
+
+    public static ObjectMapper mapper() {
+        return mapper;
+    }
+}
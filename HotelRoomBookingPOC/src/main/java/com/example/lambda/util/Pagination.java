@@ -0,0 +1,68 @@
+package com.example.lambda.util;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+public class Pagination {
+
+    public static final int DEFAULT_LIMIT = 50;
+    public static final int MAX_LIMIT = 500;
+
+    private static final ObjectMapper mapper = JsonUtil.mapper();
+
+    // Opaque continuation token: base64url of the LastEvaluatedKey as {"name": {"S"|"N": value}}
+    public static Optional<String> encodeToken(Map<String, AttributeValue> lastEvaluatedKey) {
+        if (lastEvaluatedKey == null || lastEvaluatedKey.isEmpty()) {
+            return Optional.empty();
+        }
+        Map<String, Map<String, String>> key = new LinkedHashMap<>();
+        lastEvaluatedKey.forEach((name, value) -> {
+            if (value.s() != null) key.put(name, Map.of("S", value.s()));
+            else if (value.n() != null) key.put(name, Map.of("N", value.n()));
+        });
+        try {
+            return Optional.of(Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString(mapper.writeValueAsBytes(key)));
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    public static Optional<Map<String, AttributeValue>> decodeToken(String token) {
+        try {
+            Map<String, Map<String, String>> key = mapper.readValue(
+                    Base64.getUrlDecoder().decode(token.getBytes(StandardCharsets.US_ASCII)),
+                    new TypeReference<Map<String, Map<String, String>>>() {});
+            Map<String, AttributeValue> startKey = new HashMap<>();
+            for (Map.Entry<String, Map<String, String>> entry : key.entrySet()) {
+                Map<String, String> typed = entry.getValue();
+                if (typed.containsKey("S")) startKey.put(entry.getKey(), AttributeValue.fromS(typed.get("S")));
+                else if (typed.containsKey("N")) startKey.put(entry.getKey(), AttributeValue.fromN(typed.get("N")));
+                else return Optional.empty();
+            }
+            return startKey.isEmpty() ? Optional.empty() : Optional.of(startKey);
+        } catch (Exception e) {
+            return Optional.empty();
+        }
+    }
+
+    public static Optional<Integer> parseLimit(String limit) {
+        if (limit == null || limit.trim().isEmpty()) {
+            return Optional.of(DEFAULT_LIMIT);
+        }
+        try {
+            int value = Integer.parseInt(limit.trim());
+            return value > 0 && value <= MAX_LIMIT ? Optional.of(value) : Optional.empty();
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package com.example.lambda.util;
 
 import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.example.lambda.resilience.ErrorClassifier;
+import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
 
+import java.io.CharArrayWriter;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 public class ResponseUtil {
-    private static final ObjectMapper mapper = new ObjectMapper();
+    private static final ObjectMapper mapper = JsonUtil.mapper();
+
+    // Initial buffer per item, so typical pages are written without the buffer growing
+    private static final int BYTES_PER_ITEM = 256;
 
     public static APIGatewayProxyResponseEvent success(Object body) {
         try {
@@ -19,10 +29,63 @@ public class ResponseUtil {
         }
     }
 
+    // {"<listName>":[items...],"nextToken":...} written item by item from the DynamoDB page
+    public static APIGatewayProxyResponseEvent page(String listName, List<Map<String, AttributeValue>> items,
+                                                    Optional<String> nextToken) {
+        // A buffer per response rather than per thread: with virtual threads a per-thread buffer is one per request anyway
+        CharArrayWriter buffer = new CharArrayWriter(64 + BYTES_PER_ITEM * items.size());
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(buffer)) {
+            gen.writeStartObject();
+            gen.writeArrayFieldStart(listName);
+            for (Map<String, AttributeValue> item : items) {
+                AttributeValueJson.writeItem(gen, item);
+            }
+            gen.writeEndArray();
+            gen.writeStringField("nextToken", nextToken.orElse(null));
+            gen.writeEndObject();
+        } catch (Exception e) {
+            return error(500, "Failed to serialize response");
+        }
+        return new APIGatewayProxyResponseEvent()
+                .withStatusCode(200)
+                .withHeaders(Map.of("Content-Type", "application/json"))
+                .withBody(buffer.toString());
+    }
+
+    // The message may echo request input (e.g. the path), so it goes through the mapper to be escaped
     public static APIGatewayProxyResponseEvent error(int code, String message) {
+        String body;
+        try {
+            body = mapper.writeValueAsString(Collections.singletonMap("error", message));
+        } catch (Exception e) {
+            body = "{\"error\":null}";
+        }
         return new APIGatewayProxyResponseEvent()
                 .withStatusCode(code)
                 .withHeaders(Map.of("Content-Type", "application/json"))
-                .withBody("{\"error\":\"" + message + "\"}");
+                .withBody(body);
+    }
+
+    // A DynamoDB failure that outlasted the retry policy: throttling and outages tell the client to back off
+    public static APIGatewayProxyResponseEvent failure(Throwable cause, String message) {
+        switch (ErrorClassifier.classify(cause)) {
+            case THROTTLED:
+                return retryLater(429, "Too many requests, please retry later");
+            case TRANSIENT:
+            case TIMEOUT:
+                return retryLater(503, "Service temporarily unavailable, please retry");
+            default:
+                return error(500, message);
+        }
+    }
+
+    // Shed before any work was done
+    public static APIGatewayProxyResponseEvent overloaded() {
+        return retryLater(503, "Server is overloaded, please retry later");
+    }
+
+    private static APIGatewayProxyResponseEvent retryLater(int code, String message) {
+        return error(code, message)
+                .withHeaders(Map.of("Content-Type", "application/json", "Retry-After", "1"));
     }
 }
\ No newline at end of file
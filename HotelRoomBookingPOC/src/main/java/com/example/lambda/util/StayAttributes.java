@@ -0,0 +1,55 @@
+package com.example.lambda.util;
+
+import com.example.lambda.model.DateRange;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+
+import java.util.Map;
+
+/**
+ * Stay dates on a Bookings item. Items carry checkInDay/checkOutDay as epoch-day numbers; the
+ * yyyy-MM-dd strings are still written because the room and user indexes sort on checkInDate and
+ * the search API returns them. Items written before the numeric attributes existed have only the strings.
+ */
+public class StayAttributes {
+
+    public static final String CHECK_IN_DAY = "checkInDay";
+    public static final String CHECK_OUT_DAY = "checkOutDay";
+
+    public static DateRange read(Map<String, AttributeValue> item) {
+        AttributeValue checkIn = item.get(CHECK_IN_DAY);
+        AttributeValue checkOut = item.get(CHECK_OUT_DAY);
+        if (checkIn != null && checkIn.n() != null && checkOut != null && checkOut.n() != null) {
+            return new DateRange(Integer.parseInt(checkIn.n()), Integer.parseInt(checkOut.n()));
+        }
+        return DateRange.parse(item.get("checkInDate").s(), item.get("checkOutDate").s());
+    }
+
+    public static void write(Map<String, AttributeValue> item, DateRange stay) {
+        item.put("checkInDate", AttributeValue.fromS(stay.checkInDate()));
+        item.put("checkOutDate", AttributeValue.fromS(stay.checkOutDate()));
+        item.put(CHECK_IN_DAY, AttributeValue.fromN(Integer.toString(stay.getCheckInDay())));
+        item.put(CHECK_OUT_DAY, AttributeValue.fromN(Integer.toString(stay.getCheckOutDay())));
+    }
+
+    // "SET ..." clause for an update to the given stay; values are added under :<prefix>In and :<prefix>Out
+    public static String setClause(DateRange stay, Map<String, AttributeValue> values, String prefix) {
+        values.put(":" + prefix + "In", AttributeValue.fromS(stay.checkInDate()));
+        values.put(":" + prefix + "Out", AttributeValue.fromS(stay.checkOutDate()));
+        values.put(":" + prefix + "InDay", AttributeValue.fromN(Integer.toString(stay.getCheckInDay())));
+        values.put(":" + prefix + "OutDay", AttributeValue.fromN(Integer.toString(stay.getCheckOutDay())));
+        return "checkInDate = :" + prefix + "In, checkOutDate = :" + prefix + "Out, "
+                + CHECK_IN_DAY + " = :" + prefix + "InDay, " + CHECK_OUT_DAY + " = :" + prefix + "OutDay";
+    }
+
+    // Condition that the item still holds the stay read from it, in whichever form it was stored
+    public static String unchanged(Map<String, AttributeValue> item, Map<String, AttributeValue> values, String prefix) {
+        if (item.containsKey(CHECK_IN_DAY) && item.containsKey(CHECK_OUT_DAY)) {
+            values.put(":" + prefix + "InDay", item.get(CHECK_IN_DAY));
+            values.put(":" + prefix + "OutDay", item.get(CHECK_OUT_DAY));
+            return CHECK_IN_DAY + " = :" + prefix + "InDay AND " + CHECK_OUT_DAY + " = :" + prefix + "OutDay";
+        }
+        values.put(":" + prefix + "In", item.get("checkInDate"));
+        values.put(":" + prefix + "Out", item.get("checkOutDate"));
+        return "checkInDate = :" + prefix + "In AND checkOutDate = :" + prefix + "Out";
+    }
+}
@@ -1,23 +1,67 @@
 package com.example.lambda.validation;
 
+import com.example.lambda.conflict.BookingConflictIndex;
 import com.example.lambda.model.Booking;
+import com.example.lambda.model.DateRange;
 
-import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 public class BookingValidator {
 
+    // Every night is a lock item in the booking's transaction; DynamoDB allows 100 items per
+    // transaction and a reschedule may release and acquire a full stay in one go
+    public static final int MAX_NIGHTS = 30;
+
     public static Optional<String> validate(Booking booking) {
         if (booking == null) return Optional.of("Booking payload is missing");
         if (booking.getRoomId() == null || booking.getRoomId().isEmpty())
             return Optional.of("Missing roomId");
         if (booking.getUserId() == null || booking.getUserId().isEmpty())
             return Optional.of("Missing userId");
+        return validateStay(booking);
+    }
+
+    public static Optional<String> validateUpdate(Booking booking) {
+        if (booking == null) return Optional.of("Booking payload is missing");
+        return validateStay(booking);
+    }
+
+    // Per-item errors, also rejecting bookings that overlap an earlier valid booking of the same batch.
+    // Stays are half-open, so back-to-back stays do not overlap
+    public static List<Optional<String>> validateBatch(List<Booking> bookings) {
+        BookingConflictIndex batchIndex = new BookingConflictIndex();
+        List<Optional<String>> errors = new ArrayList<>(bookings.size());
+        for (int i = 0; i < bookings.size(); i++) {
+            Booking booking = bookings.get(i);
+            Optional<String> error = validate(booking);
+            if (!error.isPresent() && !batchIndex.add(booking.getRoomId(), "#" + i,
+                    booking.getStay().getCheckInDay(), booking.getStay().getCheckOutDay())) {
+                error = Optional.of("Overlaps another booking for the same room in this batch");
+            }
+            errors.add(error);
+        }
+        return errors;
+    }
+
+    private static Optional<String> validateStay(Booking booking) {
         if (booking.getCheckInDate() == null || booking.getCheckInDate().isEmpty())
             return Optional.of("Missing checkInDate");
         if (booking.getCheckOutDate() == null || booking.getCheckOutDate().isEmpty())
             return Optional.of("Missing checkOutDate");
+        // Parsed once here; later stages read the cached epoch days from getStay()
+        DateRange stay;
+        try {
+            stay = booking.getStay();
+        } catch (DateTimeParseException e) {
+            return Optional.of("Dates must be in yyyy-MM-dd format");
+        }
+        if (stay.nights() <= 0)
+            return Optional.of("checkOutDate must be after checkInDate");
+        if (stay.nights() > MAX_NIGHTS)
+            return Optional.of("A booking cannot exceed " + MAX_NIGHTS + " nights");
         return Optional.empty();
     }
 
@@ -0,0 +1,99 @@
+package com.example.lambda.async;
+
+import com.example.lambda.metrics.DynamoDbTimingInterceptor;
+import com.example.lambda.metrics.Metrics;
+import com.example.lambda.metrics.RequestTimer;
+import com.example.lambda.util.DynamoDBClientUtil;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
+import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.client.config.ClientOverrideConfiguration;
+import software.amazon.awssdk.http.AbortableInputStream;
+import software.amazon.awssdk.http.ExecutableHttpRequest;
+import software.amazon.awssdk.http.HttpExecuteRequest;
+import software.amazon.awssdk.http.HttpExecuteResponse;
+import software.amazon.awssdk.http.SdkHttpClient;
+import software.amazon.awssdk.http.SdkHttpResponse;
+import software.amazon.awssdk.regions.Region;
+import software.amazon.awssdk.services.dynamodb.DynamoDbClient;
+import software.amazon.awssdk.services.dynamodb.model.AttributeValue;
+import software.amazon.awssdk.services.dynamodb.model.GetItemRequest;
+import software.amazon.awssdk.services.dynamodb.model.QueryRequest;
+
+import java.io.ByteArrayInputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class AsyncDynamoTest {
+
+    @BeforeAll
+    static void stubClient() {
+        // A real SDK client, so the timing interceptor runs, answering every call with an empty result
+        DynamoDBClientUtil.setClient(DynamoDbClient.builder()
+                .region(Region.US_EAST_1)
+                .credentialsProvider(StaticCredentialsProvider.create(AwsBasicCredentials.create("test", "test")))
+                .endpointOverride(URI.create("http://localhost:8000"))
+                .httpClient(new EmptyResponses())
+                .overrideConfiguration(ClientOverrideConfiguration.builder()
+                        .addExecutionInterceptor(new DynamoDbTimingInterceptor())
+                        .build())
+                .build());
+    }
+
+    @Test
+    void asyncCallRecordsPhaseOfCallingRequest() {
+        try (RequestTimer timer = Metrics.start("AsyncDynamoTest.get")) {
+            AsyncDynamo.join(AsyncDynamo.getItem(get()));
+            assertEquals(1, Metrics.histogram("AsyncDynamoTest.get", "DynamoDB.GetItem").count());
+        }
+    }
+
+    @Test
+    void callChainedOnCompletionRecordsPhaseOfCallingRequest() {
+        try (RequestTimer timer = Metrics.start("AsyncDynamoTest.chain")) {
+            AsyncDynamo.join(AsyncDynamo.getItem(get()).thenCompose(item -> AsyncDynamo.query(QueryRequest.builder()
+                    .tableName("Bookings")
+                    .keyConditionExpression("roomId = :r")
+                    .expressionAttributeValues(Map.of(":r", AttributeValue.fromS("101")))
+                    .build())));
+            assertEquals(1, Metrics.histogram("AsyncDynamoTest.chain", "DynamoDB.GetItem").count());
+            assertEquals(1, Metrics.histogram("AsyncDynamoTest.chain", "DynamoDB.Query").count());
+        }
+    }
+
+    private static GetItemRequest get() {
+        return GetItemRequest.builder()
+                .tableName("Bookings")
+                .key(Map.of("bookingId", AttributeValue.fromS("b-1")))
+                .build();
+    }
+
+    private static class EmptyResponses implements SdkHttpClient {
+
+        @Override
+        public ExecutableHttpRequest prepareRequest(HttpExecuteRequest request) {
+            return new ExecutableHttpRequest() {
+                @Override
+                public HttpExecuteResponse call() {
+                    return HttpExecuteResponse.builder()
+                            .response(SdkHttpResponse.builder().statusCode(200).build())
+                            .responseBody(AbortableInputStream.create(
+                                    new ByteArrayInputStream("{}".getBytes(StandardCharsets.UTF_8))))
+                            .build();
+                }
+
+                @Override
+                public void abort() {
+                }
+            };
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
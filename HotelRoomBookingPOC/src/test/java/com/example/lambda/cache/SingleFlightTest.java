@@ -0,0 +1,94 @@
+package com.example.lambda.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SingleFlightTest {
+
+    private final SingleFlight<String, String> flight = new SingleFlight<>(Function.identity(), 10, 200);
+
+    @Test
+    void followerSharesLeaderResult() throws Exception {
+        CountDownLatch leading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flight.run("k", () -> {
+            leading.countDown();
+            await(release);
+            return "leader";
+        }));
+        assertTrue(leading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> flight.run("k", () -> "follower"));
+        awaitFollowers(1);
+        release.countDown();
+
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+        assertEquals("leader", follower.get(5, TimeUnit.SECONDS));
+        assertEquals(1, flight.stats(0).getFollowers());
+        assertEquals(0, flight.stats(0).getWaitTimeouts());
+    }
+
+    @Test
+    void followerRunsItsOwnCallWhenLeaderIsStuck() throws Exception {
+        CountDownLatch leading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flight.run("k", () -> {
+            leading.countDown();
+            await(release);
+            return "leader";
+        }));
+        assertTrue(leading.await(5, TimeUnit.SECONDS));
+
+        long began = System.nanoTime();
+        assertEquals("follower", flight.run("k", () -> "follower"));
+        long waitedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - began);
+        assertTrue(waitedMillis >= 200 && waitedMillis < 5_000, "waited " + waitedMillis + "ms");
+        assertEquals(1, flight.stats(0).getWaitTimeouts());
+
+        release.countDown();
+        assertEquals("leader", leader.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void followerRethrowsLeaderFailure() throws Exception {
+        CountDownLatch leading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> leader = CompletableFuture.supplyAsync(() -> flight.run("k", () -> {
+            leading.countDown();
+            await(release);
+            throw new IllegalArgumentException("boom");
+        }));
+        assertTrue(leading.await(5, TimeUnit.SECONDS));
+
+        CompletableFuture<String> follower = CompletableFuture.supplyAsync(() -> flight.run("k", () -> "follower"));
+        awaitFollowers(1);
+        release.countDown();
+
+        assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+        Exception failure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+        assertTrue(failure.getCause() instanceof IllegalArgumentException, failure.toString());
+    }
+
+    private void awaitFollowers(long count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (flight.stats(0).getFollowers() < count && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
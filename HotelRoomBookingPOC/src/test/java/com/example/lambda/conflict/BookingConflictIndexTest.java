@@ -0,0 +1,57 @@
+package com.example.lambda.conflict;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookingConflictIndexTest {
+
+    private final BookingConflictIndex index = new BookingConflictIndex();
+
+    @Test
+    void overlapIsDetectedAndBackToBackStaysAreNot() {
+        assertTrue(index.add("101", "a", 10, 13));
+
+        assertTrue(index.hasConflict("101", 12, 14, null));
+        assertTrue(index.hasConflict("101", 8, 11, null));
+        assertTrue(index.hasConflict("101", 11, 12, null));
+        assertFalse(index.hasConflict("101", 13, 15, null));
+        assertFalse(index.hasConflict("101", 7, 10, null));
+        assertFalse(index.hasConflict("102", 10, 13, null));
+    }
+
+    @Test
+    void addRejectsOverlapAndLeavesIndexUnchanged() {
+        assertTrue(index.add("101", "a", 10, 13));
+        assertFalse(index.add("101", "b", 12, 15));
+        assertFalse(index.add("101", "a", 20, 22));
+
+        assertEquals(1, index.size("101"));
+        assertFalse(index.hasConflict("101", 13, 15, null));
+    }
+
+    @Test
+    void moveIgnoresTheMovedBookingItself() {
+        index.add("101", "a", 10, 13);
+        index.add("101", "b", 20, 22);
+
+        assertFalse(index.hasConflict("101", 11, 14, "a"));
+        assertTrue(index.move("101", "a", 11, 14));
+        assertFalse(index.move("101", "a", 19, 21));
+
+        assertTrue(index.hasConflict("101", 13, 14, null));
+        assertFalse(index.hasConflict("101", 10, 11, null));
+    }
+
+    @Test
+    void removeFreesTheNights() {
+        index.add("101", "a", 10, 13);
+
+        assertTrue(index.remove("101", "a"));
+        assertFalse(index.remove("101", "a"));
+        assertFalse(index.hasConflict("101", 10, 13, null));
+        assertTrue(index.add("101", "b", 11, 12));
+    }
+}
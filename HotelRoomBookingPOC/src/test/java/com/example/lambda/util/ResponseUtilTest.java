@@ -0,0 +1,20 @@
+package com.example.lambda.util;
+
+import com.amazonaws.services.lambda.runtime.events.APIGatewayProxyResponseEvent;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ResponseUtilTest {
+
+    @Test
+    void errorMessageIsEscaped() throws Exception {
+        String message = "No route for GET /rooms/\"x\\\n\"}";
+        APIGatewayProxyResponseEvent response = ResponseUtil.error(404, message);
+
+        JsonNode body = JsonUtil.mapper().readTree(response.getBody());
+        assertEquals(1, body.size());
+        assertEquals(message, body.get("error").asText());
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.lambda.validation;
+
+import com.example.lambda.model.Booking;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookingValidatorTest {
+
+    @Test
+    void batchRejectsOverlapWithEarlierValidBookingOfSameRoom() {
+        List<Optional<String>> errors = BookingValidator.validateBatch(List.of(
+                booking("101", "2024-05-01", "2024-05-04"),
+                booking("101", "2024-05-03", "2024-05-05"),
+                booking("101", "2024-05-04", "2024-05-06"),
+                booking("102", "2024-05-01", "2024-05-04"),
+                booking("103", "2024-05-04", "2024-05-01"),
+                booking("103", "2024-05-02", "2024-05-03")));
+
+        assertEquals(Optional.empty(), errors.get(0));
+        assertEquals(Optional.of("Overlaps another booking for the same room in this batch"), errors.get(1));
+        assertEquals(Optional.empty(), errors.get(2));
+        assertEquals(Optional.empty(), errors.get(3));
+        assertEquals(Optional.of("checkOutDate must be after checkInDate"), errors.get(4));
+        assertEquals(Optional.empty(), errors.get(5));
+    }
+
+    private static Booking booking(String roomId, String checkIn, String checkOut) {
+        Booking booking = new Booking();
+        booking.setRoomId(roomId);
+        booking.setUserId("u-1");
+        booking.setCheckInDate(checkIn);
+        booking.setCheckOutDate(checkOut);
+        return booking;
+    }
+}